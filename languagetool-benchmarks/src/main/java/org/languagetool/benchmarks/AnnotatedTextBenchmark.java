@@ -0,0 +1,81 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building an {@link AnnotatedText} for a large HTML-like document and mapping
+ * error positions back to the text with markup, as done for every rule match.
+ * @since 4.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotatedTextBenchmark {
+
+  private static final int POSITIONS = 1000;
+
+  @Param({"100", "10000"})
+  public int markupParts;
+
+  private AnnotatedTextBuilder builder;
+  private AnnotatedText text;
+  private int[] plainTextPositions;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    builder = new AnnotatedTextBuilder().addMarkup("<html><body>");
+    for (int i = 0; i < markupParts; i++) {
+      builder.addMarkup("<p class=\"para\">").addText("This is a sentence with a ").addMarkup("<b>")
+             .addText("bold").addMarkup("</b>").addText(" word.").addMarkup("</p>", "\n\n");
+    }
+    builder.addMarkup("</body></html>");
+    text = builder.build();
+    int plainTextLength = text.getPlainText().length();
+    Random random = new Random(42);
+    plainTextPositions = new int[POSITIONS];
+    for (int i = 0; i < POSITIONS; i++) {
+      plainTextPositions[i] = random.nextInt(plainTextLength);
+    }
+  }
+
+  @Benchmark
+  public AnnotatedText build() {
+    return builder.build();
+  }
+
+  @Benchmark
+  public int mapPositions() {
+    int sum = 0;
+    for (int position : plainTextPositions) {
+      sum += text.getOriginalTextPositionFor(position);
+    }
+    return sum;
+  }
+
+}
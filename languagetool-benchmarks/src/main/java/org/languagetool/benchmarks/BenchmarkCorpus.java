@@ -0,0 +1,63 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.Language;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the text used by the benchmarks. There's one text per language in
+ * {@code /org/languagetool/benchmarks/corpus/<language code>.txt}.
+ * @since 4.4
+ */
+final class BenchmarkCorpus {
+
+  private static final String CORPUS_DIR = "/org/languagetool/benchmarks/corpus/";
+
+  private BenchmarkCorpus() {
+  }
+
+  /**
+   * Get the text for the given language, without comment lines. Empty lines
+   * in the file are kept as paragraph separators.
+   */
+  static String load(Language language) throws IOException {
+    String path = CORPUS_DIR + language.getShortCode() + ".txt";
+    InputStream stream = BenchmarkCorpus.class.getResourceAsStream(path);
+    if (stream == null) {
+      throw new IllegalArgumentException("No benchmark text for " + language + ", expected it at " + path);
+    }
+    StringBuilder sb = new StringBuilder();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.startsWith("#")) {
+          sb.append(line).append('\n');
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running the XML disambiguation rules on all tagged sentences of the benchmark text.
+ * The disambiguator can modify the readings of its input, so it works on a copy
+ * of each sentence - the copying is part of the measured time.
+ * @since 4.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisambiguatorBenchmark {
+
+  private XmlRuleDisambiguator disambiguator;
+
+  @Setup(Level.Trial)
+  public void setup(LanguageState state) {
+    disambiguator = new XmlRuleDisambiguator(state.language);
+  }
+
+  @Benchmark
+  public void disambiguate(LanguageState state, Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : state.rawSentences) {
+      blackhole.consume(disambiguator.disambiguate(sentence.copy(sentence)));
+    }
+  }
+
+}
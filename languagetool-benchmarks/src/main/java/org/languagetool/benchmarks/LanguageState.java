@@ -0,0 +1,66 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The language and the benchmark text in all the forms the stages of the
+ * pipeline need as input, so each benchmark only measures its own stage.
+ * @since 4.4
+ */
+@State(Scope.Benchmark)
+public class LanguageState {
+
+  @Param({"en-US", "de-DE"})
+  public String languageCode;
+
+  Language language;
+  JLanguageTool lt;
+  String text;
+  List<String> sentences;
+  List<List<String>> tokenizedSentences;
+  List<AnalyzedSentence> rawSentences;
+  List<AnalyzedSentence> analyzedSentences;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    language = Languages.getLanguageForShortCode(languageCode);
+    lt = new JLanguageTool(language);
+    text = BenchmarkCorpus.load(language);
+    sentences = lt.sentenceTokenize(text);
+    tokenizedSentences = new ArrayList<>();
+    rawSentences = new ArrayList<>();
+    analyzedSentences = new ArrayList<>();
+    for (String sentence : sentences) {
+      tokenizedSentences.add(language.getWordTokenizer().tokenize(sentence));
+      rawSentences.add(lt.getRawAnalyzedSentence(sentence));
+      analyzedSentences.add(lt.getAnalyzedSentence(sentence));
+    }
+  }
+
+}
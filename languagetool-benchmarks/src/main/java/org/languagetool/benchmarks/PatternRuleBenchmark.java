@@ -0,0 +1,104 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternRuleIndex;
+import org.languagetool.rules.patterns.PatternRuleMatchers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching the language's XML pattern rules against all sentences of the benchmark text.
+ * Run with {@code -prof gc} to see the allocations per operation, e.g. to compare
+ * {@link #matchAllRules} (a new matcher per call) with {@link #matchAllRulesReusingMatchers}.
+ * @since 4.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternRuleBenchmark {
+
+  private List<Rule> patternRules;
+  private PatternRuleIndex<Rule> ruleIndex;
+
+  @Setup(Level.Trial)
+  public void setup(LanguageState state) {
+    patternRules = new ArrayList<>();
+    for (Rule rule : state.lt.getAllRules()) {
+      if (rule instanceof PatternRule) {
+        patternRules.add(rule);
+      }
+    }
+    ruleIndex = new PatternRuleIndex<>(patternRules);
+  }
+
+  /**
+   * Every rule against every sentence, i.e. the matcher without any pre-filtering.
+   * Each call of {@link Rule#match(AnalyzedSentence)} creates a new matcher.
+   */
+  @Benchmark
+  public void matchAllRules(LanguageState state, Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      for (Rule rule : patternRules) {
+        blackhole.consume(rule.match(sentence));
+      }
+    }
+  }
+
+  /**
+   * Like {@link #matchAllRules}, but each rule's matcher is re-used for all sentences, like {@code JLanguageTool} does.
+   */
+  @Benchmark
+  public void matchAllRulesReusingMatchers(LanguageState state, Blackhole blackhole) throws IOException {
+    PatternRuleMatchers matchers = new PatternRuleMatchers();
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      for (Rule rule : patternRules) {
+        blackhole.consume(((PatternRule) rule).match(sentence, matchers));
+      }
+    }
+  }
+
+  /**
+   * Only the rules that might match, as selected by {@link PatternRuleIndex} and
+   * {@link PatternRule#canBeIgnoredFor(AnalyzedSentence)}, like {@code JLanguageTool} does.
+   */
+  @Benchmark
+  public void matchCandidateRules(LanguageState state, Blackhole blackhole) throws IOException {
+    PatternRuleMatchers matchers = new PatternRuleMatchers();
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      for (Rule rule : ruleIndex.getCandidateRules(sentence)) {
+        if (!((PatternRule) rule).canBeIgnoredFor(sentence)) {
+          blackhole.consume(((PatternRule) rule).match(sentence, matchers));
+        }
+      }
+    }
+  }
+
+}
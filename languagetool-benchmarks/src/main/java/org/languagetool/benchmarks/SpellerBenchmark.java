@@ -0,0 +1,67 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running the language's spell checker rule on all sentences of the benchmark text,
+ * e.g. a {@link org.languagetool.rules.spelling.morfologik.MorfologikSpellerRule} for English
+ * and a {@link org.languagetool.rules.spelling.hunspell.HunspellRule} for German.
+ * This includes creating suggestions for the misspelled words.
+ * @since 4.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpellerBenchmark {
+
+  private Rule spellerRule;
+
+  @Setup(Level.Trial)
+  public void setup(LanguageState state) {
+    for (Rule rule : state.lt.getAllActiveRules()) {
+      if (rule instanceof SpellingCheckRule) {
+        spellerRule = rule;
+        break;
+      }
+    }
+    if (spellerRule == null) {
+      throw new IllegalStateException("No spell checker rule active for " + state.language);
+    }
+  }
+
+  @Benchmark
+  public void match(LanguageState state, Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      blackhole.consume(spellerRule.match(sentence));
+    }
+  }
+
+}
@@ -112,7 +112,12 @@ public final class AnalyzedSentence {
       }
       copyTokens[i].setWhitespaceBefore(sentence.getTokens()[i].isWhitespaceBefore());
     }
-    return new AnalyzedSentence(copyTokens, sentence.whPositions, sentence.getTokensWithoutWhitespace());
+    // the tokens without whitespace must be the copies, too, so that e.g. immunizing a token of the copy is visible to rules:
+    AnalyzedTokenReadings[] copyNonBlankTokens = new AnalyzedTokenReadings[sentence.nonBlankTokens.length];
+    for (int i = 0; i < copyNonBlankTokens.length; i++) {
+      copyNonBlankTokens[i] = copyTokens[sentence.whPositions[i]];
+    }
+    return new AnalyzedSentence(copyTokens, sentence.whPositions, copyNonBlankTokens);
   }
 
   /**
@@ -19,6 +19,7 @@
 package org.languagetool;
 
 import org.jetbrains.annotations.Nullable;
+import org.languagetool.tagging.PosTagIds;
 
 import java.util.Objects;
 
@@ -29,6 +30,8 @@ import java.util.Objects;
  */
 public final class AnalyzedToken {
 
+  private static final int POS_TAG_ID_NOT_SET = -2;
+
   private final String token;
   private final String posTag;
   private final String lemma;
@@ -36,6 +39,7 @@ public final class AnalyzedToken {
 
   private boolean isWhitespaceBefore;
   private boolean hasNoPOSTag;
+  private int posTagId = POS_TAG_ID_NOT_SET;
 
   public AnalyzedToken(String token, String posTag, String lemma) {
     this.token = Objects.requireNonNull(token, "token cannot be null");
@@ -63,6 +67,22 @@ public final class AnalyzedToken {
     return posTag;
   }
 
+  /**
+   * @return the id of the token's part-of-speech tag (see {@link PosTagIds}), or {@link PosTagIds#NO_ID}
+   *    if it has no tag or the tag has no id
+   * @since 4.4
+   */
+  @Experimental
+  public int getPOSTagId() {
+    int id = posTagId;
+    if (id == POS_TAG_ID_NOT_SET) {
+      // looked up on first use only, as most tokens are never matched against POS regexes:
+      id = posTag != null ? PosTagIds.getId(posTag) : PosTagIds.NO_ID;
+      posTagId = id;
+    }
+    return id;
+  }
+
   /**
    * @return the token's lemma or {@code null}
    */
@@ -0,0 +1,83 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stops a running check from another thread. Pass the token to
+ * {@link JLanguageTool#check(org.languagetool.markup.AnnotatedText, boolean, JLanguageTool.ParagraphHandling, RuleMatchListener, JLanguageTool.Mode, CancellationToken)}
+ * and call {@link #cancel()} to stop the check. The check then throws a {@link CheckCancelledException}
+ * at the next sentence or rule, or earlier in rules that call {@link #checkCancelled()} in their loops.
+ * For checks started with a token, interrupting a thread that works on the check has the same effect.
+ * @since 4.4
+ */
+@Experimental
+public class CancellationToken {
+
+  // the token of the check running in the current thread, so rules can use it without passing it around:
+  private static final ThreadLocal<CancellationToken> current = new ThreadLocal<>();
+
+  private volatile boolean cancelled;
+
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Throw a {@link CheckCancelledException} if the check running in the current thread has been cancelled.
+   * Does nothing if the check was started without a token. This is cheap enough to be called in loops.
+   */
+  public static void checkCancelled() {
+    CancellationToken token = current.get();
+    if (token != null) {
+      if (!token.cancelled && Thread.currentThread().isInterrupted()) {
+        token.cancel();  // also stops the other threads working on the same check
+      }
+      if (token.cancelled) {
+        throw new CheckCancelledException("Text checking was cancelled");
+      }
+    }
+  }
+
+  @Nullable
+  static CancellationToken getCurrent() {
+    return current.get();
+  }
+
+  /**
+   * Set the token for the current thread.
+   * @return the previous token, to be restored when the check is done
+   */
+  @Nullable
+  static CancellationToken setCurrent(@Nullable CancellationToken token) {
+    CancellationToken previous = current.get();
+    if (token != null) {
+      current.set(token);
+    } else {
+      current.remove();
+    }
+    return previous;
+  }
+
+}
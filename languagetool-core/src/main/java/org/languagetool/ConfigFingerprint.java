@@ -0,0 +1,161 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.CategoryId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * For internal use only. An immutable snapshot of the configuration that affects the result of a
+ * check, used with the sentence text as a key for caching check results. Equal configurations
+ * share the same instance, so that comparing them when looking up a sentence is cheap, also
+ * for different {@link JLanguageTool} objects with the same configuration.
+ * @since 4.4
+ */
+final class ConfigFingerprint {
+
+  private static final Interner<ConfigFingerprint> interner = Interners.newWeakInterner();
+
+  private final Language lang;
+  private final Language motherTongue;
+  private final Set<String> disabledRules;
+  private final Set<CategoryId> disabledRuleCategories;
+  private final Set<String> enabledRules;
+  private final Set<CategoryId> enabledRuleCategories;
+  private final UserConfig userConfig;
+  private final int hashCode;
+  private volatile byte[] digest;
+
+  private ConfigFingerprint(Language lang, @Nullable Language motherTongue,
+                            Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
+                            Set<String> enabledRules, Set<CategoryId> enabledRuleCategories, @Nullable UserConfig userConfig) {
+    this.lang = Objects.requireNonNull(lang);
+    this.motherTongue = motherTongue;
+    this.disabledRules = copy(disabledRules);
+    this.disabledRuleCategories = copy(disabledRuleCategories);
+    this.enabledRules = copy(enabledRules);
+    this.enabledRuleCategories = copy(enabledRuleCategories);
+    // UserConfig is mutable, so keep a copy:
+    this.userConfig = userConfig == null ? null : new UserConfig(new ArrayList<>(userConfig.getAcceptedWords()),
+            userConfig.getConfigValues(), userConfig.getMaxSpellingSuggestions());
+    this.hashCode = Objects.hash(lang, motherTongue, this.disabledRules, this.disabledRuleCategories,
+            this.enabledRules, this.enabledRuleCategories, this.userConfig);
+  }
+
+  /**
+   * Get the fingerprint of the given configuration. The sets and the user configuration are copied,
+   * so later changes don't affect the fingerprint.
+   */
+  static ConfigFingerprint of(Language lang, @Nullable Language motherTongue,
+                              Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
+                              Set<String> enabledRules, Set<CategoryId> enabledRuleCategories, @Nullable UserConfig userConfig) {
+    return interner.intern(new ConfigFingerprint(lang, motherTongue, disabledRules, disabledRuleCategories,
+            enabledRules, enabledRuleCategories, userConfig));
+  }
+
+  /**
+   * A hash of the configuration that is the same in every JVM with the same LanguageTool version,
+   * for caches that are shared by several processes.
+   */
+  byte[] getDigest() {
+    byte[] result = digest;
+    if (result == null) {
+      Hasher hasher = Hashing.sha256().newHasher();
+      putString(hasher, JLanguageTool.VERSION);
+      putString(hasher, JLanguageTool.BUILD_DATE);
+      putString(hasher, lang.getShortCodeWithCountryAndVariant());
+      putString(hasher, motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : null);
+      putSorted(hasher, disabledRules);
+      putSorted(hasher, disabledRuleCategories);
+      putSorted(hasher, enabledRules);
+      putSorted(hasher, enabledRuleCategories);
+      if (userConfig != null) {
+        putSorted(hasher, new HashSet<>(userConfig.getAcceptedWords()));
+        putSorted(hasher, userConfig.getConfigValues().entrySet());
+        hasher.putInt(userConfig.getMaxSpellingSuggestions());
+      } else {
+        hasher.putInt(-1);
+      }
+      result = hasher.hash().asBytes();
+      digest = result;
+    }
+    return result;
+  }
+
+  private static void putString(Hasher hasher, @Nullable String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(s.length()).putString(s, StandardCharsets.UTF_8);
+    }
+  }
+
+  // the order of a set's elements differs between JVMs, so hash them in sorted order:
+  private static void putSorted(Hasher hasher, @Nullable Set<?> set) {
+    if (set == null) {
+      hasher.putInt(-1);
+    } else {
+      List<String> values = new ArrayList<>();
+      for (Object value : set) {
+        values.add(value.toString());
+      }
+      Collections.sort(values);
+      hasher.putInt(values.size());
+      for (String value : values) {
+        putString(hasher, value);
+      }
+    }
+  }
+
+  private static <T> Set<T> copy(@Nullable Set<T> set) {
+    return set == null ? null : Collections.unmodifiableSet(new HashSet<>(set));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (o == null || o.getClass() != getClass()) return false;
+    ConfigFingerprint other = (ConfigFingerprint) o;
+    return hashCode == other.hashCode &&
+           Objects.equals(lang, other.lang) &&
+           Objects.equals(motherTongue, other.motherTongue) &&
+           Objects.equals(disabledRules, other.disabledRules) &&
+           Objects.equals(disabledRuleCategories, other.disabledRuleCategories) &&
+           Objects.equals(enabledRules, other.enabledRules) &&
+           Objects.equals(enabledRuleCategories, other.enabledRuleCategories) &&
+           Objects.equals(userConfig, other.userConfig);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return lang.getShortCodeWithCountryAndVariant() + "/" + Integer.toHexString(hashCode);
+  }
+}
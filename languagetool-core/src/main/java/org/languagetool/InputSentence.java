@@ -30,26 +30,22 @@ import java.util.Set;
 class InputSentence {
 
   private final String text;
-  private final Language lang;
-  private final Language motherTongue;
-  private final Set<String> disabledRules;
-  private final Set<CategoryId> disabledRuleCategories;
-  private final Set<String> enabledRules;
-  private final Set<CategoryId> enabledRuleCategories;
-  private final UserConfig userConfig;
-  private JLanguageTool.Mode mode;
+  private final ConfigFingerprint config;
+  private final JLanguageTool.Mode mode;
 
   InputSentence(String text, Language lang, Language motherTongue,
                 Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
                 Set<String> enabledRules, Set<CategoryId> enabledRuleCategories, UserConfig userConfig, JLanguageTool.Mode mode) {
+    this(text, ConfigFingerprint.of(lang, motherTongue, disabledRules, disabledRuleCategories,
+            enabledRules, enabledRuleCategories, userConfig), mode);
+  }
+
+  /**
+   * @since 4.4
+   */
+  InputSentence(String text, ConfigFingerprint config, JLanguageTool.Mode mode) {
     this.text = Objects.requireNonNull(text);
-    this.lang = Objects.requireNonNull(lang);
-    this.motherTongue = motherTongue;
-    this.disabledRules = disabledRules;
-    this.disabledRuleCategories = disabledRuleCategories;
-    this.enabledRules = enabledRules;
-    this.enabledRuleCategories = enabledRuleCategories;
-    this.userConfig = userConfig;
+    this.config = Objects.requireNonNull(config);
     this.mode = Objects.requireNonNull(mode);
   }
 
@@ -57,6 +53,16 @@ class InputSentence {
   public String getText() {
     return text;
   }
+
+  /** @since 4.4 */
+  ConfigFingerprint getConfig() {
+    return config;
+  }
+
+  /** @since 4.4 */
+  JLanguageTool.Mode getMode() {
+    return mode;
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -64,21 +70,15 @@ class InputSentence {
     if (o == this) return true;
     if (o.getClass() != getClass()) return false;
     InputSentence other = (InputSentence) o;
+    // equal configurations are usually the same object, see ConfigFingerprint:
     return Objects.equals(text, other.text) && 
-           Objects.equals(lang, other.lang) &&
-           Objects.equals(motherTongue, other.motherTongue) &&
-           Objects.equals(disabledRules, other.disabledRules) &&
-           Objects.equals(disabledRuleCategories, other.disabledRuleCategories) &&
-           Objects.equals(enabledRules, other.enabledRules) &&
-           Objects.equals(enabledRuleCategories, other.enabledRuleCategories) &&
-           Objects.equals(userConfig, other.userConfig) &&
+           Objects.equals(config, other.config) &&
            Objects.equals(mode, other.mode);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(text, lang, motherTongue, disabledRules, disabledRuleCategories,
-            enabledRules, enabledRuleCategories, userConfig, mode);
+    return Objects.hash(text, config, mode);
   }
 
   @Override
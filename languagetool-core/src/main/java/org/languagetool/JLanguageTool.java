@@ -30,7 +30,9 @@ import org.languagetool.rules.neuralnetwork.Word2VecModel;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.FalseFriendRuleLoader;
 import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.rules.patterns.PatternRuleLoader;
+import org.languagetool.rules.patterns.PatternRuleMatchers;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -43,6 +45,7 @@ import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Manifest;
 import java.util.regex.Pattern;
 
@@ -83,8 +86,11 @@ public class JLanguageTool {
   public static final String MESSAGE_BUNDLE = "org.languagetool.MessagesBundle";
 
   private final ResultCache cache;
+  private volatile PatternRuleIndex<Rule> ruleIndex;  // for getAllRules(), reset when rules are added
+  private volatile ConfigFingerprint configFingerprint;
   private final UserConfig userConfig;
   private float maxErrorsPerWordRate;
+  private volatile RuleMetrics ruleMetrics;
 
   /**
    * Returns the build date or {@code null} if not run from JAR.
@@ -332,6 +338,27 @@ public class JLanguageTool {
   public void setMaxErrorsPerWordRate(float maxErrorsPerWordRate) {
     this.maxErrorsPerWordRate = maxErrorsPerWordRate;
   }
+
+  /**
+   * Collect statistics about the rules run by the {@code check()} methods in the given
+   * object. Measuring the rules causes some overhead, so this is disabled by default.
+   * @param ruleMetrics the object to collect the statistics in, or {@code null} to disable collecting them
+   * @since 4.4
+   */
+  @Experimental
+  public void setRuleMetrics(@Nullable RuleMetrics ruleMetrics) {
+    this.ruleMetrics = ruleMetrics;
+  }
+
+  /**
+   * @see #setRuleMetrics(RuleMetrics)
+   * @since 4.4
+   */
+  @Experimental
+  @Nullable
+  public RuleMetrics getRuleMetrics() {
+    return ruleMetrics;
+  }
   
   /**
    * Gets the ResourceBundle (i18n strings) for the default language of the user's system.
@@ -417,6 +444,7 @@ public class JLanguageTool {
       ResourceBundle messages = getMessageBundle(language);
       List<Rule> rules = language.getRelevantLanguageModelRules(messages, languageModel);
       userRules.addAll(rules);
+      ruleIndex = null;
     }
   }
 
@@ -431,6 +459,7 @@ public class JLanguageTool {
       ResourceBundle messages = getMessageBundle(language);
       List<Rule> rules = language.getRelevantWord2VecModelRules(messages, word2vecModel);
       userRules.addAll(rules);
+      ruleIndex = null;
     }
   }
 
@@ -453,6 +482,7 @@ public class JLanguageTool {
       }
     }
     userRules.addAll(patternRules);
+    ruleIndex = null;
   }
 
   /**
@@ -463,6 +493,7 @@ public class JLanguageTool {
       throws ParserConfigurationException, SAXException, IOException {
     String falseFriendRulesFilename = JLanguageTool.getDataBroker().getRulesDir() + "/" + FALSE_FRIEND_FILE;
     userRules.addAll(loadFalseFriendRules(falseFriendRulesFilename));
+    ruleIndex = null;
   }
 
   /**
@@ -470,6 +501,7 @@ public class JLanguageTool {
    */
   public void addRule(Rule rule) {
     userRules.add(rule);
+    ruleIndex = null;
   }
 
   /**
@@ -480,6 +512,7 @@ public class JLanguageTool {
   public void disableRule(String ruleId) {
     disabledRules.add(ruleId);
     enabledRules.remove(ruleId);
+    configFingerprint = null;
   }
 
   /**
@@ -490,6 +523,7 @@ public class JLanguageTool {
   public void disableRules(List<String> ruleIds) {
     disabledRules.addAll(ruleIds);
     enabledRules.removeAll(ruleIds);
+    configFingerprint = null;
   }
 
   /**
@@ -501,6 +535,7 @@ public class JLanguageTool {
   public void disableCategory(CategoryId id) {
     disabledRuleCategories.add(id);
     enabledRuleCategories.remove(id);
+    configFingerprint = null;
   }
 
   /**
@@ -524,9 +559,11 @@ public class JLanguageTool {
 
   /**
    * Get rule ids of the rules that have been explicitly disabled.
+   * Since 4.4, the returned set can't be modified, use {@link #disableRule(String)} and
+   * {@link #enableRule(String)} instead.
    */
   public Set<String> getDisabledRules() {
-    return disabledRules;
+    return Collections.unmodifiableSet(disabledRules);
   }
 
   /**
@@ -538,6 +575,7 @@ public class JLanguageTool {
   public void enableRule(String ruleId) {
     disabledRules.remove(ruleId);
     enabledRules.add(ruleId);
+    configFingerprint = null;
   }
 
   /**
@@ -549,6 +587,7 @@ public class JLanguageTool {
   public void enableRuleCategory(CategoryId id) {
     disabledRuleCategories.remove(id);
     enabledRuleCategories.add(id);
+    configFingerprint = null;
   }
 
   /**
@@ -641,6 +680,27 @@ public class JLanguageTool {
    * @since 4.3
    */
   public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode) throws IOException {
+    return check(annotatedText, tokenizeText, paraMode, listener, mode, null);
+  }
+
+  /**
+   * Like {@link #check(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode)}, but
+   * the check can be stopped from another thread with {@code cancellationToken}.
+   * @throws CheckCancelledException if the check has been cancelled
+   * @since 4.4
+   */
+  @Experimental
+  public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode,
+                               @Nullable CancellationToken cancellationToken) throws IOException {
+    CancellationToken previousToken = CancellationToken.setCurrent(cancellationToken);
+    try {
+      return checkInternal(annotatedText, tokenizeText, paraMode, listener, mode);
+    } finally {
+      CancellationToken.setCurrent(previousToken);
+    }
+  }
+
+  private List<RuleMatch> checkInternal(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode) throws IOException {
     List<String> sentences;
     if (tokenizeText) { 
       sentences = sentenceTokenize(annotatedText.getPlainText());
@@ -648,7 +708,8 @@ public class JLanguageTool {
       sentences = new ArrayList<>();
       sentences.add(annotatedText.getPlainText());
     }
-    List<Rule> allRules = getAllRules();
+    // the index's list, so the callables can re-use the index instead of building a new one:
+    List<Rule> allRules = getRuleIndex().getRules();
     if (printStream != null) {
       printIfVerbose(allRules.size() + " rules activated for language " + language);
     }
@@ -680,6 +741,7 @@ public class JLanguageTool {
     List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
     int j = 0;
     for (String sentence : sentences) {
+      CancellationToken.checkCancelled();
       AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentence);
       rememberUnknownWords(analyzedSentence);
       if (++j == sentences.size()) {
@@ -713,7 +775,7 @@ public class JLanguageTool {
     Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1, listener, mode);
     try {
       return matcher.call();
-    } catch (IOException e) {
+    } catch (IOException | CheckCancelledException e) {
       throw e;
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -727,22 +789,68 @@ public class JLanguageTool {
    */
   public List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
         List<Rule> rules, AnalyzedSentence analyzedSentence) throws IOException {
+    return checkAnalyzedSentenceWithRules(paraMode, rules, analyzedSentence, new PatternRuleMatchers());
+  }
+
+  /**
+   * Like {@link #checkAnalyzedSentence(ParagraphHandling, List, AnalyzedSentence)}, but only
+   * runs the rules from {@code fromRule} (inclusive) to {@code toRule} (exclusive) of the index's
+   * rules that the index considers candidates for the sentence.
+   * @param matchers the pattern rule matchers of the current check, used by the calling thread only
+   * @since 4.4
+   */
+  List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode, PatternRuleIndex<Rule> ruleIndex, int fromRule, int toRule,
+        AnalyzedSentence analyzedSentence, PatternRuleMatchers matchers) throws IOException {
+    List<Rule> candidateRules = ruleIndex.getCandidateRules(analyzedSentence, fromRule, toRule);
+    RuleMetrics metrics = ruleMetrics;
+    if (metrics != null) {
+      recordSkippedRules(metrics, ruleIndex.getRules().subList(fromRule, toRule), candidateRules);
+    }
+    return checkAnalyzedSentenceWithRules(paraMode, candidateRules, analyzedSentence, matchers);
+  }
+
+  // both lists have the same order, so this can walk through them in parallel:
+  private void recordSkippedRules(RuleMetrics metrics, List<Rule> allRules, List<Rule> candidateRules) {
+    int candidatePos = 0;
+    for (Rule rule : allRules) {
+      if (candidatePos < candidateRules.size() && candidateRules.get(candidatePos) == rule) {
+        candidatePos++;
+      } else if (!(rule instanceof TextLevelRule) && !ignoreRule(rule)) {
+        metrics.recordSkip(rule);
+      }
+    }
+  }
+
+  private List<RuleMatch> checkAnalyzedSentenceWithRules(ParagraphHandling paraMode,
+        List<Rule> rules, AnalyzedSentence analyzedSentence, PatternRuleMatchers matchers) throws IOException {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
+    RuleMetrics metrics = ruleMetrics;
     for (Rule rule : rules) {
       if (rule instanceof TextLevelRule) {
         continue;
       }
+      CancellationToken.checkCancelled();
       if (ignoreRule(rule)) {
         continue;
       }
       if (rule instanceof PatternRule && ((PatternRule)rule).canBeIgnoredFor(analyzedSentence)) {
         // this is a performance optimization, it should have no effect on matching logic
+        if (metrics != null) {
+          metrics.recordSkip(rule);
+        }
         continue;
       }
       if (paraMode == ParagraphHandling.ONLYPARA) {
         continue;
       }
-      RuleMatch[] thisMatches = rule.match(analyzedSentence);
+      RuleMatch[] thisMatches;
+      if (metrics != null) {
+        long startTime = System.nanoTime();
+        thisMatches = matchRule(rule, analyzedSentence, matchers);
+        metrics.recordRun(rule, System.nanoTime() - startTime, thisMatches.length);
+      } else {
+        thisMatches = matchRule(rule, analyzedSentence, matchers);
+      }
       for (RuleMatch elem : thisMatches) {
         sentenceMatches.add(elem);
       }
@@ -750,6 +858,47 @@ public class JLanguageTool {
     return new SameRuleGroupFilter().filter(sentenceMatches);
   }
 
+  private static RuleMatch[] matchRule(Rule rule, AnalyzedSentence analyzedSentence, PatternRuleMatchers matchers) throws IOException {
+    if (rule instanceof PatternRule) {
+      return ((PatternRule) rule).match(analyzedSentence, matchers);
+    }
+    return rule.match(analyzedSentence);
+  }
+
+  /**
+   * Get the index for {@link #getAllRules()}, building it only if rules have been added since the last call.
+   */
+  private PatternRuleIndex<Rule> getRuleIndex() {
+    PatternRuleIndex<Rule> index = ruleIndex;
+    if (index == null) {
+      index = new PatternRuleIndex<>(getAllRules());
+      ruleIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * Get an index for the given rules: the shared one if {@code rules} is the list of that index
+   * (as passed to {@link #performCheck} by the check methods), a new one otherwise.
+   */
+  private PatternRuleIndex<Rule> getRuleIndex(List<Rule> rules) {
+    PatternRuleIndex<Rule> index = getRuleIndex();
+    return index.getRules() == rules ? index : new PatternRuleIndex<>(rules);
+  }
+
+  /**
+   * Get the fingerprint of the current configuration, computing it only if the configuration has changed.
+   */
+  private ConfigFingerprint getConfigFingerprint() {
+    ConfigFingerprint fingerprint = configFingerprint;
+    if (fingerprint == null) {
+      fingerprint = ConfigFingerprint.of(language, motherTongue, disabledRules, disabledRuleCategories,
+              enabledRules, enabledRuleCategories, userConfig);
+      configFingerprint = fingerprint;
+    }
+    return fingerprint;
+  }
+
   private boolean ignoreRule(Rule rule) {
     Category ruleCategory = rule.getCategory();
     boolean isCategoryDisabled = (disabledRuleCategories.contains(ruleCategory.getId()) || rule.getCategory().isDefaultOff()) 
@@ -852,6 +1001,25 @@ public class JLanguageTool {
     return count;
   }
 
+  /**
+   * Calculate the column number at the end of {@code sentence}, if the sentence
+   * starts at column {@code columnCount}.
+   */
+  int getColumnCountAfter(String sentence, int columnCount) {
+    int lineBreakPos = sentence.lastIndexOf('\n');
+    if (lineBreakPos == -1) {
+      return columnCount + sentence.length();
+    } else if (lineBreakPos == 0) {
+      int newColumnCount = sentence.length();
+      if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
+        newColumnCount--;
+      }
+      return newColumnCount;
+    } else {
+      return sentence.length() - lineBreakPos;
+    }
+  }
+
   /**
    * Tokenizes the given {@code sentence} into words and analyzes it,
    * and then disambiguates POS tags.
@@ -1066,15 +1234,34 @@ public class JLanguageTool {
     }
   }
 
+  /**
+   * The words checked and the errors found so far, shared by callables that check different
+   * sentences of the same text, so that the {@link #setMaxErrorsPerWordRate(float) error rate}
+   * is computed over the text checked so far and not per callable.
+   */
+  static final class ErrorRateCounter {
+    private final AtomicInteger wordCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+  }
+
   class TextCheckCallable implements Callable<List<RuleMatch>> {
 
     private final List<Rule> rules;
+    private final PatternRuleIndex<Rule> ruleIndex;
+    private final int fromRule;
+    private final int toRule;
     private final ParagraphHandling paraMode;
     private final AnnotatedText annotatedText;
     private final List<String> sentences;
     private final List<AnalyzedSentence> analyzedSentences;
     private final RuleMatchListener listener;
     private final Mode mode;
+    @Nullable
+    private final ErrorRateCounter errorRateCounter;
+    // created per callable, so the matchers are only used by the thread that runs it and are dropped after the check:
+    private final PatternRuleMatchers matchers = new PatternRuleMatchers();
+    // the callable might be run by another thread, so remember the token of the thread that creates it:
+    private final CancellationToken cancellationToken = CancellationToken.getCurrent();
     
     private int charCount;
     private int lineCount;
@@ -1083,7 +1270,31 @@ public class JLanguageTool {
     TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
                       RuleMatchListener listener, Mode mode) {
-      this.rules = rules;
+      this(rules, 0, rules.size(), sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode);
+    }
+
+    /**
+     * Check with the rules from {@code fromRule} (inclusive) to {@code toRule} (exclusive) of {@code allRules} only.
+     * @since 4.4
+     */
+    TextCheckCallable(List<Rule> allRules, int fromRule, int toRule, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
+                      RuleMatchListener listener, Mode mode) {
+      this(allRules, fromRule, toRule, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode, null);
+    }
+
+    /**
+     * @param errorRateCounter counts shared with the other callables checking the same text, or {@code null}
+     *                         to compute the error rate over the sentences of this callable only
+     * @since 4.4
+     */
+    TextCheckCallable(List<Rule> allRules, int fromRule, int toRule, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
+                      RuleMatchListener listener, Mode mode, @Nullable ErrorRateCounter errorRateCounter) {
+      this.rules = allRules.subList(fromRule, toRule);
+      this.ruleIndex = mode == Mode.TEXTLEVEL_ONLY ? null : getRuleIndex(allRules);
+      this.fromRule = fromRule;
+      this.toRule = toRule;
       if (sentences.size() != analyzedSentences.size()) {
         throw new IllegalArgumentException("sentences and analyzedSentences do not have the same length : " + sentences.size() + " != " + analyzedSentences.size());
       }
@@ -1096,29 +1307,41 @@ public class JLanguageTool {
       this.columnCount = columnCount;
       this.listener = listener;
       this.mode = Objects.requireNonNull(mode);
+      this.errorRateCounter = errorRateCounter;
     }
 
     @Override
     public List<RuleMatch> call() throws Exception {
-      List<RuleMatch> ruleMatches = new ArrayList<>();
-      if (mode == Mode.ALL) {
-        ruleMatches.addAll(getTextLevelRuleMatches());
-        ruleMatches.addAll(getOtherRuleMatches());
-      } else if (mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
-        ruleMatches.addAll(getOtherRuleMatches());
-      } else if (mode == Mode.TEXTLEVEL_ONLY) {
-        ruleMatches.addAll(getTextLevelRuleMatches());
-      } else {
-        throw new IllegalArgumentException("Unknown mode: " + mode);
+      CancellationToken previousToken = CancellationToken.setCurrent(cancellationToken);
+      try {
+        List<RuleMatch> ruleMatches = new ArrayList<>();
+        if (mode == Mode.ALL) {
+          ruleMatches.addAll(getTextLevelRuleMatches());
+          ruleMatches.addAll(getOtherRuleMatches());
+        } else if (mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
+          ruleMatches.addAll(getOtherRuleMatches());
+        } else if (mode == Mode.TEXTLEVEL_ONLY) {
+          ruleMatches.addAll(getTextLevelRuleMatches());
+        } else {
+          throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        return ruleMatches;
+      } finally {
+        CancellationToken.setCurrent(previousToken);
       }
-      return ruleMatches;
     }
 
     private List<RuleMatch> getTextLevelRuleMatches() throws IOException {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       for (Rule rule : rules) {
         if (rule instanceof TextLevelRule && !ignoreRule(rule) && paraMode != ParagraphHandling.ONLYNONPARA) {
+          CancellationToken.checkCancelled();
+          RuleMetrics metrics = ruleMetrics;
+          long startTime = metrics != null ? System.nanoTime() : 0;
           RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          if (metrics != null) {
+            metrics.recordRun(rule, System.nanoTime() - startTime, matches.length);
+          }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch match : matches) {
             LineColumnRange range = getLineColumnRange(match);
@@ -1156,21 +1379,21 @@ public class JLanguageTool {
       int wordCounter = 0;
       for (AnalyzedSentence analyzedSentence : analyzedSentences) {
         String sentence = sentences.get(i++);
-        wordCounter += analyzedSentence.getTokensWithoutWhitespace().length;
+        int sentenceWordCount = analyzedSentence.getTokensWithoutWhitespace().length;
+        wordCounter += sentenceWordCount;
+        CancellationToken.checkCancelled();
         try {
           List<RuleMatch> sentenceMatches = null;
           InputSentence cacheKey = null;
           if (cache != null) {
-            cacheKey = new InputSentence(analyzedSentence.getText(), language, motherTongue,
-                    disabledRules, disabledRuleCategories,
-                    enabledRules, enabledRuleCategories, userConfig, mode);
-            sentenceMatches = cache.getIfPresent(cacheKey);
+            cacheKey = new InputSentence(analyzedSentence.getText(), getConfigFingerprint(), mode);
+            sentenceMatches = cache.getIfPresent(cacheKey, analyzedSentence, rules);
           }
           if (sentenceMatches == null) {
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules, analyzedSentence);
-          }
-          if (cache != null) {
-            cache.put(cacheKey, sentenceMatches);
+            sentenceMatches = checkAnalyzedSentence(paraMode, ruleIndex, fromRule, toRule, analyzedSentence, matchers);
+            if (cache != null) {
+              cache.put(cacheKey, sentenceMatches);
+            }
           }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch elem : sentenceMatches) {
@@ -1182,30 +1405,22 @@ public class JLanguageTool {
             }
           }
           ruleMatches.addAll(adaptedMatches);
-          float errorsPerWord = ruleMatches.size() / (float)wordCounter;
-          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + ruleMatches.size() + " / " + wordCounter + ")");
-          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCounter > 25) {
+          int words = wordCounter;
+          int errors = ruleMatches.size();
+          if (errorRateCounter != null) {
+            words = errorRateCounter.wordCount.addAndGet(sentenceWordCount);
+            errors = errorRateCounter.errorCount.addAndGet(adaptedMatches.size());
+          }
+          float errorsPerWord = errors / (float)words;
+          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + errors + " / " + words + ")");
+          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && words > 25) {
             throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
                     "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + language.getName());
           }
           charCount += sentence.length();
           lineCount += countLineBreaks(sentence);
-
-          // calculate matching column:
-          int lineBreakPos = sentence.lastIndexOf('\n');
-          if (lineBreakPos == -1) {
-            columnCount += sentence.length();
-          } else {
-            if (lineBreakPos == 0) {
-              columnCount = sentence.length();
-              if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
-                columnCount--;
-              }
-            } else {
-              columnCount = sentence.length() - lineBreakPos;
-            }
-          }
-        } catch (ErrorRateTooHighException e) {
+          columnCount = getColumnCountAfter(sentence, columnCount);
+        } catch (ErrorRateTooHighException | CheckCancelledException e) {
           throw e;
         } catch (Exception e) {
           throw new RuntimeException("Could not check sentence (language: " + language + "): '"
@@ -1262,6 +1477,7 @@ public class JLanguageTool {
   
   public void setConfigValues(Map<String, Integer> v) {
     userConfig.insertConfigValues(v);
+    configFingerprint = null;
   }
 
 }
@@ -20,12 +20,18 @@ package org.languagetool;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadFactory;
 
 import org.languagetool.markup.AnnotatedText;
@@ -43,9 +49,34 @@ import org.languagetool.rules.RuleMatch;
  * <p><b>Thread-safety:</b> this class is <b>not</b> thread-safe, see the remarks at {@link JLanguageTool}.
  */
 public class MultiThreadedJLanguageTool extends JLanguageTool {
-  
+
+  /**
+   * How the checking work is distributed over the threads.
+   * @since 4.4
+   */
+  public enum SplitMode {
+    /**
+     * Split the rules into one chunk per thread, each chunk is checked against all sentences (default).
+     */
+    RULES,
+    /**
+     * Split the text into blocks of sentences, which are distributed over the threads with work stealing,
+     * so a single slow rule doesn't delay the other threads. Text-level rules run as one separate task.
+     * The {@link #setMaxErrorsPerWordRate(float) error rate} is computed over all sentences checked so
+     * far, not per block, so that a single paragraph with many errors doesn't stop the check.
+     * As the same rule object is used by several threads at the same time, all sentence-level rules
+     * must be safe for concurrent use.
+     */
+    SENTENCES
+  }
+
+  // a block of sentences won't be split further if it has less than this many sentences:
+  private static final int MIN_SENTENCES_PER_TASK = 2;
+
   private final int threadPoolSize;
   private final ExecutorService threadPool;
+  private volatile SplitMode splitMode = SplitMode.RULES;
+  private ForkJoinPool forkJoinPool;
 
   public MultiThreadedJLanguageTool(Language language) {
     this(language, null);
@@ -94,6 +125,7 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
    */
   public void shutdown() {
     threadPool.shutdownNow();
+    shutdownForkJoinPool(true);
   }
 
   /**
@@ -102,6 +134,36 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
    */
   public void shutdownWhenDone() {
     threadPool.shutdown();
+    shutdownForkJoinPool(false);
+  }
+
+  private synchronized void shutdownForkJoinPool(boolean now) {
+    if (forkJoinPool == null) {
+      // create it anyway so that checks after shutdown fail like they do in SplitMode.RULES:
+      forkJoinPool = createForkJoinPool();
+    }
+    if (now) {
+      forkJoinPool.shutdownNow();
+    } else {
+      forkJoinPool.shutdown();
+    }
+  }
+
+  /**
+   * Set how the checking work is split between threads, see {@link SplitMode}.
+   * @since 4.4
+   */
+  @Experimental
+  public void setSplitMode(SplitMode splitMode) {
+    this.splitMode = Objects.requireNonNull(splitMode);
+  }
+
+  /**
+   * @since 4.4
+   */
+  @Experimental
+  public SplitMode getSplitMode() {
+    return splitMode;
   }
 
   private static int getDefaultThreadCount() {
@@ -165,6 +227,9 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
   protected List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences,
        List<Rule> allRules, ParagraphHandling paraMode, 
        AnnotatedText annotatedText, RuleMatchListener listener, Mode mode) {
+    if (splitMode == SplitMode.SENTENCES) {
+      return performSentenceSplitCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode);
+    }
     int charCount = 0;
     int lineCount = 0;
     int columnCount = 1;
@@ -180,12 +245,79 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
         ruleMatches.addAll(future.get());
       }
     } catch (InterruptedException | ExecutionException e) {
+      if (e.getCause() instanceof CheckCancelledException) {
+        throw (CheckCancelledException) e.getCause();
+      }
       throw new RuntimeException(e);
     }
     
     return ruleMatches;
   }
 
+  private List<RuleMatch> performSentenceSplitCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences,
+       List<Rule> allRules, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener, Mode mode) {
+    ForkJoinPool pool = getForkJoinPool();
+    ForkJoinTask<List<RuleMatch>> textLevelTask = null;
+    if (mode == Mode.ALL || mode == Mode.TEXTLEVEL_ONLY) {
+      textLevelTask = pool.submit(new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode,
+              annotatedText, 0, 0, 1, listener, Mode.TEXTLEVEL_ONLY));
+    }
+    List<RuleMatch> sentenceMatches = Collections.emptyList();
+    if (mode == Mode.ALL || mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
+      // the positions of the sentences in the text are needed as the starting point for each block:
+      int size = sentences.size();
+      int[] charCounts = new int[size];
+      int[] lineCounts = new int[size];
+      int[] columnCounts = new int[size];
+      int charCount = 0;
+      int lineCount = 0;
+      int columnCount = 1;
+      for (int i = 0; i < size; i++) {
+        charCounts[i] = charCount;
+        lineCounts[i] = lineCount;
+        columnCounts[i] = columnCount;
+        String sentence = sentences.get(i);
+        charCount += sentence.length();
+        lineCount += countLineBreaks(sentence);
+        columnCount = getColumnCountAfter(sentence, columnCount);
+      }
+      int blockSize = Math.max(MIN_SENTENCES_PER_TASK, size / (getThreadPoolSize() * 4));
+      SentenceBlockTask task = new SentenceBlockTask(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener,
+              charCounts, lineCounts, columnCounts, 0, size, blockSize, CancellationToken.getCurrent(), new ErrorRateCounter());
+      sentenceMatches = pool.invoke(task);
+    }
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    try {
+      if (textLevelTask != null) {
+        ruleMatches.addAll(textLevelTask.get());
+      }
+    } catch (InterruptedException | ExecutionException e) {
+      if (e.getCause() instanceof CheckCancelledException) {
+        throw (CheckCancelledException) e.getCause();
+      }
+      throw new RuntimeException(e);
+    }
+    ruleMatches.addAll(sentenceMatches);
+    return ruleMatches;
+  }
+
+  private synchronized ForkJoinPool getForkJoinPool() {
+    if (forkJoinPool == null) {
+      forkJoinPool = createForkJoinPool();
+    }
+    return forkJoinPool;
+  }
+
+  private ForkJoinPool createForkJoinPool() {
+    ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setDaemon(true);
+      thread.setName("lt-multithread-fj");
+      return thread;
+    };
+    return new ForkJoinPool(getThreadPoolSize(), factory, null, false);
+  }
+
   private List<Callable<List<RuleMatch>>> createTextCheckCallables(ParagraphHandling paraMode,
        AnnotatedText annotatedText, List<AnalyzedSentence> analyzedSentences, List<String> sentences, 
        List<Rule> allRules, int charCount, int lineCount, int columnCount, RuleMatchListener listener, Mode mode) {
@@ -198,20 +330,95 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     // split the rules - all rules are independent, so it makes more sense to split
     // the rules than to split the text:
     for (int i = 0; i < threads; i++) {
-      List<Rule> subRules;
+      int lastItem;
       //TODO: make sure we don't split rules with same id so RuleGroupFilter still works
       if (i == threads - 1) {
         // make sure the last rules are not lost due to rounding issues:
-        subRules = allRules.subList(firstItem, totalRules);
+        lastItem = totalRules;
       } else {
-        subRules = allRules.subList(firstItem, firstItem + chunkSize);
+        lastItem = firstItem + chunkSize;
       }
-      callables.add(new TextCheckCallable(subRules, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode));
+      // all callables get the complete list, so they can share the rule index of this check:
+      callables.add(new TextCheckCallable(allRules, firstItem, lastItem, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode));
       firstItem = firstItem + chunkSize;
     }
     return callables;
   }
 
+  /**
+   * Checks the sentences from {@code from} (inclusive) to {@code to} (exclusive) with all
+   * non-text-level rules, splitting the range in halves as long as it's larger than {@code blockSize}.
+   * Matches are returned in the order of the sentences.
+   */
+  private class SentenceBlockTask extends RecursiveTask<List<RuleMatch>> {
+
+    private final List<AnalyzedSentence> analyzedSentences;
+    private final List<String> sentences;
+    private final List<Rule> rules;
+    private final ParagraphHandling paraMode;
+    private final AnnotatedText annotatedText;
+    private final RuleMatchListener listener;
+    private final int[] charCounts;
+    private final int[] lineCounts;
+    private final int[] columnCounts;
+    private final int from;
+    private final int to;
+    private final int blockSize;
+    // subtasks are created by the pool's threads, so pass on the token of the thread that created the first task:
+    private final CancellationToken cancellationToken;
+    private final ErrorRateCounter errorRateCounter;
+
+    private SentenceBlockTask(List<AnalyzedSentence> analyzedSentences, List<String> sentences, List<Rule> rules,
+                              ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener,
+                              int[] charCounts, int[] lineCounts, int[] columnCounts, int from, int to, int blockSize,
+                              CancellationToken cancellationToken, ErrorRateCounter errorRateCounter) {
+      this.analyzedSentences = analyzedSentences;
+      this.sentences = sentences;
+      this.rules = rules;
+      this.paraMode = paraMode;
+      this.annotatedText = annotatedText;
+      this.listener = listener;
+      this.charCounts = charCounts;
+      this.lineCounts = lineCounts;
+      this.columnCounts = columnCounts;
+      this.from = from;
+      this.to = to;
+      this.blockSize = blockSize;
+      this.cancellationToken = cancellationToken;
+      this.errorRateCounter = errorRateCounter;
+    }
+
+    @Override
+    protected List<RuleMatch> compute() {
+      if (to - from <= blockSize) {
+        if (from == to) {
+          return Collections.emptyList();
+        }
+        CancellationToken previousToken = CancellationToken.setCurrent(cancellationToken);
+        try {
+          TextCheckCallable callable = new TextCheckCallable(rules, 0, rules.size(), sentences.subList(from, to), analyzedSentences.subList(from, to),
+                  paraMode, annotatedText, charCounts[from], lineCounts[from], columnCounts[from], listener, Mode.ALL_BUT_TEXTLEVEL_ONLY, errorRateCounter);
+          return callable.call();
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        } finally {
+          CancellationToken.setCurrent(previousToken);
+        }
+      }
+      int middle = from + (to - from) / 2;
+      SentenceBlockTask left = new SentenceBlockTask(analyzedSentences, sentences, rules, paraMode, annotatedText, listener,
+              charCounts, lineCounts, columnCounts, from, middle, blockSize, cancellationToken, errorRateCounter);
+      SentenceBlockTask right = new SentenceBlockTask(analyzedSentences, sentences, rules, paraMode, annotatedText, listener,
+              charCounts, lineCounts, columnCounts, middle, to, blockSize, cancellationToken, errorRateCounter);
+      right.fork();
+      List<RuleMatch> result = new ArrayList<>(left.compute());
+      result.addAll(right.join());
+      return result;
+    }
+  }
+
   private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
     private final String sentence;
 
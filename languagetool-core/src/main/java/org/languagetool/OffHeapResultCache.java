@@ -0,0 +1,303 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ResultCache} that keeps the rule matches outside of the Java heap, so that a large cache
+ * doesn't slow down garbage collection. The matches of a sentence are serialized to a compact binary
+ * form (rule id, positions, message, suggestions etc.) and stored in blocks of direct memory. The
+ * memory used for matches never exceeds the given number of bytes. To avoid a global lock, the cache
+ * is split into segments that each have their own lock and an equal share of the memory. When a
+ * segment is full, its least recently used sentences are evicted. When read back, the matches are
+ * re-created with the rules of the {@link JLanguageTool} that asks for them (see {@link RuleMatchCodec}),
+ * so {@link #getIfPresent(InputSentence)} always returns {@code null}.
+ * Analyzed sentences are kept on the heap like in {@link ResultCache}.
+ * The same restrictions as for {@link ResultCache} apply.
+ * @since 4.4
+ */
+@Experimental
+public class OffHeapResultCache extends ResultCache {
+
+  private static final int BLOCK_SIZE = 128;
+  private static final int NEXT_POINTER_SIZE = 4;
+  private static final int BLOCK_DATA_SIZE = BLOCK_SIZE - NEXT_POINTER_SIZE;
+  private static final int BLOCKS_PER_CHUNK = 8192;  // 1 MB
+  private static final int NO_BLOCK = -1;
+  private static final int MAX_SEGMENTS = 16;
+  private static final int MIN_BLOCKS_PER_SEGMENT = 1024;  // so small caches aren't split up too much
+
+  private final Segment[] segments;
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final RuleMatchCodec codec = new RuleMatchCodec();
+
+  /**
+   * @param maxBytes maximum memory used to store rule matches, outside of the Java heap
+   * @param maxSentences maximum size of the (on-heap) analyzed sentence cache, in number of average sentences
+   */
+  public OffHeapResultCache(long maxBytes, long maxSentences) {
+    this(maxBytes, maxSentences, 5, TimeUnit.MINUTES);
+  }
+
+  /**
+   * @param maxBytes maximum memory used to store rule matches, outside of the Java heap
+   * @param maxSentences maximum size of the (on-heap) analyzed sentence cache, in number of average sentences
+   * @param expireAfter time to expire analyzed sentences from the cache after last read access (matches
+   *                    are only evicted when the memory is needed for newer matches)
+   */
+  public OffHeapResultCache(long maxBytes, long maxSentences, int expireAfter, TimeUnit timeUnit) {
+    this(maxBytes, maxSentences, expireAfter, timeUnit, defaultSegmentCount(maxBytes));
+  }
+
+  OffHeapResultCache(long maxBytes, long maxSentences, int expireAfter, TimeUnit timeUnit, int segmentCount) {
+    super(0, maxSentences, expireAfter, timeUnit);
+    if (maxBytes < 0 || maxBytes / BLOCK_SIZE > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("maxBytes must be >= 0 and < " + (long) BLOCK_SIZE * Integer.MAX_VALUE + ": " + maxBytes);
+    }
+    if (segmentCount < 1) {
+      throw new IllegalArgumentException("segmentCount must be > 0: " + segmentCount);
+    }
+    int maxBlocks = (int) (maxBytes / BLOCK_SIZE);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(maxBlocks / segmentCount + (i < maxBlocks % segmentCount ? 1 : 0));
+    }
+  }
+
+  private static int defaultSegmentCount(long maxBytes) {
+    long blocks = maxBytes / BLOCK_SIZE;
+    return (int) Math.max(1, Math.min(MAX_SEGMENTS, blocks / MIN_BLOCKS_PER_SEGMENT));
+  }
+
+  /**
+   * Always returns {@code null}, i.e. a cache miss, as matches can only be re-created with the
+   * rules that found them. Use {@link #getIfPresent(InputSentence, AnalyzedSentence, List)} instead.
+   */
+  @Override
+  public List<RuleMatch> getIfPresent(InputSentence key) {
+    return null;
+  }
+
+  @Override
+  public List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, List<Rule> rules) {
+    requestCount.incrementAndGet();
+    byte[] data = getSegment(key).read(key);
+    if (data == null) {
+      return null;
+    }
+    List<RuleMatch> matches = codec.decode(data, sentence, rules);
+    if (matches == null) {
+      return null;  // a rule is not available (anymore), so the sentence needs to be checked again
+    }
+    hitCount.incrementAndGet();
+    return matches;
+  }
+
+  @Override
+  public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
+    byte[] data = codec.encode(sentenceMatches);
+    getSegment(key).write(key, data);
+  }
+
+  @Override
+  public double hitRate() {
+    long requests = requestCount.get();
+    double matchesHitRate = requests == 0 ? 1.0 : hitCount.get() / (double) requests;
+    return (matchesHitRate + getSentenceCache().stats().hitRate()) / 2.0;
+  }
+
+  @Override
+  public double requestCount() {
+    return requestCount.get() + getSentenceCache().stats().requestCount();
+  }
+
+  @Override
+  public long hitCount() {
+    return hitCount.get() + getSentenceCache().stats().hitCount();
+  }
+
+  /**
+   * The number of sentences whose matches are cached.
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * The number of bytes used to store matches. Memory is allocated in blocks of 128 bytes, so this
+   * includes unused bytes at the end of the last block of each sentence.
+   */
+  public long usedBytes() {
+    long blocks = 0;
+    for (Segment segment : segments) {
+      blocks += segment.usedBlocks();
+    }
+    return blocks * BLOCK_SIZE;
+  }
+
+  int getSegmentCount() {
+    return segments.length;
+  }
+
+  private Segment getSegment(InputSentence key) {
+    int hash = key.hashCode();
+    return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+  }
+
+  // --- storage: each entry is a chain of blocks, the first bytes of each block point to the next block ---
+
+  private static class Entry {
+    final int firstBlock;
+    final int length;
+    final int blockCount;
+    Entry(int firstBlock, int length, int blockCount) {
+      this.firstBlock = firstBlock;
+      this.length = length;
+      this.blockCount = blockCount;
+    }
+  }
+
+  private static class Segment {
+
+    private final LinkedHashMap<InputSentence, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // access order = LRU
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final int maxBlocks;
+
+    private int freeList = NO_BLOCK;
+    private int allocatedBlocks;
+    private int usedBlocks;
+
+    Segment(int maxBlocks) {
+      this.maxBlocks = maxBlocks;
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    synchronized int usedBlocks() {
+      return usedBlocks;
+    }
+
+    @Nullable
+    synchronized byte[] read(InputSentence key) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      byte[] data = new byte[entry.length];
+      int block = entry.firstBlock;
+      for (int pos = 0; pos < data.length; pos += BLOCK_DATA_SIZE) {
+        ByteBuffer buffer = getBuffer(block);
+        int offset = getOffset(block);
+        buffer.position(offset + NEXT_POINTER_SIZE);
+        buffer.get(data, pos, Math.min(BLOCK_DATA_SIZE, data.length - pos));
+        block = buffer.getInt(offset);
+      }
+      return data;
+    }
+
+    synchronized void write(InputSentence key, byte[] data) {
+      Entry oldEntry = entries.remove(key);
+      if (oldEntry != null) {
+        free(oldEntry);
+      }
+      // even sentences without matches take a block, so that the budget also limits the number of entries:
+      int blockCount = Math.max(1, (data.length + BLOCK_DATA_SIZE - 1) / BLOCK_DATA_SIZE);
+      if (blockCount > maxBlocks) {
+        return;  // would never fit
+      }
+      while (maxBlocks - usedBlocks < blockCount && !entries.isEmpty()) {
+        Iterator<Map.Entry<InputSentence, Entry>> iterator = entries.entrySet().iterator();
+        Entry eldest = iterator.next().getValue();
+        iterator.remove();
+        free(eldest);
+      }
+      int firstBlock = NO_BLOCK;
+      int previousBlock = NO_BLOCK;
+      for (int i = 0; i < blockCount; i++) {
+        int block = allocate();
+        ByteBuffer buffer = getBuffer(block);
+        int offset = getOffset(block);
+        buffer.putInt(offset, NO_BLOCK);
+        buffer.position(offset + NEXT_POINTER_SIZE);
+        buffer.put(data, i * BLOCK_DATA_SIZE, Math.max(0, Math.min(BLOCK_DATA_SIZE, data.length - i * BLOCK_DATA_SIZE)));
+        if (previousBlock == NO_BLOCK) {
+          firstBlock = block;
+        } else {
+          getBuffer(previousBlock).putInt(getOffset(previousBlock), block);
+        }
+        previousBlock = block;
+      }
+      entries.put(key, new Entry(firstBlock, data.length, blockCount));
+    }
+
+    private int allocate() {
+      int block;
+      if (freeList != NO_BLOCK) {
+        block = freeList;
+        freeList = getBuffer(block).getInt(getOffset(block));
+      } else {
+        if (allocatedBlocks % BLOCKS_PER_CHUNK == 0) {
+          int chunkBlocks = Math.min(BLOCKS_PER_CHUNK, maxBlocks - allocatedBlocks);
+          chunks.add(ByteBuffer.allocateDirect(chunkBlocks * BLOCK_SIZE));
+        }
+        block = allocatedBlocks++;
+      }
+      usedBlocks++;
+      return block;
+    }
+
+    private void free(Entry entry) {
+      int block = entry.firstBlock;
+      for (int i = 0; i < entry.blockCount; i++) {
+        ByteBuffer buffer = getBuffer(block);
+        int offset = getOffset(block);
+        int next = buffer.getInt(offset);
+        buffer.putInt(offset, freeList);
+        freeList = block;
+        block = next;
+      }
+      usedBlocks -= entry.blockCount;
+    }
+
+    private ByteBuffer getBuffer(int block) {
+      return chunks.get(block / BLOCKS_PER_CHUNK);
+    }
+
+    private int getOffset(int block) {
+      return (block % BLOCKS_PER_CHUNK) * BLOCK_SIZE;
+    }
+
+  }
+
+}
@@ -0,0 +1,43 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A cache shared by several processes, e.g. several servers behind a load balancer,
+ * to be used as the second tier of a {@link TwoTierResultCache}. Keys and values are opaque
+ * bytes. Implementations must be thread-safe. They may evict entries at any time.
+ * @since 4.4
+ */
+@Experimental
+public interface RemoteResultCacheBackend extends Closeable {
+
+  /**
+   * @return the value for {@code key}, or {@code null} if it is not in the cache
+   */
+  @Nullable
+  byte[] get(byte[] key) throws IOException;
+
+  void put(byte[] key, byte[] value) throws IOException;
+
+}
@@ -21,6 +21,7 @@ package org.languagetool;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
 import java.util.List;
@@ -55,16 +56,29 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, int expireAfter, TimeUnit timeUnit) {
+    this(maxSize/2, maxSize/2, expireAfter, timeUnit);
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
+  }
+
+  /**
+   * For subclasses that keep matches or sentences in a different way and don't need both caches.
+   * @param maxMatchesSize maximum size of the matches cache, in number of average sentences
+   * @param maxSentencesSize maximum size of the analyzed sentences cache, in number of average sentences
+   * @since 4.4
+   */
+  protected ResultCache(long maxMatchesSize, long maxSentencesSize, int expireAfter, TimeUnit timeUnit) {
+    if (maxMatchesSize < 0 || maxSentencesSize < 0) {
+      throw new IllegalArgumentException("Result cache size must be >= 0: " + maxMatchesSize + ", " + maxSentencesSize);
+    }
     matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+            maximumWeight(maxMatchesSize).weigher(new MatchesWeigher()).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
     sentenceCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new SentenceWeigher()).
+            maximumWeight(maxSentencesSize).weigher(new SentenceWeigher()).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
@@ -102,6 +116,15 @@ public class ResultCache {
     return matchesCache.getIfPresent(key);
   }
 
+  /**
+   * Get the cached matches for {@code key}, which has been checked as {@code sentence} with {@code rules}.
+   * Caches that don't keep the matches as objects use {@code sentence} and {@code rules} to re-create them.
+   * @since 4.4
+   */
+  public List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, List<Rule> rules) {
+    return getIfPresent(key);
+  }
+
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
     return sentenceCache.getIfPresent(key);
   }
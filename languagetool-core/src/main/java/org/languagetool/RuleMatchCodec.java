@@ -0,0 +1,179 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * For internal use only. Serializes the rule matches of a sentence to a compact binary form (rule id,
+ * positions, message, suggestions etc.) for caches that don't keep them as objects. When the matches
+ * are read back, they are re-created with the live {@link Rule} objects, found by their (full) id.
+ * @since 4.4
+ */
+final class RuleMatchCodec {
+
+  // lookup from rule id to rule, per list of rules (the lists are re-used by JLanguageTool as long as its rules don't change):
+  private final Cache<List<Rule>, Map<String, Rule>> ruleLookups = CacheBuilder.newBuilder().weakKeys().build();
+
+  private static String getRuleKey(Rule rule) {
+    return rule instanceof AbstractPatternRule ? ((AbstractPatternRule) rule).getFullId() : rule.getId();
+  }
+
+  private Map<String, Rule> getRuleLookup(List<Rule> rules) {
+    try {
+      return ruleLookups.get(rules, () -> {
+        Map<String, Rule> lookup = new HashMap<>();
+        for (Rule rule : rules) {
+          String ruleKey = getRuleKey(rule);
+          // we can't know which rule a match of an ambiguous id belongs to, so those matches will not be used:
+          lookup.put(ruleKey, lookup.containsKey(ruleKey) ? null : rule);
+        }
+        return lookup;
+      });
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Serialize the matches of a sentence. An empty list is encoded as an empty array.
+   */
+  byte[] encode(List<RuleMatch> matches) {
+    if (matches.isEmpty()) {
+      return new byte[0];
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * matches.size());
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        writeString(out, getRuleKey(match.getRule()));
+        out.writeInt(match.getFromPos());
+        out.writeInt(match.getToPos());
+        writeString(out, match.getMessage());
+        writeString(out, match.getShortMessage());
+        writeStrings(out, match.getSuggestedReplacements());
+        writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+        out.writeByte(match.getType().ordinal());
+        writeStrings(out, match.getSynonymsFor());
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);  // can't happen with a ByteArrayOutputStream
+    }
+  }
+
+  /**
+   * Re-create the matches serialized by {@link #encode(List)} for the given sentence.
+   * @param rules the rules that may have created the matches
+   * @return the matches, or {@code null} if one of the matches' rules is not in {@code rules} (or not unambiguously)
+   */
+  @Nullable
+  List<RuleMatch> decode(byte[] data, AnalyzedSentence sentence, List<Rule> ruleList) {
+    if (data.length == 0) {
+      return new ArrayList<>();
+    }
+    Map<String, Rule> rules = getRuleLookup(ruleList);
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      int count = in.readInt();
+      List<RuleMatch> matches = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Rule rule = rules.get(readString(in));
+        if (rule == null) {
+          return null;
+        }
+        int fromPos = in.readInt();
+        int toPos = in.readInt();
+        RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, readString(in), readString(in));
+        match.setSuggestedReplacements(readStrings(in));
+        String url = readString(in);
+        if (url != null) {
+          match.setUrl(new URL(url));
+        }
+        match.setType(RuleMatch.Type.values()[in.readByte()]);
+        match.setSynonymsFor(readStrings(in));
+        matches.add(match);
+      }
+      return matches;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == -1) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeStrings(DataOutputStream out, @Nullable List<String> strings) throws IOException {
+    if (strings == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(strings.size());
+      for (String s : strings) {
+        writeString(out, s);
+      }
+    }
+  }
+
+  @Nullable
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size == -1) {
+      return null;
+    }
+    List<String> strings = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(readString(in));
+    }
+    return strings;
+  }
+
+}
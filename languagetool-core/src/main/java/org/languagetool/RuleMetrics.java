@@ -0,0 +1,140 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.Rule;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the rules run by {@link JLanguageTool}, per rule id: how often a rule
+ * has been run, how much time that took in total, how often it has been skipped because it
+ * cannot match a sentence anyway, and how many matches it found. Sentences that are taken
+ * from the {@link ResultCache} are not counted. The same object can be used by several
+ * {@link JLanguageTool} instances at the same time, see {@link JLanguageTool#setRuleMetrics(RuleMetrics)}.
+ * @since 4.4
+ */
+@Experimental
+public class RuleMetrics {
+
+  private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+  void recordRun(Rule rule, long nanos, int matchCount) {
+    Counters ruleCounters = getCounters(rule);
+    ruleCounters.invocations.increment();
+    ruleCounters.nanos.add(nanos);
+    if (matchCount > 0) {
+      ruleCounters.matches.add(matchCount);
+    }
+  }
+
+  void recordSkip(Rule rule) {
+    getCounters(rule).skips.increment();
+  }
+
+  private Counters getCounters(Rule rule) {
+    // get() first, as computeIfAbsent() might lock even if the key exists:
+    Counters ruleCounters = counters.get(rule.getId());
+    if (ruleCounters == null) {
+      ruleCounters = counters.computeIfAbsent(rule.getId(), k -> new Counters());
+    }
+    return ruleCounters;
+  }
+
+  /**
+   * Get a snapshot of the current statistics, with the rule id as key.
+   */
+  public Map<String, RuleStats> getStats() {
+    Map<String, RuleStats> result = new HashMap<>();
+    for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+      Counters c = entry.getValue();
+      result.put(entry.getKey(), new RuleStats(entry.getKey(), c.invocations.sum(), c.skips.sum(), c.matches.sum(), c.nanos.sum()));
+    }
+    return result;
+  }
+
+  /**
+   * Set all counters back to zero.
+   */
+  public void reset() {
+    counters.clear();
+  }
+
+  private static class Counters {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder skips = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+  }
+
+  /**
+   * The statistics of one rule id.
+   */
+  public static class RuleStats {
+
+    private final String ruleId;
+    private final long invocations;
+    private final long skips;
+    private final long matches;
+    private final long nanos;
+
+    RuleStats(String ruleId, long invocations, long skips, long matches, long nanos) {
+      this.ruleId = ruleId;
+      this.invocations = invocations;
+      this.skips = skips;
+      this.matches = matches;
+      this.nanos = nanos;
+    }
+
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    /** How often the rule's {@code match()} method has been called. */
+    public long getInvocations() {
+      return invocations;
+    }
+
+    /** How often the rule has not been run for a sentence because it couldn't match. */
+    public long getSkips() {
+      return skips;
+    }
+
+    /** The number of matches found by the rule. */
+    public long getMatches() {
+      return matches;
+    }
+
+    /** The total time spent in the rule's {@code match()} method. */
+    public long getTime(TimeUnit unit) {
+      return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+      return ruleId + ": " + invocations + " runs, " + skips + " skips, " + matches + " matches, " + getTime(TimeUnit.MILLISECONDS) + "ms";
+    }
+  }
+
+}
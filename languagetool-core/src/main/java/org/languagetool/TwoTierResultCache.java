@@ -0,0 +1,233 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ResultCache} with two tiers: a local cache and a {@link RemoteResultCacheBackend}
+ * that is shared with other processes. Rule matches not found in the local tier are looked up
+ * in the remote tier, new matches are written to both tiers. Writes to the remote tier happen
+ * in the background. If the remote tier doesn't answer within the given timeout, or too many
+ * lookups are already waiting for it, the lookup counts as a miss, and after an error or timeout the remote tier is not used for a second,
+ * so a slow or unavailable remote tier can't slow down checking much. Analyzed sentences are only
+ * kept in the local tier.
+ * <p>Matches are stored in the remote tier in the binary form of {@link RuleMatchCodec}, under a
+ * hash of the sentence, the configuration and the LanguageTool version. The remote tier should
+ * only be shared by processes with the same rules, as for {@link ResultCache}.
+ * @since 4.4
+ */
+@Experimental
+public class TwoTierResultCache extends ResultCache implements Closeable {
+
+  private static final long BYPASS_MILLIS = 1000;
+  private static final int MAX_PENDING_WRITES = 1000;
+  // remote reads that hang can't be interrupted, so limit the threads they can block:
+  static final int MAX_READ_THREADS = 8;
+  static final int MAX_PENDING_READS = 16;
+
+  private final ResultCache local;
+  private final RemoteResultCacheBackend remote;
+  private final long timeoutMillis;
+  private final RuleMatchCodec codec = new RuleMatchCodec();
+  private final ThreadPoolExecutor readExecutor;
+  private final ThreadPoolExecutor writeExecutor;
+  private final AtomicLong remoteRequestCount = new AtomicLong();
+  private final AtomicLong remoteHitCount = new AtomicLong();
+  private final AtomicLong remoteErrorCount = new AtomicLong();
+
+  private volatile long bypassRemoteUntil;
+
+  /**
+   * @param local the local tier
+   * @param remote the remote tier, will be closed by {@link #close()}
+   * @param timeoutMillis maximum time to wait for a lookup in the remote tier
+   */
+  public TwoTierResultCache(ResultCache local, RemoteResultCacheBackend remote, long timeoutMillis) {
+    super(0, 0, 5, TimeUnit.MINUTES);
+    if (timeoutMillis <= 0) {
+      throw new IllegalArgumentException("timeoutMillis must be > 0: " + timeoutMillis);
+    }
+    this.local = Objects.requireNonNull(local);
+    this.remote = Objects.requireNonNull(remote);
+    this.timeoutMillis = timeoutMillis;
+    this.readExecutor = new ThreadPoolExecutor(MAX_READ_THREADS, MAX_READ_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(MAX_PENDING_READS),
+            new ThreadFactoryBuilder().setNameFormat("lt-remote-cache-read-%d").setDaemon(true).build());  // lookups that are rejected count as misses
+    this.readExecutor.allowCoreThreadTimeOut(true);
+    this.writeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(MAX_PENDING_WRITES),
+            new ThreadFactoryBuilder().setNameFormat("lt-remote-cache-write-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.DiscardPolicy());  // the cache is just an optimization, so we can drop writes if the remote tier is too slow
+  }
+
+  /**
+   * Looks up the matches in the local tier only, as matches from the remote tier can only
+   * be re-created with the rules that found them.
+   */
+  @Override
+  public List<RuleMatch> getIfPresent(InputSentence key) {
+    return local.getIfPresent(key);
+  }
+
+  @Override
+  public List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, List<Rule> rules) {
+    List<RuleMatch> matches = local.getIfPresent(key, sentence, rules);
+    if (matches != null || System.currentTimeMillis() < bypassRemoteUntil) {
+      return matches;
+    }
+    remoteRequestCount.incrementAndGet();
+    byte[] remoteKey = getRemoteKey(key);
+    Future<byte[]> future = null;
+    try {
+      future = readExecutor.submit(() -> remote.get(remoteKey));
+      byte[] value = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      if (value != null) {
+        matches = codec.decode(value, sentence, rules);
+        if (matches != null) {
+          remoteHitCount.incrementAndGet();
+          local.put(key, matches);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+      if (future != null) {
+        future.cancel(true);
+      }
+      remoteFailed();
+    } catch (RuntimeException e) {
+      remoteFailed();  // e.g. a corrupt value
+    }
+    return matches;
+  }
+
+  @Override
+  public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
+    local.put(key, sentenceMatches);
+    if (System.currentTimeMillis() < bypassRemoteUntil) {
+      return;
+    }
+    byte[] remoteKey = getRemoteKey(key);
+    byte[] value = codec.encode(sentenceMatches);
+    writeExecutor.execute(() -> {
+      try {
+        remote.put(remoteKey, value);
+      } catch (IOException | RuntimeException e) {
+        remoteFailed();
+      }
+    });
+  }
+
+  @Override
+  public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
+    return local.getIfPresent(key);
+  }
+
+  @Override
+  public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
+    local.put(key, aSentence);
+  }
+
+  private void remoteFailed() {
+    remoteErrorCount.incrementAndGet();
+    bypassRemoteUntil = System.currentTimeMillis() + BYPASS_MILLIS;
+  }
+
+  private static byte[] getRemoteKey(InputSentence key) {
+    return Hashing.sha256().newHasher()
+            .putBytes(key.getConfig().getDigest())
+            .putString(key.getMode().name(), StandardCharsets.UTF_8)
+            .putString(key.getText(), StandardCharsets.UTF_8)
+            .hash().asBytes();
+  }
+
+  /**
+   * Hit rate of the local tier.
+   */
+  @Override
+  public double hitRate() {
+    return local.hitRate();
+  }
+
+  /**
+   * Requests to the local tier.
+   */
+  @Override
+  public double requestCount() {
+    return local.requestCount();
+  }
+
+  /**
+   * Hits in the local tier.
+   */
+  @Override
+  public long hitCount() {
+    return local.hitCount();
+  }
+
+  /**
+   * Lookups in the remote tier (i.e. misses in the local tier while the remote tier was available).
+   */
+  public long remoteRequestCount() {
+    return remoteRequestCount.get();
+  }
+
+  public long remoteHitCount() {
+    return remoteHitCount.get();
+  }
+
+  /**
+   * Failed or timed out requests to the remote tier.
+   */
+  public long remoteErrorCount() {
+    return remoteErrorCount.get();
+  }
+
+  @Override
+  protected Cache<InputSentence, List<RuleMatch>> getMatchesCache() {
+    return local.getMatchesCache();
+  }
+
+  @Override
+  protected Cache<SimpleInputSentence, AnalyzedSentence> getSentenceCache() {
+    return local.getSentenceCache();
+  }
+
+  /**
+   * Stop the background threads and close the remote tier. Pending writes are dropped.
+   */
+  @Override
+  public void close() throws IOException {
+    readExecutor.shutdownNow();
+    writeExecutor.shutdownNow();
+    remote.close();
+  }
+
+}
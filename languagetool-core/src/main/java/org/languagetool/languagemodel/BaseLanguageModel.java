@@ -18,10 +18,12 @@
  */
 package org.languagetool.languagemodel;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.rules.ngrams.Probability;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.function.ToLongFunction;
 
 /**
  * The algorithm of a language model, independent of the way data
@@ -33,6 +35,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
   private static final boolean DEBUG = false;
   
   private Long totalTokenCount;
+  private volatile NgramCountCache countCache;
 
   public BaseLanguageModel()  {
   }
@@ -90,6 +93,36 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   public abstract long getTotalTokenCount();
 
+  /**
+   * Set the cache used for ngram counts, or {@code null} to not use a cache. Only sub classes that
+   * use {@link #getCachedCount(List, ToLongFunction)} make use of the cache.
+   * @since 4.4
+   */
+  public void setCountCache(@Nullable NgramCountCache countCache) {
+    this.countCache = countCache;
+  }
+
+  /**
+   * @since 4.4
+   */
+  @Nullable
+  public NgramCountCache getCountCache() {
+    return countCache;
+  }
+
+  /**
+   * Get the count from the {@link #setCountCache(NgramCountCache) cache} if there is one,
+   * and use {@code loader} for ngrams that are not cached yet.
+   * @since 4.4
+   */
+  protected long getCachedCount(List<String> tokens, ToLongFunction<List<String>> loader) {
+    NgramCountCache cache = countCache;
+    if (cache == null) {
+      return loader.applyAsLong(tokens);
+    }
+    return cache.get(tokens, loader);
+  }
+
   private void debug(String message, Object... vars) {
     if (DEBUG) {
       System.out.printf(Locale.ENGLISH, message, vars);
@@ -59,6 +59,10 @@ public class BerkeleyRawLanguageModel extends BaseLanguageModel {
 
   @Override
   public long getCount(List<String> tokens) {
+    return getCachedCount(tokens, this::lookupCount);
+  }
+
+  private long lookupCount(List<String> tokens) {
     LongRef count = map.get(tokens);
     long result;
     if (count == null) {
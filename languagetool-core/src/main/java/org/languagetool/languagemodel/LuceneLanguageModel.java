@@ -28,10 +28,16 @@ import java.util.List;
 /**
  * Like {@link LuceneSingleIndexLanguageModel}, but can merge the results of
  * lookups in several independent indexes to one result.
+ * Ngram counts are not cached by default. To cache them, set the system property
+ * {@code org.languagetool.ngram_cache_size} to the maximum number of ngrams to keep
+ * (e.g. {@code -Dorg.languagetool.ngram_cache_size=50000}), or call {@link #setCountCache(NgramCountCache)}.
  * @since 2.7
  */
 public class LuceneLanguageModel extends BaseLanguageModel {
 
+  // number of ngrams whose counts are cached, 0 means no caching:
+  private static final long CACHE_SIZE = Long.getLong("org.languagetool.ngram_cache_size", 0);
+
   private final List<LuceneSingleIndexLanguageModel> lms = new ArrayList<>();
 
   public static void validateDirectory(File topIndexDir) {
@@ -64,10 +70,17 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     } else {
       lms.add(new LuceneSingleIndexLanguageModel(topIndexDir));
     }
+    if (CACHE_SIZE > 0) {
+      setCountCache(new NgramCountCache(CACHE_SIZE));
+    }
   }
 
   @Override
   public long getCount(List<String> tokens) {
+    return getCachedCount(tokens, this::lookupCount);
+  }
+
+  private long lookupCount(List<String> tokens) {
     return lms.stream().mapToLong(lm -> lm.getCount(tokens)).sum();
   }
 
@@ -47,6 +47,8 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
   private final File topIndexDir;
   private final long maxNgram;
 
+  private volatile Long totalTokenCount;
+
   /**
    * Throw RuntimeException is the given directory does not seem to be a valid ngram top directory
    * with sub directories {@code 1grams} etc.
@@ -127,6 +129,10 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
       throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
     }
     Objects.requireNonNull(tokens);
+    return getCachedCount(tokens, this::lookupCount);
+  }
+
+  private long lookupCount(List<String> tokens) {
     Term term = new Term("ngram", String.join(" ", tokens));
     return getCount(term, getLuceneSearcher(tokens.size()));
   }
@@ -143,6 +149,15 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
 
   @Override
   public long getTotalTokenCount() {
+    // the count doesn't change, so there's no need to run the query more than once:
+    Long count = totalTokenCount;
+    if (count == null) {
+      totalTokenCount = count = lookupTotalTokenCount();
+    }
+    return count;
+  }
+
+  private long lookupTotalTokenCount() {
     LuceneSearcher luceneSearcher = getLuceneSearcher(1);
     try {
       RegexpQuery query = new RegexpQuery(new Term("totalTokenCount", ".*"));
@@ -0,0 +1,247 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.languagetool.Experimental;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the ngram file used by {@link MappedNgramLanguageModel}. Ngrams can be added
+ * in any order. The same ngram can be added more than once, its counts will be summed up.
+ * To keep memory usage low even for billions of ngrams, the entries are first distributed
+ * to temporary files by hash range, then each of these files is sorted in memory.
+ * @since 4.4
+ */
+@Experimental
+public class MappedNgramFileWriter implements Closeable {
+
+  private static final int BUCKETS = 256;
+
+  private final File outputFile;
+  private final File[] bucketFiles = new File[BUCKETS];
+  private final DataOutputStream[] buckets = new DataOutputStream[BUCKETS];
+
+  private long totalTokenCount;
+  private long maxCount;  // after summing up duplicates
+  private int maxNgram;
+  private boolean finished;
+
+  /**
+   * @param outputFile the ngram file to be created
+   * @param tempDir the directory for temporary files, which will need about as much space as the ngram file
+   */
+  public MappedNgramFileWriter(File outputFile, File tempDir) throws IOException {
+    this.outputFile = outputFile;
+    for (int i = 0; i < BUCKETS; i++) {
+      bucketFiles[i] = File.createTempFile("ngrams-" + i + "-", ".tmp", tempDir);
+      buckets[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(bucketFiles[i])));
+    }
+  }
+
+  /**
+   * @param ngram the ngram, with its tokens separated by a single space
+   * @param count the occurrence count of the ngram
+   */
+  public void add(String ngram, long count) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("finish() has already been called");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("count must be >= 0: " + count + " for '" + ngram + "'");
+    }
+    long hash = MappedNgramLanguageModel.hash(ngram);
+    DataOutputStream bucket = buckets[getBucket(hash)];
+    bucket.writeLong(hash);
+    bucket.writeLong(count);
+    maxNgram = Math.max(maxNgram, countTokens(ngram));
+  }
+
+  /**
+   * Set the total token count, as returned by {@link BaseLanguageModel#getTotalTokenCount()}.
+   */
+  public void setTotalTokenCount(long totalTokenCount) {
+    this.totalTokenCount = totalTokenCount;
+  }
+
+  /**
+   * Sort the ngrams and write the ngram file.
+   * @return the number of distinct ngrams written
+   */
+  public long finish() throws IOException {
+    if (finished) {
+      throw new IllegalStateException("finish() has already been called");
+    }
+    finished = true;
+    for (DataOutputStream bucket : buckets) {
+      bucket.close();
+    }
+    File countsFile = File.createTempFile("ngram-counts-", ".tmp", outputFile.getAbsoluteFile().getParentFile());
+    long entryCount = 0;
+    try {
+      try (DataOutputStream hashOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
+           DataOutputStream countOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(countsFile)))) {
+        hashOut.write(new byte[MappedNgramLanguageModel.HEADER_SIZE]);  // written at the end, when the number of entries is known
+        for (File bucketFile : bucketFiles) {
+          entryCount += writeBucket(bucketFile, hashOut, countOut);
+          Files.delete(bucketFile.toPath());
+        }
+      }
+      appendCounts(countsFile, countBytes(), entryCount);
+    } finally {
+      Files.deleteIfExists(countsFile.toPath());
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(outputFile, "rw")) {
+      raf.writeInt(MappedNgramLanguageModel.MAGIC);
+      raf.writeInt(MappedNgramLanguageModel.VERSION);
+      raf.writeInt(maxNgram);
+      raf.writeInt(countBytes());
+      raf.writeLong(entryCount);
+      raf.writeLong(totalTokenCount);
+    }
+    return entryCount;
+  }
+
+  /**
+   * Delete the temporary files. Does not delete the ngram file.
+   */
+  @Override
+  public void close() throws IOException {
+    for (int i = 0; i < BUCKETS; i++) {
+      if (buckets[i] != null) {
+        buckets[i].close();
+      }
+      if (bucketFiles[i] != null) {
+        Files.deleteIfExists(bucketFiles[i].toPath());
+      }
+    }
+  }
+
+  private int countBytes() {
+    return maxCount <= Integer.MAX_VALUE ? 4 : 8;
+  }
+
+  // the temporary counts file contains longs, which are converted to ints if all counts are small enough:
+  private void appendCounts(File countsFile, int countBytes, long entryCount) throws IOException {
+    if (countBytes == 8) {
+      try (FileChannel out = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+           FileChannel in = FileChannel.open(countsFile.toPath(), StandardOpenOption.READ)) {
+        long pos = 0;
+        while (pos < in.size()) {
+          pos += in.transferTo(pos, in.size() - pos, out);
+        }
+      }
+    } else {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(countsFile)));
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile, true)))) {
+        for (long i = 0; i < entryCount; i++) {
+          out.writeInt((int) in.readLong());
+        }
+      }
+    }
+  }
+
+  private long writeBucket(File bucketFile, DataOutputStream hashOut, DataOutputStream countOut) throws IOException {
+    int size = (int) (bucketFile.length() / 16);
+    long[] hashes = new long[size];
+    long[] counts = new long[size];
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(bucketFile)))) {
+      for (int i = 0; i < size; i++) {
+        hashes[i] = in.readLong();
+        counts[i] = in.readLong();
+      }
+    }
+    sort(hashes, counts, 0, size - 1);
+    long written = 0;
+    int i = 0;
+    while (i < size) {
+      long hash = hashes[i];
+      long count = 0;
+      while (i < size && hashes[i] == hash) {
+        count += counts[i++];
+      }
+      hashOut.writeLong(hash);
+      countOut.writeLong(count);
+      maxCount = Math.max(maxCount, count);
+      written++;
+    }
+    return written;
+  }
+
+  // the buckets are ordered by the (signed) top byte of the hash, so their concatenation is sorted:
+  private static int getBucket(long hash) {
+    return (int) (hash >> 56) + 128;
+  }
+
+  private static int countTokens(String ngram) {
+    int tokens = 1;
+    for (int i = 0; i < ngram.length(); i++) {
+      if (ngram.charAt(i) == ' ') {
+        tokens++;
+      }
+    }
+    return tokens;
+  }
+
+  // quicksort of the hashes that moves the counts along:
+  private static void sort(long[] keys, long[] values, int low, int high) {
+    while (high - low > 16) {
+      long pivot = keys[(low + high) >>> 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (keys[i] < pivot) {
+          i++;
+        }
+        while (keys[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(keys, values, i++, j--);
+        }
+      }
+      // recurse into the smaller part only to limit the stack depth:
+      if (j - low < high - i) {
+        sort(keys, values, low, j);
+        low = i;
+      } else {
+        sort(keys, values, i, high);
+        high = j;
+      }
+    }
+    for (int i = low + 1; i <= high; i++) {
+      for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+        swap(keys, values, j, j - 1);
+      }
+    }
+  }
+
+  private static void swap(long[] keys, long[] values, int i, int j) {
+    long key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    long value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+
+}
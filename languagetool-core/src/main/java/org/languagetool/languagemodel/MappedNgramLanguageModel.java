@@ -0,0 +1,242 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.languagetool.Experimental;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Information about ngram occurrences, taken from a single file that is memory-mapped,
+ * as created by {@link MappedNgramFileWriter}. Compared to {@link LuceneLanguageModel},
+ * a lookup is just a search in a sorted table of ngram hashes and doesn't allocate objects.
+ * Ngrams are only stored as 64 bit hashes, so in theory an ngram that's not in the file
+ * can get the count of another ngram, but the chance for that is negligible.
+ * <p>
+ * File format (big endian): a header of {@value #HEADER_SIZE} bytes (magic number, version,
+ * maximum ngram size, bytes per count, number of entries, total token count), then
+ * the sorted hashes as {@code long}s, then the counts in the same order, as {@code int}s
+ * or {@code long}s.
+ * @since 4.4
+ */
+@Experimental
+public class MappedNgramLanguageModel extends BaseLanguageModel {
+
+  static final int MAGIC = 0x4C544E47;  // "LTNG"
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+
+  // a single mapping can be at most 2GB, so larger files are mapped in chunks of this many entries:
+  private static final int CHUNK_BITS = 27;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int INTERPOLATION_STEPS = 8;
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final File file;
+  private final int maxNgram;
+  private final long entryCount;
+  private final long totalTokenCount;
+  private final LongBuffer[] hashes;
+  private final IntBuffer[] intCounts;    // null if counts need 8 bytes
+  private final LongBuffer[] longCounts;  // null if counts need 4 bytes
+
+  /**
+   * @param file a file created by {@link MappedNgramFileWriter}
+   */
+  public MappedNgramLanguageModel(File file) throws IOException {
+    this.file = Objects.requireNonNull(file);
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not an ngram file created by " + MappedNgramFileWriter.class.getSimpleName() + ": " + file);
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported ngram file version " + version + ", expected " + VERSION + ": " + file);
+      }
+      maxNgram = header.getInt();
+      int countBytes = header.getInt();
+      entryCount = header.getLong();
+      totalTokenCount = header.getLong();
+      if (countBytes != 4 && countBytes != 8) {
+        throw new IOException("Unsupported count size " + countBytes + " in " + file);
+      }
+      long expectedSize = HEADER_SIZE + entryCount * (8 + countBytes);
+      if (channel.size() != expectedSize) {
+        throw new IOException("Unexpected file size " + channel.size() + ", expected " + expectedSize + ": " + file);
+      }
+      int chunks = (int) ((entryCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+      hashes = new LongBuffer[chunks];
+      intCounts = countBytes == 4 ? new IntBuffer[chunks] : null;
+      longCounts = countBytes == 8 ? new LongBuffer[chunks] : null;
+      long countsStart = HEADER_SIZE + entryCount * 8;
+      for (int i = 0; i < chunks; i++) {
+        long firstEntry = (long) i * CHUNK_SIZE;
+        long entries = Math.min(CHUNK_SIZE, entryCount - firstEntry);
+        hashes[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstEntry * 8, entries * 8).asLongBuffer();
+        ByteBuffer counts = channel.map(FileChannel.MapMode.READ_ONLY, countsStart + firstEntry * countBytes, entries * countBytes);
+        if (countBytes == 4) {
+          intCounts[i] = counts.asIntBuffer();
+        } else {
+          longCounts[i] = counts.asLongBuffer();
+        }
+      }
+    }
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+    }
+    return getCountForHash(hash(tokens));
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCountForHash(hash(token1));
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  /**
+   * The number of ngrams in the file.
+   */
+  public long getEntryCount() {
+    return entryCount;
+  }
+
+  @Override
+  public void close() {
+    // nothing to do: the channel is closed after mapping and
+    // the mapping gets released when the buffers are garbage collected
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+
+  private long getCountForHash(long hash) {
+    long pos = find(hash);
+    if (pos < 0) {
+      return 0;
+    }
+    int chunk = (int) (pos >>> CHUNK_BITS);
+    int offset = (int) (pos & (CHUNK_SIZE - 1));
+    return intCounts != null ? intCounts[chunk].get(offset) : longCounts[chunk].get(offset);
+  }
+
+  private long getHash(long pos) {
+    return hashes[(int) (pos >>> CHUNK_BITS)].get((int) (pos & (CHUNK_SIZE - 1)));
+  }
+
+  // the hashes are evenly distributed, so interpolation search usually finds the entry in
+  // very few steps - binary search is used as a fallback for the remaining range:
+  private long find(long hash) {
+    long low = 0;
+    long high = entryCount - 1;
+    for (int i = 0; i < INTERPOLATION_STEPS && low <= high; i++) {
+      long lowHash = getHash(low);
+      long highHash = getHash(high);
+      if (hash < lowHash || hash > highHash) {
+        return -1;
+      }
+      if (lowHash == highHash) {
+        return lowHash == hash ? low : -1;
+      }
+      long pos = low + (long) (((double) hash - lowHash) / ((double) highHash - lowHash) * (high - low));
+      pos = Math.max(low, Math.min(high, pos));
+      long posHash = getHash(pos);
+      if (posHash < hash) {
+        low = pos + 1;
+      } else if (posHash > hash) {
+        high = pos - 1;
+      } else {
+        return pos;
+      }
+    }
+    while (low <= high) {
+      long mid = (low + high) >>> 1;
+      long midHash = getHash(mid);
+      if (midHash < hash) {
+        low = mid + 1;
+      } else if (midHash > hash) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The hash of an ngram whose tokens are separated by a single space.
+   */
+  static long hash(CharSequence ngram) {
+    long h = FNV_OFFSET;
+    for (int i = 0; i < ngram.length(); i++) {
+      h = (h ^ ngram.charAt(i)) * FNV_PRIME;
+    }
+    return mix(h);
+  }
+
+  /**
+   * The same as {@code hash(String.join(" ", tokens))}, but without creating a string.
+   */
+  static long hash(List<String> tokens) {
+    long h = FNV_OFFSET;
+    for (int i = 0; i < tokens.size(); i++) {
+      if (i > 0) {
+        h = (h ^ ' ') * FNV_PRIME;
+      }
+      String token = tokens.get(i);
+      for (int j = 0; j < token.length(); j++) {
+        h = (h ^ token.charAt(j)) * FNV_PRIME;
+      }
+    }
+    return mix(h);
+  }
+
+  // the final step of MurmurHash3, so that all bits of the FNV hash affect the high bits:
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+}
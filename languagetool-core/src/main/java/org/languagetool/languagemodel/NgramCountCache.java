@@ -0,0 +1,100 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.languagetool.Experimental;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * A size-bounded cache for ngram occurrence counts, to be used by one {@link BaseLanguageModel}
+ * (see {@link BaseLanguageModel#setCountCache(NgramCountCache)}) from any number of threads.
+ * Ngrams that don't occur are cached, too. When the cache is full, the least recently used
+ * entries are evicted. Do not use the same cache for language models with different data,
+ * as the cache key is just the ngram.
+ * @since 4.4
+ */
+@Experimental
+public class NgramCountCache {
+
+  private final Cache<String, Long> cache;
+
+  /**
+   * @param maxSize maximum number of ngrams to keep in the cache
+   */
+  public NgramCountCache(long maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Ngram cache size must be >= 0: " + maxSize);
+    }
+    cache = CacheBuilder.newBuilder().
+            maximumSize(maxSize).
+            recordStats().
+            build();
+  }
+
+  /**
+   * Get the count for {@code tokens} from the cache or, if it's not there yet, from {@code loader}.
+   */
+  long get(List<String> tokens, ToLongFunction<List<String>> loader) {
+    String key = String.join(" ", tokens);
+    Long count = cache.getIfPresent(key);
+    if (count == null) {
+      // two threads might load the same ngram at the same time, but that's cheaper than locking:
+      count = loader.applyAsLong(tokens);
+      cache.put(key, count);
+    }
+    return count;
+  }
+
+  public double hitRate() {
+    return cache.stats().hitRate();
+  }
+
+  public long requestCount() {
+    return cache.stats().requestCount();
+  }
+
+  public long hitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long evictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  /**
+   * The approximate number of ngrams in the cache.
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return "NgramCountCache{size=" + size() + ", " + cache.stats() + "}";
+  }
+
+}
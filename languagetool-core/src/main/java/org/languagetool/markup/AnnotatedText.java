@@ -20,6 +20,7 @@ package org.languagetool.markup;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -42,13 +43,19 @@ public class AnnotatedText {
   }
 
   private final List<TextPart> parts;
-  private final Map<Integer,Integer> mapping;  // plain text position to original text (with markup) position
+  // plain text positions (sorted, no duplicates) and the original text (with markup) positions they map to:
+  private final int[] plainTextPositions;
+  private final int[] originalTextPositions;
   private final Map<MetaDataKey, String> metaData;
   private final Map<String, String> customMetaData;
 
-  AnnotatedText(List<TextPart> parts, Map<Integer, Integer> mapping, Map<MetaDataKey, String> metaData, Map<String, String> customMetaData) {
+  AnnotatedText(List<TextPart> parts, int[] plainTextPositions, int[] originalTextPositions, Map<MetaDataKey, String> metaData, Map<String, String> customMetaData) {
+    if (plainTextPositions.length != originalTextPositions.length) {
+      throw new IllegalArgumentException("Position arrays must have the same length: " + plainTextPositions.length + " != " + originalTextPositions.length);
+    }
     this.parts = Objects.requireNonNull(parts);
-    this.mapping = Objects.requireNonNull(mapping);
+    this.plainTextPositions = plainTextPositions;
+    this.originalTextPositions = originalTextPositions;
     this.metaData = Objects.requireNonNull(metaData);
     this.customMetaData = Objects.requireNonNull(customMetaData);
   }
@@ -101,29 +108,18 @@ public class AnnotatedText {
     if (plainTextPosition < 0) {
       throw new RuntimeException("plainTextPosition must be >= 0: " + plainTextPosition);
     }
-    Integer origPosition = mapping.get(plainTextPosition);
-    if (origPosition != null) {
-      return origPosition;
+    int idx = Arrays.binarySearch(plainTextPositions, plainTextPosition);
+    if (idx >= 0) {
+      return originalTextPositions[idx];
     }
-    int minDiff = Integer.MAX_VALUE;
-    Integer bestMatch = null;
     // algorithm: find the closest lower position
-    for (Map.Entry<Integer, Integer> entry : mapping.entrySet()) {
-      int maybeClosePosition = entry.getKey();
-      if (plainTextPosition > maybeClosePosition) {
-        int diff = plainTextPosition - maybeClosePosition;
-        if (diff >= 0 && diff < minDiff) {
-          bestMatch = entry.getValue();
-          minDiff = diff;
-        }
-      }
-    }
-    if (bestMatch == null) {
+    int lowerIdx = -idx - 2;
+    if (lowerIdx < 0) {
       throw new RuntimeException("Could not map " + plainTextPosition + " to original position");
     }
     // we assume that when we have found the closest match there's a one-to-one mapping
-    // in this region, thus we can add 'minDiff' to get the exact position:
-    return bestMatch + minDiff;
+    // in this region, thus we can add the difference to get the exact position:
+    return originalTextPositions[lowerIdx] + plainTextPosition - plainTextPositions[lowerIdx];
   }
 
   /**
@@ -19,6 +19,7 @@
 package org.languagetool.markup;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -111,10 +112,13 @@ public class AnnotatedTextBuilder {
    * Create the annotated text to be passed into {@link org.languagetool.JLanguageTool#check(AnnotatedText)}.
    */
   public AnnotatedText build() {
+    // plain text positions never decrease, so the arrays are sorted and a position
+    // that occurs more than once maps to its last original position:
+    int[] plainTextPositions = new int[parts.size() + 1];
+    int[] originalTextPositions = new int[parts.size() + 1];
+    int size = 1;  // position 0 maps to 0
     int plainTextPosition = 0;
     int totalPosition = 0;
-    Map<Integer,Integer> mapping = new HashMap<>();
-    mapping.put(0, 0);
     for (TextPart part : parts) {
       if (part.getType() == TextPart.Type.TEXT) {
         plainTextPosition += part.getPart().length();
@@ -124,9 +128,14 @@ public class AnnotatedTextBuilder {
       } else if (part.getType() == TextPart.Type.FAKE_CONTENT) {
         plainTextPosition += part.getPart().length();
       }
-      mapping.put(plainTextPosition, totalPosition);
+      if (plainTextPositions[size - 1] != plainTextPosition) {
+        size++;
+      }
+      plainTextPositions[size - 1] = plainTextPosition;
+      originalTextPositions[size - 1] = totalPosition;
     }
-    return new AnnotatedText(parts, mapping, metaData, customMetaData);
+    return new AnnotatedText(parts, Arrays.copyOf(plainTextPositions, size), Arrays.copyOf(originalTextPositions, size),
+            metaData, customMetaData);
   }
   
 }
@@ -22,8 +22,10 @@ package org.languagetool.rules.patterns;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.NotNull;
@@ -33,6 +35,7 @@ import org.languagetool.Language;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+import org.languagetool.tools.StringTools;
 
 /**
  * An Abstract Pattern Rule that describes a pattern of words or part-of-speech tags 
@@ -67,6 +70,10 @@ public abstract class AbstractPatternRule extends Rule {
   private final boolean getUnified;
   private final boolean groupsOrUnification;
 
+  // Tokens used for fast checking whether a rule can ever match.
+  private final Set<String> simpleRuleTokens;
+  private final Set<String> inflectedRuleTokens;
+
   /**
    * @since 3.2
    */
@@ -109,6 +116,8 @@ public abstract class AbstractPatternRule extends Rule {
       }
       this.regex = null;
       this.regexMark = 0;
+      simpleRuleTokens = getSet(false);
+      inflectedRuleTokens = getSet(true);
     } else {
       this.regex = regex;
       if (regexMark < 0) {
@@ -119,6 +128,8 @@ public abstract class AbstractPatternRule extends Rule {
       groupsOrUnification = false;
       sentStart = false;
       testUnification = false;
+      simpleRuleTokens = Collections.emptySet();
+      inflectedRuleTokens = Collections.emptySet();
     }
   }
 
@@ -127,6 +138,46 @@ public abstract class AbstractPatternRule extends Rule {
     return language.equalsConsiderVariantsIfSpecified(this.language);
   }
 
+  // tokens that just refer to a word - no regex and optionally no inflection etc.
+  private Set<String> getSet(boolean isInflected) {
+    Set<String> set = new HashSet<>();
+    for (PatternToken patternToken : patternTokens) {
+      boolean acceptInflectionValue = isInflected ? patternToken.isInflected() : !patternToken.isInflected();
+      if (acceptInflectionValue && !patternToken.getNegation() && !patternToken.isRegularExpression()
+              && !patternToken.isReferenceElement() && patternToken.getMinOccurrence() > 0 && !patternToken.hasOrGroup()) {
+        String str = patternToken.getString();
+        if (!StringTools.isEmpty(str)) {
+          set.add(str.toLowerCase());
+        }
+      }
+    }
+    return Collections.unmodifiableSet(set);
+  }
+
+  /**
+   * A fast check whether this rule can be ignored for the given sentence
+   * because it can never match. Used internally for performance optimization.
+   * @since 2.4, in this class since 4.4
+   */
+  public boolean canBeIgnoredFor(AnalyzedSentence sentence) {
+    return (!simpleRuleTokens.isEmpty() && !sentence.getTokenSet().containsAll(simpleRuleTokens))
+            || (!inflectedRuleTokens.isEmpty() && !sentence.getLemmaSet().containsAll(inflectedRuleTokens));
+  }
+
+  /**
+   * Lowercase non-inflected words that every match of this rule needs (see {@link #canBeIgnoredFor(AnalyzedSentence)}).
+   */
+  Set<String> getSimpleRuleTokens() {
+    return simpleRuleTokens;
+  }
+
+  /**
+   * Lowercase lemmas that every match of this rule needs (see {@link #canBeIgnoredFor(AnalyzedSentence)}).
+   */
+  Set<String> getInflectedRuleTokens() {
+    return inflectedRuleTokens;
+  }
+
   private boolean initUnifier() {
     for (PatternToken pToken : patternTokens) {
       if (pToken.isUnified()) {
@@ -64,7 +64,7 @@ public class FalseFriendRuleLoader extends DefaultHandler {
     saxParser.getXMLReader().setFeature(
             "http://apache.org/xml/features/nonvalidating/load-external-dtd",
             false);
-    saxParser.parse(stream, handler);
+    XmlRuleSnapshot.parse(stream, handler, saxParser);
     List<AbstractPatternRule> rules = handler.getRules();
     // Add suggestions to each rule:
     ResourceBundle messages = ResourceBundle.getBundle(
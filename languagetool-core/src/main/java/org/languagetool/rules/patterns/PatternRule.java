@@ -21,7 +21,9 @@ package org.languagetool.rules.patterns;
 import java.io.IOException;
 import java.util.*;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
+import org.languagetool.Experimental;
 import org.languagetool.Language;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
@@ -39,17 +41,14 @@ public class PatternRule extends AbstractPatternRule {
   // A list of elements as they appear in XML file (phrases count as single tokens in case of matches or skipping).
   private final List<Integer> elementNo;
 
-  // Tokens used for fast checking whether a rule can ever match.
-  private final Set<String> simpleRuleTokens;
-
-  private final Set<String> inflectedRuleTokens;
-
   // This property is used for short-circuiting evaluation of the elementNo list order:
   private final boolean useList;
 
   // Marks whether the rule is a member of a disjunctive set (in case of OR operation on phraserefs).
   private boolean isMemberOfDisjunctiveSet;
 
+  private RegexPatternRule regexMatcher;
+
   /**
    * @param id Id of the Rule. Used in configuration. Should not contain special characters and should
    *        be stable over time, unless the rule changes completely.
@@ -96,8 +95,6 @@ public class PatternRule extends AbstractPatternRule {
       }
     }
     useList = tempUseList;
-    simpleRuleTokens = getSet(false);
-    inflectedRuleTokens = getSet(true);
   }
   
   public PatternRule(String id, Language language,
@@ -150,12 +147,23 @@ public class PatternRule extends AbstractPatternRule {
 
   @Override
   public final RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
+    return match(sentence, null);
+  }
+
+  /**
+   * Like {@link #match(AnalyzedSentence)}, but re-uses the matcher that this rule has
+   * used before with the same {@code matchers}.
+   * @param matchers the matchers of the current check, not to be shared between threads
+   * @since 4.4
+   */
+  @Experimental
+  public final RuleMatch[] match(AnalyzedSentence sentence, @Nullable PatternRuleMatchers matchers) throws IOException {
     try {
       RuleMatcher matcher;
       if (patternTokens != null) {
-        matcher = new PatternRuleMatcher(this, useList);
+        matcher = matchers != null ? matchers.get(this) : createMatcher();
       } else if (regex != null) {
-        matcher = new RegexPatternRule(this.getId(), getDescription(), getMessage(), getSuggestionsOutMsg(), language, regex, regexMark);
+        matcher = getRegexMatcher();
       } else {
         throw new IllegalStateException("Neither pattern tokens nor regex set for rule " + getId());
       }
@@ -167,30 +175,17 @@ public class PatternRule extends AbstractPatternRule {
     }
   }
 
-  /**
-   * A fast check whether this rule can be ignored for the given sentence
-   * because it can never match. Used internally for performance optimization.
-   * @since 2.4
-   */
-  public boolean canBeIgnoredFor(AnalyzedSentence sentence) {
-    return (!simpleRuleTokens.isEmpty() && !sentence.getTokenSet().containsAll(simpleRuleTokens))
-            || (!inflectedRuleTokens.isEmpty() && !sentence.getLemmaSet().containsAll(inflectedRuleTokens));
+  PatternRuleMatcher createMatcher() {
+    return new PatternRuleMatcher(this, useList);
   }
 
-  // tokens that just refer to a word - no regex and optionally no inflection etc.
-  private Set<String> getSet(boolean isInflected) {
-    Set<String> set = new HashSet<>();
-    for (PatternToken patternToken : patternTokens) {
-      boolean acceptInflectionValue = isInflected ? patternToken.isInflected() : !patternToken.isInflected();
-      if (acceptInflectionValue && !patternToken.getNegation() && !patternToken.isRegularExpression()
-              && !patternToken.isReferenceElement() && patternToken.getMinOccurrence() > 0) {
-        String str = patternToken.getString();
-        if (!StringTools.isEmpty(str)) {
-          set.add(str.toLowerCase());
-        }
-      }
+  // RegexPatternRule has no state while matching, so it can be shared, but it needs to be
+  // re-created if the message has been changed:
+  private synchronized RegexPatternRule getRegexMatcher() {
+    if (regexMatcher == null || !regexMatcher.getMessage().equals(getMessage()) || !regexMatcher.getSuggestionsOutMsg().equals(getSuggestionsOutMsg())) {
+      regexMatcher = new RegexPatternRule(this.getId(), getDescription(), getMessage(), getSuggestionsOutMsg(), language, regex, regexMark);
     }
-    return Collections.unmodifiableSet(set);
+    return regexMatcher;
   }
 
   List<Integer> getElementNo() {
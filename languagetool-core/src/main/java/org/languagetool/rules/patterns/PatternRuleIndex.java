@@ -0,0 +1,207 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * An inverted index from words and lemmas to the pattern rules that require them,
+ * so that only rules that have a chance to match need to be visited for a sentence.
+ * Each {@link AbstractPatternRule} (e.g. a {@link PatternRule} or a disambiguation rule)
+ * is indexed under one of the words (or, if it has none, lemmas) it needs to match.
+ * A rule without such words can still be indexed if one of its tokens is a regular
+ * expression that is just a list of words, like {@code a|an|the}: it's then indexed under
+ * all of these words, so a single lookup per word of the sentence replaces running those
+ * regular expressions. All other rules are always returned as candidates. The index is
+ * a pre-filter only: callers still need {@link AbstractPatternRule#canBeIgnoredFor(AnalyzedSentence)},
+ * as the sentence might contain the indexed word, but not the rule's other words.
+ * Used internally for performance optimization.
+ * @since 4.4
+ */
+public final class PatternRuleIndex<T extends Rule> {
+
+  private static final String REGEX_SPECIAL_CHARS = "\\.[]{}()*+?^$|";
+
+  private final List<T> rules;
+  private final BitSet alwaysCandidates;
+  private final Map<String,int[]> tokenToRules;
+  private final Map<String,int[]> lemmaToRules;
+
+  public PatternRuleIndex(List<T> rules) {
+    this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    this.alwaysCandidates = new BitSet(rules.size());
+    Map<String,List<Integer>> tokenMap = new HashMap<>();
+    Map<String,List<Integer>> lemmaMap = new HashMap<>();
+    for (int i = 0; i < this.rules.size(); i++) {
+      Rule rule = this.rules.get(i);
+      if (rule instanceof AbstractPatternRule) {
+        AbstractPatternRule patternRule = (AbstractPatternRule) rule;
+        String token = getKey(patternRule.getSimpleRuleTokens());
+        if (token != null) {
+          tokenMap.computeIfAbsent(token, k -> new ArrayList<>()).add(i);
+          continue;
+        }
+        String lemma = getKey(patternRule.getInflectedRuleTokens());
+        if (lemma != null) {
+          lemmaMap.computeIfAbsent(lemma, k -> new ArrayList<>()).add(i);
+          continue;
+        }
+        PatternToken regexToken = getWordListToken(patternRule.getPatternTokens());
+        if (regexToken != null) {
+          Map<String,List<Integer>> map = regexToken.isInflected() ? lemmaMap : tokenMap;
+          for (String word : getWords(regexToken.getString())) {
+            map.computeIfAbsent(word, k -> new ArrayList<>()).add(i);
+          }
+          continue;
+        }
+      }
+      alwaysCandidates.set(i);
+    }
+    this.tokenToRules = toArrayMap(tokenMap);
+    this.lemmaToRules = toArrayMap(lemmaMap);
+  }
+
+  /**
+   * The rules this index has been built from, in their original order.
+   */
+  public List<T> getRules() {
+    return rules;
+  }
+
+  /**
+   * Get the rules that might match the given sentence, in the same order as in
+   * the list this index was built from.
+   */
+  public List<T> getCandidateRules(AnalyzedSentence sentence) {
+    return getCandidateRules(sentence, 0, rules.size());
+  }
+
+  /**
+   * Like {@link #getCandidateRules(AnalyzedSentence)}, but only consider the rules from {@code fromIndex}
+   * (inclusive) to {@code toIndex} (exclusive) of {@link #getRules()}, so that one index can be
+   * used by several threads that each check a part of the rules.
+   * @since 4.4
+   */
+  public List<T> getCandidateRules(AnalyzedSentence sentence, int fromIndex, int toIndex) {
+    if (fromIndex < 0 || toIndex > rules.size() || fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", rules: " + rules.size());
+    }
+    BitSet candidates = getCandidates(sentence);
+    List<T> result = new ArrayList<>();
+    for (int i = candidates.nextSetBit(fromIndex); i >= 0 && i < toIndex; i = candidates.nextSetBit(i + 1)) {
+      result.add(rules.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #getCandidateRules(AnalyzedSentence)}, but get the positions of the rules
+   * in {@link #getRules()}. Useful if the sentence changes while the rules are applied.
+   */
+  public BitSet getCandidates(AnalyzedSentence sentence) {
+    BitSet candidates = (BitSet) alwaysCandidates.clone();
+    addCandidates(candidates, tokenToRules, sentence.getTokenSet());
+    addCandidates(candidates, lemmaToRules, sentence.getLemmaSet());
+    return candidates;
+  }
+
+  private static void addCandidates(BitSet candidates, Map<String,int[]> index, Set<String> words) {
+    if (index.isEmpty()) {
+      return;
+    }
+    for (String word : words) {
+      int[] ruleIndexes = index.get(word);
+      if (ruleIndexes != null) {
+        for (int ruleIndex : ruleIndexes) {
+          candidates.set(ruleIndex);
+        }
+      }
+    }
+  }
+
+  // longer words tend to be rarer, so index each rule under its longest word to keep the candidate lists short:
+  private static String getKey(Set<String> words) {
+    String key = null;
+    for (String word : words) {
+      if (key == null || word.length() > key.length() || (word.length() == key.length() && word.compareTo(key) < 0)) {
+        key = word;
+      }
+    }
+    return key;
+  }
+
+  // the required token with the shortest list of words, as that's the one most likely to rule out a sentence:
+  @Nullable
+  private static PatternToken getWordListToken(@Nullable List<PatternToken> patternTokens) {
+    if (patternTokens == null) {
+      return null;
+    }
+    PatternToken result = null;
+    int resultSize = Integer.MAX_VALUE;
+    for (PatternToken patternToken : patternTokens) {
+      if (patternToken.isRegularExpression() && !patternToken.getNegation() && !patternToken.isReferenceElement()
+              && patternToken.getMinOccurrence() > 0 && !patternToken.hasOrGroup()) {
+        Set<String> words = getWords(patternToken.getString());
+        if (words != null && words.size() < resultSize) {
+          result = patternToken;
+          resultSize = words.size();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the lowercase words of a regular expression like {@code foo|bar}, or {@code null}
+   * if the regular expression is more than a list of words.
+   */
+  @Nullable
+  static Set<String> getWords(@Nullable String regex) {
+    if (regex == null || regex.isEmpty()) {
+      return null;
+    }
+    Set<String> words = new HashSet<>();
+    for (String word : regex.split("\\|", -1)) {
+      if (word.isEmpty()) {
+        return null;
+      }
+      for (int i = 0; i < word.length(); i++) {
+        char c = word.charAt(i);
+        if (REGEX_SPECIAL_CHARS.indexOf(c) != -1 || Character.isWhitespace(c)) {
+          return null;
+        }
+      }
+      words.add(word.toLowerCase());
+    }
+    return words;
+  }
+
+  private static Map<String,int[]> toArrayMap(Map<String,List<Integer>> map) {
+    Map<String,int[]> result = new HashMap<>();
+    for (Map.Entry<String,List<Integer>> entry : map.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+    return result;
+  }
+
+}
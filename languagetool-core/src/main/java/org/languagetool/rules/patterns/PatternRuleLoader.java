@@ -70,7 +70,7 @@ public class PatternRuleLoader extends DefaultHandler {
       SAXParser saxParser = factory.newSAXParser();
       Tools.setPasswordAuthenticator();
       saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-      saxParser.parse(is, handler);
+      XmlRuleSnapshot.parse(is, handler, saxParser);
       return handler.getRules();
     } catch (Exception e) {
       throw new IOException("Cannot load or parse input stream of '" + filename + "'", e);
@@ -21,6 +21,7 @@ package org.languagetool.rules.patterns;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.CancellationToken;
 import org.languagetool.Language;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.RuleMatch;
@@ -47,11 +48,14 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
   private static final String SUGGESTION_START_TAG = "<suggestion>";
   private static final String SUGGESTION_END_TAG = "</suggestion>";
   private static final String MISTAKE = "<mistake/>";
+  private static final RuleMatch[] NO_MATCHES = new RuleMatch[0];
 
   private final boolean useList;
   private final List<PatternTokenMatcher> patternTokenMatchers;
   //private final Integer slowMatchThreshold;
   private final boolean monitorRules;
+  // re-used between calls of match(), so a matcher must not be used by more than one thread at the same time:
+  private final List<Integer> tokenPositions = new ArrayList<>();
 
   PatternRuleMatcher(PatternRule rule, boolean useList) {
     super(rule, rule.getLanguage().getUnifier());
@@ -69,20 +73,22 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     long startTime = System.currentTimeMillis();
-    List<RuleMatch> ruleMatches = new ArrayList<>();
-    String key = rule.getFullId() + ": " + sentence.getText();
+    List<RuleMatch> ruleMatches = null;
+    String key = null;
     if (monitorRules) {
+      key = rule.getFullId() + ": " + sentence.getText();
       currentlyActiveRules.compute(key, (k, v) -> v == null ? 1 : v + 1);
     }
     try {
       AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
-      List<Integer> tokenPositions = new ArrayList<>(tokens.length + 1);
+      resetState();
       int patternSize = patternTokenMatchers.size();
       int limit = Math.max(0, tokens.length - patternSize + 1);
       PatternTokenMatcher pTokenMatcher = null;
       int i = 0;
       int minOccurCorrection = getMinOccurrenceCorrection();
       while (i < limit + minOccurCorrection && !(rule.isSentStart() && i > 0)) {
+        CancellationToken.checkCancelled();
         int skipShiftTotal = 0;
         boolean allElementsMatch = false;
         int firstMatchToken = -1;
@@ -158,11 +164,17 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
           RuleMatch ruleMatch = createRuleMatch(tokenPositions,
             tokens, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken, sentence);
           if (ruleMatch != null) {
+            if (ruleMatches == null) {
+              ruleMatches = new ArrayList<>();
+            }
             ruleMatches.add(ruleMatch);
           }
         }
         i++;
       }
+      if (ruleMatches == null) {
+        return NO_MATCHES;
+      }
       RuleMatchFilter maxFilter = new RuleWithMaxFilter();
       List<RuleMatch> filteredMatches = maxFilter.filter(ruleMatches);
       /*if (slowMatchThreshold != null) {
@@ -178,6 +190,17 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
     }
   }
 
+  // state left over from a previous call of match() must not influence this call:
+  private void resetState() {
+    prevMatched = false;
+    unifiedTokens = null;
+    unifier.reset();
+    tokenPositions.clear();
+    for (PatternTokenMatcher matcher : patternTokenMatchers) {
+      matcher.reset();
+    }
+  }
+
   @Nullable
   private RuleMatch createRuleMatch(List<Integer> tokenPositions,
                                     AnalyzedTokenReadings[] tokens, int firstMatchToken,
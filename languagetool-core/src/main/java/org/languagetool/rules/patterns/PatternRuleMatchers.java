@@ -0,0 +1,43 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.Experimental;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The matchers used by one check, so that each {@link PatternRule} creates its matcher only
+ * once per check instead of once per sentence (see {@link PatternRule#match(org.languagetool.AnalyzedSentence, PatternRuleMatchers)}).
+ * Matchers keep state while matching, so this is not thread-safe: use one instance per thread
+ * and drop it when the check is done. The rules don't reference their matchers, so rules that
+ * aren't used anymore can be garbage collected as usual.
+ * @since 4.4
+ */
+@Experimental
+public final class PatternRuleMatchers {
+
+  private final Map<PatternRule, PatternRuleMatcher> matchers = new IdentityHashMap<>();
+
+  PatternRuleMatcher get(PatternRule rule) {
+    return matchers.computeIfAbsent(rule, PatternRule::createMatcher);
+  }
+
+}
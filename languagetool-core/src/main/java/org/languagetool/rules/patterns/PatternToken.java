@@ -373,8 +373,7 @@ public class PatternToken implements Cloneable {
     }
     boolean match;
     if (posToken.regExp) {
-      Matcher mPos = posToken.posPattern.matcher(token.getPOSTag());
-      match = mPos.matches();
+      match = posToken.posTable.matches(token.getPOSTag(), token.getPOSTagId());
     } else {
       match = posToken.posTag.equals(token.getPOSTag());
     }
@@ -770,7 +769,7 @@ public class PatternToken implements Cloneable {
     private final String posTag;
     private final boolean regExp;
     private final boolean negation;
-    private final Pattern posPattern;
+    private final PosTagMatchTable posTable;
     private final boolean posUnknown;
 
     public PosToken(String posTag, boolean regExp, boolean negation) {
@@ -778,10 +777,10 @@ public class PatternToken implements Cloneable {
       this.regExp = regExp;
       this.negation = negation;
       if (regExp) {
-        posPattern = Pattern.compile(posTag);
-        posUnknown = posPattern.matcher(UNKNOWN_TAG).matches();
+        posTable = PosTagMatchTable.get(posTag);
+        posUnknown = posTable.getPattern().matcher(UNKNOWN_TAG).matches();
       } else {
-        posPattern = null;
+        posTable = null;
         posUnknown = UNKNOWN_TAG.equals(posTag);
       }
     }
@@ -70,6 +70,19 @@ public class PatternTokenMatcher {
     }
   }
 
+  /**
+   * Forget the pattern token resolved by {@link #resolveReference(int, AnalyzedTokenReadings[], Language)}.
+   * @since 4.4
+   */
+  void reset() {
+    patternToken = basePatternToken;
+    if (andGroup != null) {
+      for (PatternTokenMatcher andMatcher : andGroup) {
+        andMatcher.reset();
+      }
+    }
+  }
+
   public PatternToken getPatternToken() {
     return basePatternToken;
   }
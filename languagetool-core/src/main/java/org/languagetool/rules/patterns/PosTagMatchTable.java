@@ -0,0 +1,84 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.tagging.PosTagIds;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * A POS tag regex with a table of the tags (by {@link PosTagIds id}) it has already been
+ * matched against, so that each tag needs to be matched against the regex only once.
+ * There's one table per regex, shared by all pattern tokens that use that regex.
+ * @since 4.4
+ */
+final class PosTagMatchTable {
+
+  private static final ConcurrentMap<String, PosTagMatchTable> tables = new ConcurrentHashMap<>();
+
+  // two bits per tag id: whether the result is known and whether the tag matches
+  private static final int IDS_PER_LONG = 32;
+  private static final long KNOWN = 1;
+  private static final long MATCHES = 2;
+
+  private final Pattern pattern;
+
+  private volatile long[] table = new long[0];
+
+  private PosTagMatchTable(String regex) {
+    this.pattern = Pattern.compile(regex);
+  }
+
+  static PosTagMatchTable get(String regex) {
+    return tables.computeIfAbsent(regex, PosTagMatchTable::new);
+  }
+
+  Pattern getPattern() {
+    return pattern;
+  }
+
+  boolean matches(String posTag, int posTagId) {
+    if (posTagId < 0) {
+      return pattern.matcher(posTag).matches();
+    }
+    long[] table = this.table;
+    int index = posTagId / IDS_PER_LONG;
+    int shift = (posTagId % IDS_PER_LONG) * 2;
+    if (index < table.length) {
+      long bits = table[index] >>> shift;
+      if ((bits & KNOWN) != 0) {
+        return (bits & MATCHES) != 0;
+      }
+    }
+    boolean match = pattern.matcher(posTag).matches();
+    remember(index, shift, match);
+    return match;
+  }
+
+  // copy on write, so readers never need a lock; this only happens once per tag:
+  private synchronized void remember(int index, int shift, boolean match) {
+    long[] newTable = Arrays.copyOf(table, Math.max(table.length, index + 1));
+    newTable[index] |= (match ? KNOWN | MATCHES : KNOWN) << shift;
+    table = newTable;
+  }
+
+}
@@ -48,6 +48,9 @@ class RegexPatternRule extends AbstractPatternRule implements RuleMatcher {
   private final Pattern pattern;
   private final int markGroup;
 
+  // positions of suggestions and back references in the messages, computed on first use:
+  private volatile MessageClauses messageClauses;
+
   RegexPatternRule(String id, String description, String message, String suggestionsOutMsg, Language language, Pattern regex, int regexpMark) {
     super(id, description, language, regex, regexpMark);
     this.message = message;
@@ -63,11 +66,14 @@ class RegexPatternRule extends AbstractPatternRule implements RuleMatcher {
   @Override
   public RuleMatch[] match(AnalyzedSentence sentenceObj) throws IOException {
 
-    List<Pair<Integer, Integer>> suggestionsInMessage = getClausePositionsInMessage(suggestionPattern, message);
-    List<Pair<Integer, Integer>> backReferencesInMessage = getClausePositionsInMessage(matchPattern, message);
+    MessageClauses clauses = getMessageClauses();
+    String message = clauses.message;
+    String suggestionsOutMsg = clauses.suggestionsOutMsg;
+    List<Pair<Integer, Integer>> suggestionsInMessage = clauses.suggestionsInMessage;
+    List<Pair<Integer, Integer>> backReferencesInMessage = clauses.backReferencesInMessage;
 
-    List<Pair<Integer, Integer>> suggestionsInSuggestionsOutMsg = getClausePositionsInMessage(suggestionPattern, suggestionsOutMsg);
-    List<Pair<Integer, Integer>> backReferencesInSuggestionsOutMsg = getClausePositionsInMessage(matchPattern, suggestionsOutMsg);
+    List<Pair<Integer, Integer>> suggestionsInSuggestionsOutMsg = clauses.suggestionsInSuggestionsOutMsg;
+    List<Pair<Integer, Integer>> backReferencesInSuggestionsOutMsg = clauses.backReferencesInSuggestionsOutMsg;
 
 
     Matcher patternMatcher = pattern.matcher(sentenceObj.getText());
@@ -97,8 +103,18 @@ class RegexPatternRule extends AbstractPatternRule implements RuleMatcher {
     return matches.toArray(new RuleMatch[matches.size()]);
   }
 
+  private MessageClauses getMessageClauses() {
+    MessageClauses clauses = messageClauses;
+    // the message can be changed with setMessage(), so check whether it's still the same:
+    if (clauses == null || clauses.message != message || clauses.suggestionsOutMsg != suggestionsOutMsg) {
+      clauses = new MessageClauses(message, suggestionsOutMsg);
+      messageClauses = clauses;
+    }
+    return clauses;
+  }
+
   @NotNull
-  private List<Pair<Integer, Integer>> getClausePositionsInMessage(Pattern pattern, String message) {
+  private static List<Pair<Integer, Integer>> getClausePositionsInMessage(Pattern pattern, String message) {
     Matcher matcher = pattern.matcher(message);
     List<Pair<Integer, Integer>> clausePositionsInMessage = new ArrayList<>();
     while (matcher.find()) {
@@ -162,4 +178,23 @@ class RegexPatternRule extends AbstractPatternRule implements RuleMatcher {
   public String toString() {
     return pattern.toString() + "/flags:" + pattern.flags();
   }
+
+  private static class MessageClauses {
+    private final String message;
+    private final String suggestionsOutMsg;
+    private final List<Pair<Integer, Integer>> suggestionsInMessage;
+    private final List<Pair<Integer, Integer>> backReferencesInMessage;
+    private final List<Pair<Integer, Integer>> suggestionsInSuggestionsOutMsg;
+    private final List<Pair<Integer, Integer>> backReferencesInSuggestionsOutMsg;
+
+    MessageClauses(String message, String suggestionsOutMsg) {
+      this.message = message;
+      this.suggestionsOutMsg = suggestionsOutMsg;
+      suggestionsInMessage = getClausePositionsInMessage(suggestionPattern, message);
+      backReferencesInMessage = getClausePositionsInMessage(matchPattern, message);
+      suggestionsInSuggestionsOutMsg = getClausePositionsInMessage(suggestionPattern, suggestionsOutMsg);
+      backReferencesInSuggestionsOutMsg = getClausePositionsInMessage(matchPattern, suggestionsOutMsg);
+    }
+  }
+
 }
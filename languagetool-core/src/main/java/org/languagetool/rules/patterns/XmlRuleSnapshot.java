@@ -0,0 +1,350 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.Experimental;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.LocatorImpl;
+
+import javax.xml.parsers.SAXParser;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Speeds up loading rule files like {@code grammar.xml} and {@code disambiguation.xml} by keeping
+ * a binary snapshot of their parsed content. Parsing these files (including the expansion of
+ * entities) is a large part of the startup time. The first time a file is loaded, the SAX events
+ * sent to the rule handler are recorded and written to the snapshot directory. Later, even
+ * in other processes, the events are replayed from that file (which is memory-mapped) instead of
+ * parsing the XML again. The snapshot file name is a SHA-256 checksum of the XML, so a changed
+ * rule file never uses an outdated snapshot. Old snapshots are not deleted automatically.
+ * <p>Snapshots are disabled by default. Enable them with {@link #setSnapshotDir(File)} or the
+ * system property {@value #SNAPSHOT_DIR_PROPERTY}. To create them at build time, load the
+ * rules once with the same snapshot directory.
+ * @since 4.4
+ */
+@Experimental
+public final class XmlRuleSnapshot {
+
+  public static final String SNAPSHOT_DIR_PROPERTY = "org.languagetool.rule_snapshot_dir";
+
+  private static final int MAGIC = 0x4c545853;  // "LTXS"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 32;  // magic, version, CRC32 of events, checksum of XML
+
+  private static final byte START_ELEMENT = 1;
+  private static final byte END_ELEMENT = 2;
+  private static final byte CHARACTERS = 3;
+  private static final byte IGNORABLE_WHITESPACE = 4;
+  private static final byte END_DOCUMENT = 5;
+
+  @Nullable
+  private static volatile File snapshotDir = getSnapshotDirFromProperty();
+
+  private XmlRuleSnapshot() {
+  }
+
+  @Nullable
+  private static File getSnapshotDirFromProperty() {
+    String dir = System.getProperty(SNAPSHOT_DIR_PROPERTY);
+    return dir != null && !dir.isEmpty() ? new File(dir) : null;
+  }
+
+  /**
+   * @param dir directory for the snapshot files, will be created if needed, or {@code null} to not use snapshots
+   */
+  public static void setSnapshotDir(@Nullable File dir) {
+    snapshotDir = dir;
+  }
+
+  @Nullable
+  public static File getSnapshotDir() {
+    return snapshotDir;
+  }
+
+  /**
+   * Send the content of {@code xml} to {@code handler}, from a snapshot if there's one for exactly
+   * this content, otherwise by parsing it with {@code parser} (and creating the snapshot).
+   */
+  public static void parse(InputStream xml, DefaultHandler handler, SAXParser parser) throws SAXException, IOException {
+    File dir = snapshotDir;
+    if (dir == null) {
+      parser.parse(xml, handler);
+      return;
+    }
+    byte[] content = ByteStreams.toByteArray(xml);
+    HashCode hash = Hashing.sha256().hashBytes(content);
+    byte[] checksum = hash.asBytes();
+    File snapshotFile = new File(dir, hash + ".bin");
+    if (snapshotFile.isFile()) {
+      ByteBuffer events = readSnapshot(snapshotFile, checksum);
+      if (events != null) {
+        replay(events, handler);
+        return;
+      }
+    }
+    Recorder recorder = new Recorder(handler);
+    parser.parse(new ByteArrayInputStream(content), recorder);
+    try {
+      writeSnapshot(snapshotFile, checksum, recorder.getEvents());
+    } catch (IOException e) {
+      // the snapshot is just an optimization, so we can work without it:
+      System.err.println("Could not write rule snapshot " + snapshotFile + ": " + e);
+    }
+  }
+
+  /**
+   * @return the events of a valid snapshot, or {@code null}
+   */
+  @Nullable
+  private static ByteBuffer readSnapshot(File snapshotFile, byte[] checksum) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        return null;
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      return null;
+    }
+    long eventsCrc = buffer.getLong();
+    byte[] snapshotChecksum = new byte[checksum.length];
+    buffer.get(snapshotChecksum);
+    ByteBuffer events = buffer.slice();
+    CRC32 crc = new CRC32();
+    crc.update(events.duplicate());
+    if (!Arrays.equals(checksum, snapshotChecksum) || crc.getValue() != eventsCrc) {
+      return null;  // e.g. a truncated file
+    }
+    return events;
+  }
+
+  private static void writeSnapshot(File snapshotFile, byte[] checksum, byte[] events) throws IOException {
+    File dir = snapshotFile.getParentFile();
+    Files.createDirectories(dir.toPath());
+    CRC32 crc = new CRC32();
+    crc.update(events);
+    File tempFile = File.createTempFile("snapshot", ".tmp", dir);
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(crc.getValue());
+        out.write(checksum);
+        out.write(events);
+      }
+      // other processes may create the same snapshot at the same time, but they only ever see a complete file:
+      try {
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  private static void replay(ByteBuffer events, DefaultHandler handler) throws SAXException {
+    List<String> strings = new ArrayList<>();
+    LocatorImpl locator = new LocatorImpl();
+    handler.setDocumentLocator(locator);
+    handler.startDocument();
+    AttributesImpl attributes = new AttributesImpl();
+    byte type;
+    while ((type = events.get()) != END_DOCUMENT) {
+      locator.setLineNumber(events.getInt());
+      locator.setColumnNumber(events.getInt());
+      if (type == START_ELEMENT) {
+        String uri = readString(events, strings);
+        String localName = readString(events, strings);
+        String qName = readString(events, strings);
+        attributes.clear();
+        int attributeCount = events.getInt();
+        for (int i = 0; i < attributeCount; i++) {
+          attributes.addAttribute(readString(events, strings), readString(events, strings), readString(events, strings),
+                  readString(events, strings), readString(events, strings));
+        }
+        handler.startElement(uri, localName, qName, attributes);
+      } else if (type == END_ELEMENT) {
+        handler.endElement(readString(events, strings), readString(events, strings), readString(events, strings));
+      } else if (type == CHARACTERS || type == IGNORABLE_WHITESPACE) {
+        char[] chars = readString(events, strings).toCharArray();
+        if (type == CHARACTERS) {
+          handler.characters(chars, 0, chars.length);
+        } else {
+          handler.ignorableWhitespace(chars, 0, chars.length);
+        }
+      } else {
+        throw new IllegalStateException("Unknown event type in rule snapshot: " + type);
+      }
+    }
+    handler.endDocument();
+  }
+
+  // strings are stored only once, later occurrences refer to the first one by index:
+  private static String readString(ByteBuffer events, List<String> strings) {
+    int index = events.getInt();
+    if (index < strings.size()) {
+      return strings.get(index);
+    }
+    byte[] bytes = new byte[events.getInt()];
+    events.get(bytes);
+    String s = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(s);
+    return s;
+  }
+
+  /**
+   * Forwards all events to the actual handler and records them.
+   */
+  private static class Recorder extends DefaultHandler {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final DefaultHandler handler;
+    private Locator locator;
+
+    Recorder(DefaultHandler handler) {
+      this.handler = handler;
+    }
+
+    byte[] getEvents() {
+      return out.toByteArray();
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+      this.locator = locator;
+      handler.setDocumentLocator(locator);
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+      handler.startDocument();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+      startEvent(START_ELEMENT);
+      writeString(uri);
+      writeString(localName);
+      writeString(qName);
+      writeInt(attributes.getLength());
+      for (int i = 0; i < attributes.getLength(); i++) {
+        writeString(attributes.getURI(i));
+        writeString(attributes.getLocalName(i));
+        writeString(attributes.getQName(i));
+        writeString(attributes.getType(i));
+        writeString(attributes.getValue(i));
+      }
+      handler.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+      startEvent(END_ELEMENT);
+      writeString(uri);
+      writeString(localName);
+      writeString(qName);
+      handler.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+      startEvent(CHARACTERS);
+      writeString(new String(ch, start, length));
+      handler.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+      startEvent(IGNORABLE_WHITESPACE);
+      writeString(new String(ch, start, length));
+      handler.ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+      out.write(END_DOCUMENT);
+      handler.endDocument();
+    }
+
+    @Override
+    public void warning(SAXParseException e) throws SAXException {
+      handler.warning(e);
+    }
+
+    @Override
+    public void error(SAXParseException e) throws SAXException {
+      handler.error(e);
+    }
+
+    @Override
+    public void fatalError(SAXParseException e) throws SAXException {
+      handler.fatalError(e);
+    }
+
+    private void startEvent(byte type) {
+      out.write(type);
+      writeInt(locator != null ? locator.getLineNumber() : -1);
+      writeInt(locator != null ? locator.getColumnNumber() : -1);
+    }
+
+    private void writeString(String s) {
+      Integer index = stringIndexes.get(s);
+      if (index != null) {
+        writeInt(index);
+      } else {
+        writeInt(stringIndexes.size());
+        stringIndexes.put(s, stringIndexes.size());
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(utf8.length);
+        out.write(utf8, 0, utf8.length);
+      }
+    }
+
+    private void writeInt(int i) {
+      out.write(i >>> 24);
+      out.write(i >>> 16);
+      out.write(i >>> 8);
+      out.write(i);
+    }
+  }
+
+}
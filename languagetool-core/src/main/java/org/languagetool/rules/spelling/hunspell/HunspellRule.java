@@ -122,6 +122,7 @@ public class HunspellRule extends SpellingCheckRule {
         len += word.length() + 1;
         continue;
       }
+      CancellationToken.checkCancelled();
       if (isMisspelled(word)) {
         RuleMatch ruleMatch = new RuleMatch(this, sentence,
             len, len + word.length(),
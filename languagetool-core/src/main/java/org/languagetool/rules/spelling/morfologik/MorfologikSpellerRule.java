@@ -105,6 +105,7 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
     int idx = -1;
     for (AnalyzedTokenReadings token : tokens) {
       idx++;
+      CancellationToken.checkCancelled();
       if (canBeIgnored(tokens, idx, token)) {
         continue;
       }
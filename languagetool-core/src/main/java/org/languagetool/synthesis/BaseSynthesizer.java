@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import morfologik.stemming.Dictionary;
@@ -40,7 +42,10 @@ public class BaseSynthesizer implements Synthesizer {
 
   private final String tagFileName;
   private final String resourceFileName;
-  private final IStemmer stemmer;
+  // the stemmer is not thread-safe, so each thread gets its own:
+  private final ThreadLocal<IStemmer> stemmer = ThreadLocal.withInitial(this::createStemmer);
+  // POS tag regex -> the tags from possibleTags that match it:
+  private final ConcurrentMap<String, List<String>> tagsForRegex = new ConcurrentHashMap<>();
 
   private volatile Dictionary dictionary;
 
@@ -51,7 +56,6 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(String resourceFileName, String tagFileName) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
   }
 
   /**
@@ -75,7 +79,7 @@ public class BaseSynthesizer implements Synthesizer {
 
   /**
    * Creates a new {@link IStemmer} based on the configured {@link #getDictionary() dictionary}.
-   * The result must not be shared among threads.
+   * The result must not be shared among threads. Called once per thread by {@link #getStemmer()}.
    * @since 2.3
    */
   protected IStemmer createStemmer() {
@@ -93,11 +97,9 @@ public class BaseSynthesizer implements Synthesizer {
    * @param results the list to collect the inflected forms.
    */
   protected void lookup(String lemma, String posTag, List<String> results) {
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
-      }
+    List<WordData> wordForms = getStemmer().lookup(lemma + "|" + posTag);
+    for (WordData wd : wordForms) {
+      results.add(wd.getStem().toString());
     }
   }
 
@@ -119,14 +121,9 @@ public class BaseSynthesizer implements Synthesizer {
   public String[] synthesize(AnalyzedToken token, String posTag,
       boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p = Pattern.compile(posTag);
       List<String> results = new ArrayList<>();
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
+      for (String tag : getMatchingTags(posTag)) {
+        lookup(token.getLemma(), tag, results);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -138,12 +135,37 @@ public class BaseSynthesizer implements Synthesizer {
     return posTag;
   }
 
+  /**
+   * Get the tags from the {@link #initPossibleTags() possible tags} that match the given regular expression.
+   * The result is cached, so {@link #possibleTags} must not change after {@link #initPossibleTags()} has been called.
+   * @param posTagRegex a regular expression for part-of-speech tags
+   * @return the matching tags, in the order of {@link #possibleTags}
+   * @since 4.4
+   */
+  protected List<String> getMatchingTags(String posTagRegex) throws IOException {
+    List<String> tags = tagsForRegex.get(posTagRegex);
+    if (tags == null) {
+      initPossibleTags();
+      Pattern p = Pattern.compile(posTagRegex);
+      List<String> matchingTags = new ArrayList<>();
+      for (String tag : possibleTags) {
+        if (p.matcher(tag).matches()) {
+          matchingTags.add(tag);
+        }
+      }
+      tags = Collections.unmodifiableList(matchingTags);
+      tagsForRegex.putIfAbsent(posTagRegex, tags);
+    }
+    return tags;
+  }
+
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used. Since 4.4, this is a stemmer for the current
+   *   thread only, so it must not be passed on to other threads.
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return stemmer.get();
   }
 
   protected void initPossibleTags() throws IOException {
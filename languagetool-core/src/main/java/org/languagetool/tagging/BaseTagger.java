@@ -41,6 +41,9 @@ import org.languagetool.tools.StringTools;
  */
 public abstract class BaseTagger implements Tagger {
 
+  // number of words per dictionary whose tags are cached, 0 means no caching:
+  private static final long WORD_CACHE_SIZE = Long.getLong("org.languagetool.tagger_cache_size", 0);
+
   protected final WordTagger wordTagger;
   protected final Locale conversionLocale;
 
@@ -109,7 +112,7 @@ public abstract class BaseTagger implements Tagger {
   }
 
   private WordTagger initWordTagger() {
-    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary);
+    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary, WORD_CACHE_SIZE);
     try {
       String manualRemovalFileName = getManualRemovalsFileName();
       ManualTagger removalTagger = null;
@@ -155,7 +158,7 @@ public abstract class BaseTagger implements Tagger {
     boolean isLowercase = word.equals(lowerWord);
     boolean isMixedCase = StringTools.isMixedCase(word);
     List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
-    List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+    List<AnalyzedToken> lowerTaggerTokens = isLowercase ? taggerTokens : asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
     //normal case:
     addTokens(taggerTokens, result);
     //tag non-lowercase (alluppercase or startuppercase), but not mixedcase word with lowercase word tags:
@@ -18,15 +18,17 @@
  */
 package org.languagetool.tagging;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
-import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
 import org.languagetool.JLanguageTool;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,15 +39,21 @@ import java.util.Objects;
 public class MorfologikTagger implements WordTagger {
 
   private final URL dictUrl;
+  // DictionaryLookup re-uses its buffers and WordData objects between lookups, so it's
+  // not thread-safe, but it's cheap to keep one per thread:
+  private final ThreadLocal<DictionaryLookup> dictLookup = ThreadLocal.withInitial(() -> new DictionaryLookup(getDictionary()));
+  private final Cache<String, List<TaggedWord>> cache;
 
-  private Dictionary dictionary;
+  private volatile Dictionary dictionary;
 
   public MorfologikTagger(String dictPath) {
     dictUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(Objects.requireNonNull(dictPath));
+    cache = null;
   }
 
   MorfologikTagger(URL dictUrl) {
     this.dictUrl = Objects.requireNonNull(dictUrl);
+    cache = null;
   }
   
   /**
@@ -53,36 +61,70 @@ public class MorfologikTagger implements WordTagger {
    * @since 3.4
    */
   public MorfologikTagger(Dictionary dictionary) {
+    this(dictionary, 0);
+  }
+
+  /**
+   * Constructs a MorfologikTagger with the given morfologik dictionary and a cache
+   * for the tags of the most recently used words.
+   * @param cacheSize maximum number of words in the cache, {@code 0} to not use a cache
+   * @since 4.4
+   */
+  public MorfologikTagger(Dictionary dictionary, long cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must be >= 0: " + cacheSize);
+    }
     this.dictUrl = null;
-    this.dictionary = dictionary;
+    this.dictionary = Objects.requireNonNull(dictionary);
+    this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).build() : null;
   }
 
-  private synchronized Dictionary getDictionary() throws IOException {
-    if (dictionary == null) {
-      dictionary = Dictionary.read(dictUrl);
+  private Dictionary getDictionary() {
+    Dictionary dict = dictionary;
+    if (dict == null) {
+      synchronized (this) {
+        dict = dictionary;
+        if (dict == null) {
+          try {
+            dict = Dictionary.read(dictUrl);
+          } catch (IOException e) {
+            throw new RuntimeException("Could not load dictionary from " + dictUrl, e);
+          }
+          dictionary = dict;
+        }
+      }
     }
-    return dictionary;
+    return dict;
   }
 
   @Override
   public List<TaggedWord> tag(String word) {
-    List<TaggedWord> result = new ArrayList<>();
-    try {
-      IStemmer dictLookup = new DictionaryLookup(getDictionary());
-      List<WordData> lookup = dictLookup.lookup(word);
-      for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
-        // Remove frequency data from tags (if exists)
-        // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
-        }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
-        TaggedWord taggedWord = new TaggedWord(stem, tag);
-        result.add(taggedWord);
+    if (cache != null) {
+      List<TaggedWord> cachedResult = cache.getIfPresent(word);
+      if (cachedResult == null) {
+        cachedResult = Collections.unmodifiableList(lookup(word));
+        cache.put(word, cachedResult);
+      }
+      // callers may modify the result:
+      return new ArrayList<>(cachedResult);
+    }
+    return lookup(word);
+  }
+
+  private List<TaggedWord> lookup(String word) {
+    boolean frequencyIncluded = getDictionary().metadata.isFrequencyIncluded();
+    List<WordData> lookup = dictLookup.get().lookup(word);
+    List<TaggedWord> result = new ArrayList<>(lookup.size());
+    for (WordData wordData : lookup) {
+      String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
+      // Remove frequency data from tags (if exists)
+      // The frequency data is in the last byte (without a separator)
+      if (frequencyIncluded && tag != null && tag.length() > 1) {
+        tag = tag.substring(0, tag.length() - 1);
       }
-    } catch (IOException e) {
-      throw new RuntimeException("Could not tag word '" + word + "'", e);
+      String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+      TaggedWord taggedWord = new TaggedWord(stem, tag);
+      result.add(taggedWord);
     }
     return result;
   }
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.languagetool.Experimental;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps part-of-speech tags to small integer ids, so that rules can look up per-tag
+ * results (e.g. whether a POS regex matches) in tables instead of matching the tag
+ * again and again. The tags of all languages share the ids. As tag sets are small,
+ * this is expected to stay small; if there are more than {@link #MAX_IDS} different tags,
+ * {@link #getId(String)} returns {@link #NO_ID} for new ones.
+ * @since 4.4
+ */
+@Experimental
+public final class PosTagIds {
+
+  public static final int MAX_IDS = 1 << 16;
+  public static final int NO_ID = -1;
+
+  private static final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  private PosTagIds() {
+  }
+
+  /**
+   * @return the id of {@code posTag}, a value from {@code 0} to {@code MAX_IDS - 1}, or {@link #NO_ID}
+   */
+  public static int getId(String posTag) {
+    Integer id = ids.get(posTag);
+    if (id == null) {
+      synchronized (ids) {
+        if (ids.size() >= MAX_IDS && !ids.containsKey(posTag)) {
+          return NO_ID;
+        }
+        // ids are assigned under the lock, so they are unique and without gaps:
+        id = ids.computeIfAbsent(posTag, k -> ids.size());
+      }
+    }
+    return id;
+  }
+
+  /**
+   * The number of tags that have an id.
+   */
+  public static int size() {
+    return ids.size();
+  }
+
+}
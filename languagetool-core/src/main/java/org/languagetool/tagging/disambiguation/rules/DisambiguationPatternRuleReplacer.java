@@ -41,6 +41,9 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
 
   private final List<Boolean> pTokensMatched;
 
+  // whether readings have been added to or removed from a token in place:
+  private boolean readingsChanged;
+
   DisambiguationPatternRuleReplacer(DisambiguationPatternRule rule) {
     super(rule, rule.getLanguage().getDisambiguationUnifier());
     pTokensMatched = new ArrayList<>(rule.getPatternTokens().size());
@@ -134,18 +137,32 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
       if (allElementsMatch && matchingTokens == patternSize || matchingTokens == patternSize - minOccurSkip && firstMatchToken != -1) {
         boolean keepMatch = keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken);
         if (keepMatch) {
-          whTokens = executeAction(sentence, whTokens, unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
-          changed = true;
+          AnalyzedTokenReadings[] newTokens = executeAction(sentence, whTokens, unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
+          if (readingsChanged || hasReplacedTokens(whTokens, newTokens)) {
+            changed = true;
+          }
+          whTokens = newTokens;
         }
       }
       i++;
     }
+    // immunizing a token or ignoring its spelling doesn't count as a change: it happens
+    // in place and doesn't affect the words and lemmas the sentence has cached
     if (changed) {
       return new AnalyzedSentence(whTokens);
     }
     return sentence;
   }
 
+  private static boolean hasReplacedTokens(AnalyzedTokenReadings[] oldTokens, AnalyzedTokenReadings[] newTokens) {
+    for (int i = 0; i < oldTokens.length; i++) {
+      if (oldTokens[i] != newTokens[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean keepDespiteFilter(AnalyzedTokenReadings[] tokens, int[] tokenPositions, int firstMatchToken, int lastMatchToken) {
     RuleFilter filter = rule.getFilter();
     if (filter != null) {
@@ -269,6 +286,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
             String prevValue = whTokens[position].toString();
             String prevAnot = whTokens[position].getHistoricalAnnotations();
             whTokens[position].removeReading(newTokenReadings[i]);
+            readingsChanged = true;
             annotateChange(whTokens[position], prevValue, prevAnot);
           }
         }
@@ -284,6 +302,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
               String prevValue = whTokens[position].toString();
               String prevAnot = whTokens[position].getHistoricalAnnotations();
               whTokens[position].removeReading(analyzedToken);
+              readingsChanged = true;
               annotateChange(whTokens[position], prevValue, prevAnot);
             }
           }
@@ -313,6 +332,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
             String prevValue = whTokens[position].toString();
             String prevAnot = whTokens[position].getHistoricalAnnotations();
             whTokens[position].addReading(newTok);
+            readingsChanged = true;
             annotateChange(whTokens[position], prevValue, prevAnot);
           }
         }
@@ -18,6 +18,7 @@
  */
 package org.languagetool.tagging.disambiguation.rules;
 
+import org.languagetool.rules.patterns.XmlRuleSnapshot;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -43,7 +44,7 @@ public class DisambiguationRuleLoader extends DefaultHandler {
     SAXParserFactory factory = SAXParserFactory.newInstance();
     SAXParser saxParser = factory.newSAXParser();
     Tools.setPasswordAuthenticator();
-    saxParser.parse(stream, handler);
+    XmlRuleSnapshot.parse(stream, handler, saxParser);
     return handler.getDisambRules();
   }
 
@@ -20,6 +20,7 @@
 package org.languagetool.tagging.disambiguation.rules;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -28,6 +29,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.tagging.disambiguation.AbstractDisambiguator;
 import org.xml.sax.SAXException;
 
@@ -41,13 +43,13 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
 
   private static final String DISAMBIGUATION_FILE = "disambiguation.xml";
 
-  private final List<DisambiguationPatternRule> disambiguationRules;
+  private final PatternRuleIndex<DisambiguationPatternRule> ruleIndex;
 
   public XmlRuleDisambiguator(Language language) {
     Objects.requireNonNull(language);
     String disambiguationFile = language.getShortCode() + "/" + DISAMBIGUATION_FILE;
     try {
-      disambiguationRules = loadPatternRules(disambiguationFile);
+      ruleIndex = new PatternRuleIndex<>(loadPatternRules(disambiguationFile));
     } catch (Exception e) {
       throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e);
     }
@@ -56,8 +58,19 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
   @Override
   public AnalyzedSentence disambiguate(AnalyzedSentence input) throws IOException {
     AnalyzedSentence sentence = input;
-    for (DisambiguationPatternRule patternRule : disambiguationRules) {
-      sentence = patternRule.replace(sentence);
+    List<DisambiguationPatternRule> rules = ruleIndex.getRules();
+    BitSet candidates = ruleIndex.getCandidates(sentence);
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      DisambiguationPatternRule patternRule = rules.get(i);
+      if (patternRule.canBeIgnoredFor(sentence)) {
+        continue;
+      }
+      AnalyzedSentence newSentence = patternRule.replace(sentence);
+      if (newSentence != sentence) {
+        // the rule might have added words or lemmas that later rules need:
+        sentence = newSentence;
+        candidates = ruleIndex.getCandidates(sentence);
+      }
     }
     return sentence;
   }
@@ -18,6 +18,7 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.languagetool.JLanguageTool;
@@ -30,6 +31,7 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
@@ -68,23 +70,10 @@ public class RuleMatchesAsJsonSerializer {
    */
   public String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                   Language lang, Language detectedLang, String incompleteResultsReason) {
-    ContextTools contextTools = new ContextTools();
-    contextTools.setEscapeHtml(false);
-    contextTools.setContextSize(contextSize);
-    contextTools.setErrorMarkerStart(START_MARKER);
-    contextTools.setErrorMarkerEnd("");
     StringWriter sw = new StringWriter();
     try {
       try (JsonGenerator g = factory.createGenerator(sw)) {
-        g.writeStartObject();
-        writeSoftwareSection(g);
-        writeWarningsSection(g, incompleteResultsReason);
-        writeLanguageSection(g, lang, detectedLang);
-        writeMatchesSection("matches", g, matches, text, contextTools);
-        if (hiddenMatches != null && hiddenMatches.size() > 0) {
-          writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
-        }
-        g.writeEndObject();
+        writeJson(g, matches, hiddenMatches, text, contextSize, lang, detectedLang, incompleteResultsReason);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -92,6 +81,58 @@ public class RuleMatchesAsJsonSerializer {
     return sw.toString();
   }
 
+  /**
+   * Like {@link #ruleMatchesToJson(List, List, AnnotatedText, int, Language, Language, String)}, but
+   * writes the JSON as UTF-8 directly to {@code out} instead of creating a string first, so that large
+   * results don't need to be kept in memory. {@code out} is flushed, but not closed.
+   * @since 4.4
+   */
+  public void ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                Language lang, Language detectedLang, String incompleteResultsReason, OutputStream out) throws IOException {
+    try (JsonGenerator g = factory.createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      writeJson(g, matches, hiddenMatches, text, contextSize, lang, detectedLang, incompleteResultsReason);
+    }
+    out.flush();
+  }
+
+  /**
+   * Write only the given matches as a JSON array, in the same format as the elements of
+   * the {@code matches} section of the complete result. Useful to send matches as
+   * soon as they have been found. {@code out} is flushed, but not closed.
+   * @since 4.4
+   */
+  public void ruleMatchesToJson(List<RuleMatch> matches, AnnotatedText text, int contextSize, OutputStream out) throws IOException {
+    try (JsonGenerator g = factory.createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      writeMatches(g, matches, text, getContextTools(contextSize));
+    }
+    out.flush();
+  }
+
+  private void writeJson(JsonGenerator g, List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                         Language lang, Language detectedLang, String incompleteResultsReason) throws IOException {
+    ContextTools contextTools = getContextTools(contextSize);
+    g.writeStartObject();
+    writeSoftwareSection(g);
+    writeWarningsSection(g, incompleteResultsReason);
+    writeLanguageSection(g, lang, detectedLang);
+    writeMatchesSection("matches", g, matches, text, contextTools);
+    if (hiddenMatches != null && hiddenMatches.size() > 0) {
+      writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
+    }
+    g.writeEndObject();
+  }
+
+  private ContextTools getContextTools(int contextSize) {
+    ContextTools contextTools = new ContextTools();
+    contextTools.setEscapeHtml(false);
+    contextTools.setContextSize(contextSize);
+    contextTools.setErrorMarkerStart(START_MARKER);
+    contextTools.setErrorMarkerEnd("");
+    return contextTools;
+  }
+
   private void writeSoftwareSection(JsonGenerator g) throws IOException {
     g.writeObjectFieldStart("software");
     g.writeStringField("name", "LanguageTool");
@@ -131,7 +172,12 @@ public class RuleMatchesAsJsonSerializer {
   }
 
   private void writeMatchesSection(String sectionName, JsonGenerator g, List<RuleMatch> matches, AnnotatedText text, ContextTools contextTools) throws IOException {
-    g.writeArrayFieldStart(sectionName);
+    g.writeFieldName(sectionName);
+    writeMatches(g, matches, text, contextTools);
+  }
+
+  private void writeMatches(JsonGenerator g, List<RuleMatch> matches, AnnotatedText text, ContextTools contextTools) throws IOException {
+    g.writeStartArray();
     for (RuleMatch match : matches) {
       g.writeStartObject();
       g.writeStringField("message", cleanSuggestion(match.getMessage()));
@@ -21,8 +21,7 @@ package org.languagetool;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.*;
 
 public class AnalyzedSentenceTest {
 
@@ -53,4 +52,18 @@ public class AnalyzedSentenceTest {
     assertNotEquals(sentence, copySentence);
   }
 
+  @Test
+  public void testCopyTokensWithoutWhitespace() {
+    AnalyzedTokenReadings[] words = new AnalyzedTokenReadings[4];
+    words[0] = new AnalyzedTokenReadings(new AnalyzedToken("", "SENT_START", null));
+    words[1] = new AnalyzedTokenReadings(new AnalyzedToken("word", "POS", "lemma"));
+    words[2] = new AnalyzedTokenReadings(new AnalyzedToken(" ", null, null));
+    words[3] = new AnalyzedTokenReadings(new AnalyzedToken("word", "POS", "lemma"));
+    AnalyzedSentence sentence = new AnalyzedSentence(words);
+    AnalyzedSentence copySentence = sentence.copy(sentence);
+    copySentence.getTokens()[3].immunize();
+    assertTrue(copySentence.getTokensWithoutWhitespace()[2].isImmunized());
+    assertFalse(sentence.getTokensWithoutWhitespace()[2].isImmunized());
+  }
+
 }
@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class CancellationTokenTest {
+
+  private static final AnnotatedText TEXT = new AnnotatedTextBuilder().addText("This is a test. This is another test. And one more.").build();
+
+  @Test
+  public void testCancel() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    CancellationToken token = new CancellationToken();
+    CancellingRule rule = new CancellingRule(token);
+    lt.addRule(rule);
+    try {
+      lt.check(TEXT, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, token);
+      fail();
+    } catch (CheckCancelledException expected) {
+      assertTrue(token.isCancelled());
+    }
+    assertThat(rule.calls.get(), is(1));  // the other sentences have not been checked
+
+    // the token only applies to the check it was used for:
+    lt.check(TEXT, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL);
+    assertTrue(rule.calls.get() > 2);
+    CancellationToken.checkCancelled();  // no token set for this thread anymore
+  }
+
+  @Test
+  public void testCancelMultiThreaded() throws IOException {
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(TestTools.getDemoLanguage());
+    try {
+      CancellationToken token = new CancellationToken();
+      lt.addRule(new CancellingRule(token));
+      try {
+        lt.check(TEXT, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, token);
+        fail();
+      } catch (CheckCancelledException expected) {
+        assertTrue(token.isCancelled());
+      }
+    } finally {
+      lt.shutdown();
+    }
+  }
+
+  @Test
+  public void testInterrupt() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    CancellationToken token = new CancellationToken();
+    Thread.currentThread().interrupt();
+    try {
+      lt.check(TEXT, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, token);
+      fail();
+    } catch (CheckCancelledException expected) {
+      assertTrue(token.isCancelled());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  static class CancellingRule extends Rule {
+    private final CancellationToken token;
+    private final AtomicInteger calls = new AtomicInteger();
+    CancellingRule(CancellationToken token) {
+      this.token = token;
+    }
+    @Override
+    public String getId() {
+      return "CANCELLING_RULE";
+    }
+    @Override
+    public String getDescription() {
+      return "Cancels the check when called";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) {
+      calls.incrementAndGet();
+      token.cancel();
+      return new RuleMatch[0];
+    }
+  }
+
+}
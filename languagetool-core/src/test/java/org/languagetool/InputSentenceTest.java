@@ -23,6 +23,7 @@ import org.languagetool.rules.CategoryId;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -57,4 +58,19 @@ public class InputSentenceTest {
     assertNotEquals(inputSentence1a, inputSentence1aOtherMode);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testConfigFingerprint() {
+    Language lang = Languages.getLanguageForShortCode("xx-XX");
+    Set<String> disabledRules = new HashSet<>(Arrays.asList("ID1"));
+    ConfigFingerprint config1 = ConfigFingerprint.of(lang, null, disabledRules, new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig());
+    ConfigFingerprint config2 = ConfigFingerprint.of(lang, null, new HashSet<>(Arrays.asList("ID1")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig());
+    assertSame(config1, config2);  // equal configurations share one instance
+    disabledRules.add("ID2");  // doesn't affect the fingerprint
+    assertEquals(new InputSentence("foo", config1, JLanguageTool.Mode.ALL),
+                 new InputSentence("foo", lang, null, new HashSet<>(Arrays.asList("ID1")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig(), JLanguageTool.Mode.ALL));
+    ConfigFingerprint config3 = ConfigFingerprint.of(lang, null, disabledRules, new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig());
+    assertNotEquals(config1, config3);
+    assertNotEquals(new InputSentence("foo", config1, JLanguageTool.Mode.ALL), new InputSentence("foo", config3, JLanguageTool.Mode.ALL));
+  }
+
+}
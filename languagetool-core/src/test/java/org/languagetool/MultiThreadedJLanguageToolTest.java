@@ -18,6 +18,7 @@
  */
 package org.languagetool;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.junit.Test;
 import org.languagetool.language.Demo;
 import org.languagetool.rules.MultipleWhitespaceRule;
@@ -25,6 +26,8 @@ import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.UppercaseSentenceStartRule;
 import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternToken;
 
 import java.io.IOException;
 import java.util.*;
@@ -33,6 +36,7 @@ import java.util.concurrent.RejectedExecutionException;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @SuppressWarnings("ResultOfObjectAllocationIgnored")
@@ -52,6 +56,77 @@ public class MultiThreadedJLanguageToolTest {
     assertEquals(ruleMatchIds1, ruleMatchIds2);
   }
   
+  @Test
+  public void testCheckWithSentenceSplit() throws IOException {
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo());
+    lt1.setCleanOverlappingMatches(false);
+    lt1.setSplitMode(MultiThreadedJLanguageTool.SplitMode.SENTENCES);
+    List<String> ruleMatchIds1 = getRuleMatchIds(lt1);
+    lt1.shutdown();
+
+    JLanguageTool lt2 = new JLanguageTool(new Demo());
+    lt2.setCleanOverlappingMatches(false);
+    List<String> ruleMatchIds2 = getRuleMatchIds(lt2);
+    assertEquals(ruleMatchIds2, ruleMatchIds1);
+
+    MultiThreadedJLanguageTool lt3 = new MultiThreadedJLanguageTool(new Demo(), 2);
+    lt3.setSplitMode(MultiThreadedJLanguageTool.SplitMode.SENTENCES);
+    String text = "A small toast. No error here.\n\nFoo go bar. First goes last there, please!";
+    List<RuleMatch> matches3 = lt3.check(text);
+    lt3.shutdown();
+    List<RuleMatch> matches4 = new JLanguageTool(new Demo()).check(text);
+    assertEquals(matches4.size(), matches3.size());
+    for (int i = 0; i < matches4.size(); i++) {
+      assertThat(matches3.get(i).getFromPos(), is(matches4.get(i).getFromPos()));
+      assertThat(matches3.get(i).getLine(), is(matches4.get(i).getLine()));
+      assertThat(matches3.get(i).getColumn(), is(matches4.get(i).getColumn()));
+    }
+  }
+
+  @Test
+  public void testAddRuleAfterCheck() throws IOException {
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new Demo(), 3);
+    lt.setCleanOverlappingMatches(false);
+    List<String> ruleMatchIds1 = getRuleMatchIds(lt);
+    PatternRule rule = new PatternRule("ADDED_RULE", new Demo(),
+            Collections.singletonList(new PatternToken("toast", false, false, false)), "desc", "msg", "short");
+    lt.addRule(rule);
+    List<String> ruleMatchIds2 = getRuleMatchIds(lt);
+    lt.shutdown();
+    assertThat(ruleMatchIds2.size(), is(ruleMatchIds1.size() + 1));
+    assertTrue(ruleMatchIds2.contains("ADDED_RULE"));
+  }
+
+  @Test
+  public void testErrorRateWithSentenceSplit() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append("This sentence has no problems at all in it. ");
+    }
+    String errorSentence = "error error error error error error error error error error. ";
+    for (int i = 0; i < 6; i++) {
+      text.append(errorSentence);
+    }
+    for (MultiThreadedJLanguageTool.SplitMode splitMode : MultiThreadedJLanguageTool.SplitMode.values()) {
+      // one thread, so the blocks are checked in the order of the text:
+      MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new ErrorWordLanguage(), 1);
+      lt.setSplitMode(splitMode);
+      lt.setMaxErrorsPerWordRate(0.3f);
+      try {
+        // the last block of sentences has a higher error rate, but the text so far doesn't:
+        assertThat(splitMode.toString(), lt.check(text.toString()).size(), is(60));
+        try {
+          lt.check(String.join("", Collections.nCopies(6, errorSentence)));
+          fail("Expected ErrorRateTooHighException in " + splitMode);
+        } catch (RuntimeException e) {
+          assertTrue(splitMode + ": " + e, ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException);
+        }
+      } finally {
+        lt.shutdown();
+      }
+    }
+  }
+
   @Test
   public void testShutdownException() throws IOException {
     MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo());
@@ -61,6 +136,13 @@ public class MultiThreadedJLanguageToolTest {
       getRuleMatchIds(tool);
       fail("should have been rejected as the thread pool has been shut down");
     } catch (RejectedExecutionException ignore) {}
+    tool = new MultiThreadedJLanguageTool(new Demo());
+    tool.setSplitMode(MultiThreadedJLanguageTool.SplitMode.SENTENCES);
+    tool.shutdown();
+    try {
+      getRuleMatchIds(tool);
+      fail("should have been rejected as the thread pool has been shut down");
+    } catch (RejectedExecutionException ignore) {}
   }
   
   @Test
@@ -113,6 +195,18 @@ public class MultiThreadedJLanguageToolTest {
     lt.shutdown();
   }
 
+  private static class ErrorWordLanguage extends FakeLanguage {
+    @Override
+    protected synchronized List<AbstractPatternRule> getPatternRules() {
+      return Collections.emptyList();
+    }
+    @Override
+    public List<Rule> getRelevantRules(ResourceBundle messages, UserConfig userConfig, List<Language> altLanguages) {
+      return Collections.singletonList(new PatternRule("ERROR_WORD", this,
+              Collections.singletonList(new PatternToken("error", false, false, false)), "desc", "msg", "short"));
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testIllegalThreadPoolSize1() {
     new MultiThreadedJLanguageTool(new Demo(), 0);
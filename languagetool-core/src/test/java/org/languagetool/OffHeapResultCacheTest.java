@@ -0,0 +1,122 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class OffHeapResultCacheTest {
+
+  private final Rule rule = new FakeRule();
+  private final List<Rule> rules = Collections.singletonList(rule);
+
+  @Test
+  public void testMatches() throws IOException {
+    OffHeapResultCache cache = new OffHeapResultCache(10_000, 0);
+    AnalyzedSentence sentence = new JLanguageTool(TestTools.getDemoLanguage()).getAnalyzedSentence("This is a test.");
+    RuleMatch match = new RuleMatch(rule, sentence, 5, 7, "Did you mean <suggestion>foo</suggestion>?", "Short message");
+    match.setSuggestedReplacements(Arrays.asList("foo", "bär"));
+    match.setType(RuleMatch.Type.Hint);
+    cache.put(key("This is a test."), Collections.singletonList(match));
+    cache.put(key("No errors."), Collections.emptyList());
+
+    List<RuleMatch> cachedMatches = cache.getIfPresent(key("This is a test."), sentence, rules);
+    assertThat(cachedMatches.size(), is(1));
+    RuleMatch cachedMatch = cachedMatches.get(0);
+    assertSame(rule, cachedMatch.getRule());
+    assertSame(sentence, cachedMatch.getSentence());
+    assertThat(cachedMatch.getFromPos(), is(5));
+    assertThat(cachedMatch.getToPos(), is(7));
+    assertThat(cachedMatch.getMessage(), is(match.getMessage()));
+    assertThat(cachedMatch.getShortMessage(), is("Short message"));
+    assertThat(cachedMatch.getSuggestedReplacements(), is(Arrays.asList("foo", "bär")));
+    assertThat(cachedMatch.getType(), is(RuleMatch.Type.Hint));
+    assertNull(cachedMatch.getUrl());
+
+    assertThat(cache.getIfPresent(key("No errors."), sentence, rules).size(), is(0));
+    assertNull(cache.getIfPresent(key("Not in cache."), sentence, rules));
+    assertNull(cache.getIfPresent(key("This is a test."), sentence, Collections.emptyList()));  // rule not available
+    assertThat(cache.hitCount(), is(2L));
+  }
+
+  @Test
+  public void testEviction() {
+    OffHeapResultCache cache = new OffHeapResultCache(3 * 128, 0);  // 3 blocks
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    cache.put(key("1"), Collections.emptyList());
+    cache.put(key("2"), Collections.emptyList());
+    cache.put(key("3"), Collections.emptyList());
+    assertThat(cache.size(), is(3));
+    assertThat(cache.usedBytes(), is(3 * 128L));
+    assertNotNull(cache.getIfPresent(key("1"), sentence, rules));  // now "2" is the least recently used
+    cache.put(key("4"), Collections.emptyList());
+    assertThat(cache.size(), is(3));
+    assertNotNull(cache.getIfPresent(key("1"), sentence, rules));
+    assertNull(cache.getIfPresent(key("2"), sentence, rules));
+    assertNotNull(cache.getIfPresent(key("4"), sentence, rules));
+
+    // a match with a long message takes more than one block:
+    String message = String.join("", Collections.nCopies(150, "x"));
+    cache.put(key("5"), Collections.singletonList(new RuleMatch(rule, sentence, 0, 1, message)));
+    assertThat(cache.size(), is(2));
+    assertThat(cache.getIfPresent(key("5"), sentence, rules).get(0).getMessage(), is(message));
+    assertThat(cache.usedBytes(), is(3 * 128L));
+  }
+
+  @Test
+  public void testSegments() {
+    assertThat(new OffHeapResultCache(3 * 128, 0).getSegmentCount(), is(1));
+    assertThat(new OffHeapResultCache(100 * 1024 * 1024, 0).getSegmentCount(), is(16));
+    OffHeapResultCache cache = new OffHeapResultCache(8 * 128, 0, 5, TimeUnit.MINUTES, 4);  // 2 blocks per segment
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    for (int i = 0; i < 100; i++) {
+      cache.put(key("sentence " + i), Collections.emptyList());
+      assertNotNull(cache.getIfPresent(key("sentence " + i), sentence, rules));  // the latest entry is never evicted
+    }
+    assertThat(cache.size(), is(8));
+    assertThat(cache.usedBytes(), is(8 * 128L));
+  }
+
+  @Test
+  public void testGetWithoutRules() {
+    OffHeapResultCache cache = new OffHeapResultCache(1000, 0);
+    cache.put(key("foo"), Collections.emptyList());
+    assertNull(cache.getIfPresent(key("foo")));  // matches can't be re-created without the rules
+    assertThat(cache.size(), is(1));
+  }
+
+  private InputSentence key(String text) {
+    return new InputSentence(text, TestTools.getDemoLanguage(), null, new HashSet<>(), new HashSet<>(),
+            new HashSet<>(), new HashSet<>(), null, JLanguageTool.Mode.ALL);
+  }
+
+}
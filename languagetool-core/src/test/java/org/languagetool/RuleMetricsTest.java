@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class RuleMetricsTest {
+
+  @Test
+  public void testMetrics() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RuleMetrics metrics = new RuleMetrics();
+    lt.setRuleMetrics(metrics);
+    lt.check("This is foo bar. This is a test.");
+    RuleMetrics.RuleStats stats = metrics.getStats().get("DEMO_RULE");
+    assertThat(stats.getInvocations(), is(1L));
+    assertThat(stats.getSkips(), is(1L));
+    assertThat(stats.getMatches(), is(1L));
+    assertNull(metrics.getStats().get("DEMO_RULE_OFF"));
+
+    lt.check("This is foo bar.");
+    assertThat(metrics.getStats().get("DEMO_RULE").getInvocations(), is(2L));
+    assertThat(metrics.getStats().get("DEMO_RULE").getMatches(), is(2L));
+
+    metrics.reset();
+    assertTrue(metrics.getStats().isEmpty());
+    lt.setRuleMetrics(null);
+    lt.check("This is foo bar.");
+    Map<String, RuleMetrics.RuleStats> statsAfterDisabling = metrics.getStats();
+    assertTrue(statsAfterDisabling.isEmpty());
+  }
+
+}
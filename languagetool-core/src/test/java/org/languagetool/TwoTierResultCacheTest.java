@@ -0,0 +1,155 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class TwoTierResultCacheTest {
+
+  private final Rule rule = new FakeRule();
+  private final List<Rule> rules = Collections.singletonList(rule);
+
+  @Test
+  public void testRemoteTier() throws Exception {
+    InMemoryBackend backend = new InMemoryBackend();
+    AnalyzedSentence sentence = new JLanguageTool(TestTools.getDemoLanguage()).getAnalyzedSentence("This is a test.");
+    RuleMatch match = new RuleMatch(rule, sentence, 5, 7, "A message");
+    try (TwoTierResultCache cache1 = new TwoTierResultCache(new ResultCache(100), backend, 1000)) {
+      cache1.put(key("This is a test.", JLanguageTool.Mode.ALL), Collections.singletonList(match));
+      waitForWrites(backend, 1);
+    }
+    try (TwoTierResultCache cache2 = new TwoTierResultCache(new ResultCache(100), backend, 1000)) {
+      List<RuleMatch> matches = cache2.getIfPresent(key("This is a test.", JLanguageTool.Mode.ALL), sentence, rules);
+      assertThat(matches.size(), is(1));
+      assertSame(rule, matches.get(0).getRule());
+      assertThat(matches.get(0).getMessage(), is("A message"));
+      assertThat(cache2.remoteHitCount(), is(1L));
+      // now it's in the local tier:
+      assertThat(cache2.getIfPresent(key("This is a test.", JLanguageTool.Mode.ALL), sentence, rules).size(), is(1));
+      assertThat(cache2.remoteRequestCount(), is(1L));
+      assertThat(cache2.hitCount(), is(1L));
+      // different configuration:
+      assertNull(cache2.getIfPresent(key("This is a test.", JLanguageTool.Mode.TEXTLEVEL_ONLY), sentence, rules));
+      assertThat(cache2.remoteRequestCount(), is(2L));
+      assertThat(cache2.remoteHitCount(), is(1L));
+    }
+  }
+
+  @Test
+  public void testSlowRemoteTierIsBypassed() throws Exception {
+    InMemoryBackend backend = new InMemoryBackend() {
+      @Override
+      public byte[] get(byte[] key) throws IOException {
+        try {
+          Thread.sleep(2000);
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        return super.get(key);
+      }
+    };
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    try (TwoTierResultCache cache = new TwoTierResultCache(new ResultCache(100), backend, 10)) {
+      long startTime = System.currentTimeMillis();
+      assertNull(cache.getIfPresent(key("foo", JLanguageTool.Mode.ALL), sentence, rules));
+      assertNull(cache.getIfPresent(key("bar", JLanguageTool.Mode.ALL), sentence, rules));
+      assertTrue(System.currentTimeMillis() - startTime < 1000);
+      assertThat(cache.remoteErrorCount(), is(1L));
+      assertThat(cache.remoteRequestCount(), is(1L));  // second lookup didn't use the remote tier
+    }
+  }
+
+  @Test
+  public void testHangingRemoteTierBlocksLimitedThreads() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    InMemoryBackend backend = new InMemoryBackend() {
+      @Override
+      public byte[] get(byte[] key) throws IOException {
+        try {
+          release.await();  // like a socket read, this ignores interrupts
+        } catch (InterruptedException ignored) {
+        }
+        return super.get(key);
+      }
+    };
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    try (TwoTierResultCache cache = new TwoTierResultCache(new ResultCache(100), backend, 500)) {
+      List<Thread> threads = new ArrayList<>();
+      List<Object> results = Collections.synchronizedList(new ArrayList<>());
+      for (int i = 0; i < 50; i++) {
+        String text = "sentence " + i;
+        threads.add(new Thread(() -> results.add(String.valueOf(cache.getIfPresent(key(text, JLanguageTool.Mode.ALL), sentence, rules)))));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertThat(results.size(), is(50));
+      assertTrue(results.stream().allMatch("null"::equals));
+      long readThreads = Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().startsWith("lt-remote-cache-read-")).count();
+      assertTrue("read threads: " + readThreads, readThreads <= TwoTierResultCache.MAX_READ_THREADS);
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private void waitForWrites(InMemoryBackend backend, int count) throws InterruptedException {
+    for (int i = 0; i < 100 && backend.map.size() < count; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(backend.map.size(), is(count));
+  }
+
+  private InputSentence key(String text, JLanguageTool.Mode mode) {
+    return new InputSentence(text, TestTools.getDemoLanguage(), null, new HashSet<>(), new HashSet<>(),
+            new HashSet<>(), new HashSet<>(), null, mode);
+  }
+
+  private static class InMemoryBackend implements RemoteResultCacheBackend {
+    private final Map<ByteBuffer, byte[]> map = new ConcurrentHashMap<>();
+    @Override
+    public byte[] get(byte[] key) throws IOException {
+      return map.get(ByteBuffer.wrap(key));
+    }
+    @Override
+    public void put(byte[] key, byte[] value) {
+      map.put(ByteBuffer.wrap(key), value);
+    }
+    @Override
+    public void close() {}
+  }
+
+}
@@ -0,0 +1,116 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedNgramLanguageModelTest {
+
+  @Test
+  public void testLanguageModel() throws IOException {
+    File file = createFile();
+    try (MappedNgramFileWriter writer = new MappedNgramFileWriter(file, file.getParentFile())) {
+      writer.add("the", 50);
+      writer.add("the nice", 3);
+      writer.add("the nice building", 1);
+      writer.add("the", 5);  // duplicates are summed up
+      writer.setTotalTokenCount(3);
+      assertThat(writer.finish(), is(3L));
+    }
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(file)) {
+      assertThat(model.getEntryCount(), is(3L));
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount(Arrays.asList("nice", "the")), is(0L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNgramTooLong() throws IOException {
+    File file = createFile();
+    try (MappedNgramFileWriter writer = new MappedNgramFileWriter(file, file.getParentFile())) {
+      writer.add("a b", 1);
+      writer.finish();
+    }
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(file)) {
+      model.getCount(Arrays.asList("a", "b", "c"));
+    }
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    File file = createFile();
+    try (MappedNgramFileWriter writer = new MappedNgramFileWriter(file, file.getParentFile())) {
+      writer.finish();
+    }
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(file)) {
+      assertThat(model.getCount(Collections.emptyList()), is(0L));
+      assertThat(model.getCount("foo"), is(0L));
+    }
+  }
+
+  @Test
+  public void testManyNgrams() throws IOException {
+    File file = createFile();
+    int ngrams = 50_000;
+    try (MappedNgramFileWriter writer = new MappedNgramFileWriter(file, file.getParentFile())) {
+      for (int i = 0; i < ngrams; i++) {
+        writer.add("word" + i + " next" + (i % 100), i + 1);
+      }
+      writer.add("huge count", Integer.MAX_VALUE + 1L);
+      assertThat(writer.finish(), is(ngrams + 1L));
+    }
+    Random random = new Random(42);
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(file)) {
+      for (int i = 0; i < 5_000; i++) {
+        int n = random.nextInt(ngrams);
+        assertThat(model.getCount(Arrays.asList("word" + n, "next" + (n % 100))), is(n + 1L));
+        assertThat(model.getCount(Arrays.asList("word" + n, "next" + ((n + 1) % 100))), is(0L));
+      }
+      assertThat(model.getCount(Arrays.asList("huge", "count")), is(Integer.MAX_VALUE + 1L));
+    }
+  }
+
+  @Test
+  public void testHash() {
+    assertThat(MappedNgramLanguageModel.hash(Arrays.asList("the", "nice", "building")),
+               is(MappedNgramLanguageModel.hash("the nice building")));
+    assertThat(MappedNgramLanguageModel.hash(Collections.singletonList("the")),
+               is(MappedNgramLanguageModel.hash("the")));
+  }
+
+  private File createFile() throws IOException {
+    File file = File.createTempFile("ngrams", ".lm");
+    file.deleteOnExit();
+    return file;
+  }
+
+}
@@ -0,0 +1,95 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNotNull;
+
+public class NgramCountCacheTest {
+
+  @Test
+  public void testCache() {
+    AtomicInteger lookups = new AtomicInteger();
+    BaseLanguageModel lm = new BaseLanguageModel() {
+      @Override
+      public long getCount(String token1) {
+        return getCount(Arrays.asList(token1));
+      }
+      @Override
+      public long getCount(List<String> tokens) {
+        return getCachedCount(tokens, t -> {
+          lookups.incrementAndGet();
+          return t.get(0).equals("the") ? 42 : 0;
+        });
+      }
+      @Override
+      public long getTotalTokenCount() {
+        return 100;
+      }
+      @Override
+      public void close() {}
+    };
+    assertThat(lm.getCount("the"), is(42L));
+    assertThat(lm.getCount("the"), is(42L));
+    assertThat(lookups.get(), is(2));  // no cache set
+
+    NgramCountCache cache = new NgramCountCache(2);
+    lm.setCountCache(cache);
+    lookups.set(0);
+    assertThat(lm.getCount("the"), is(42L));
+    assertThat(lm.getCount("the"), is(42L));
+    assertThat(lm.getCount("unknown"), is(0L));
+    assertThat(lm.getCount("unknown"), is(0L));  // zero counts are cached, too
+    assertThat(lookups.get(), is(2));
+    assertThat(cache.requestCount(), is(4L));
+    assertThat(cache.hitCount(), is(2L));
+    assertThat(cache.hitRate(), is(0.5));
+
+    lm.getCount(Arrays.asList("the", "foo"));
+    lm.getCount(Arrays.asList("the", "bar"));
+    assertThat(cache.size(), is(2L));
+    assertThat(cache.evictionCount(), is(2L));
+  }
+
+  @Test
+  public void testLuceneLanguageModel() throws Exception {
+    URL ngramUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/yy/ngram-index");
+    try (LuceneLanguageModel model = new LuceneLanguageModel(new File(ngramUrl.getFile()))) {
+      NgramCountCache cache = model.getCountCache();
+      assertNotNull(cache);
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(cache.hitCount(), is(2L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+    }
+  }
+
+}
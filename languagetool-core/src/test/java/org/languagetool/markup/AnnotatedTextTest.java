@@ -55,4 +55,19 @@ public class AnnotatedTextTest {
     assertThat(text.getOriginalTextPositionFor(8), is(11));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testPositionsWithManyMarkupParts() {
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder().addMarkup("<p>");
+    for (int i = 0; i < 1000; i++) {
+      builder.addText("word ").addMarkup("<br/>", "\n").addMarkup("<i></i>");
+    }
+    AnnotatedText text = builder.build();
+    assertThat(text.getOriginalTextPositionFor(0), is(3));
+    assertThat(text.getOriginalTextPositionFor(2), is(5));
+    assertThat(text.getOriginalTextPositionFor(5), is(13));  // end of '<br/>', interpreted as '\n'
+    assertThat(text.getOriginalTextPositionFor(6), is(20));
+    assertThat(text.getOriginalTextPositionFor(999 * 6 + 3), is(3 + 999 * 17 + 3));
+    assertThat(text.getOriginalTextPositionFor(1000 * 6 + 10), is(3 + 1000 * 17 + 10));  // after the end
+  }
+
+}
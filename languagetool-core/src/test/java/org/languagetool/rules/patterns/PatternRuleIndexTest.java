@@ -0,0 +1,116 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.Rule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class PatternRuleIndexTest {
+
+  private final JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+
+  @Test
+  public void testCandidateRules() throws IOException {
+    PatternRule fooBar = makeRule("FOO_BAR", new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false));
+    PatternRule regex = makeRule("REGEX", new PatternToken("a|b", false, true, false));
+    PatternRule inflected = makeRule("INFLECTED", new PatternToken("walk", false, false, true));
+    PatternRule bar = makeRule("BAR", new PatternToken("bar", false, false, false));
+    PatternRuleIndex<PatternRule> index = new PatternRuleIndex<>(Arrays.asList(fooBar, regex, inflected, bar));
+
+    assertThat(index.getCandidateRules(sentence("This is a test")), is(Arrays.asList(regex)));
+    assertThat(index.getCandidateRules(sentence("This is foo bar")), is(Arrays.asList(fooBar, bar)));
+    assertThat(index.getCandidateRules(sentence("This is FOO BAR")), is(Arrays.asList(fooBar, bar)));
+    assertThat(index.getCandidateRules(sentence("This is B")), is(Arrays.asList(regex)));
+    // FOO_BAR is indexed under 'bar', so it's a candidate even though 'foo' is missing:
+    assertThat(index.getCandidateRules(sentence("Bar, walk")), is(Arrays.asList(fooBar, inflected, bar)));
+
+    assertThat(index.getCandidateRules(sentence("Bar, walk"), 1, 3), is(Arrays.asList(inflected)));
+    assertThat(index.getCandidateRules(sentence("Bar, walk"), 3, 4), is(Arrays.asList(bar)));
+    assertThat(index.getCandidateRules(sentence("Bar, walk"), 2, 2).size(), is(0));
+  }
+
+  @Test
+  public void testRegexCandidateRules() throws IOException {
+    PatternRule words = makeRule("WORDS", new PatternToken("a|an|the", false, true, false), new PatternToken(".*", false, true, false));
+    PatternRule regex = makeRule("REGEX", new PatternToken("th.*", false, true, false));
+    PatternToken optional = new PatternToken("foo|bar", false, true, false);
+    optional.setMinOccurrence(0);
+    PatternRule optionalWords = makeRule("OPTIONAL_WORDS", optional);
+    PatternRuleIndex<PatternRule> index = new PatternRuleIndex<>(Arrays.asList(words, regex, optionalWords));
+
+    assertThat(index.getCandidateRules(sentence("The test")), is(Arrays.asList(words, regex, optionalWords)));
+    assertThat(index.getCandidateRules(sentence("Some test")), is(Arrays.asList(regex, optionalWords)));
+  }
+
+  @Test
+  public void testGetWords() {
+    assertThat(PatternRuleIndex.getWords("foo"), is(new HashSet<>(Arrays.asList("foo"))));
+    assertThat(PatternRuleIndex.getWords("Foo|bar|don't|e-mail"), is(new HashSet<>(Arrays.asList("foo", "bar", "don't", "e-mail"))));
+    assertNull(PatternRuleIndex.getWords("foo|"));
+    assertNull(PatternRuleIndex.getWords("foo|ba.r"));
+    assertNull(PatternRuleIndex.getWords("(foo|bar)"));
+    assertNull(PatternRuleIndex.getWords("foos?"));
+    assertNull(PatternRuleIndex.getWords("\\d+"));
+    assertNull(PatternRuleIndex.getWords(""));
+  }
+
+  @Test
+  public void testNoCandidateIsLost() throws IOException {
+    List<Rule> rules = lt.getAllRules();
+    PatternRuleIndex<Rule> index = new PatternRuleIndex<>(rules);
+    List<String> texts = new ArrayList<>(Arrays.asList("This is a test.", "Foo bar.", "This is foo bar and fou bar.", ""));
+    for (Rule rule : rules) {
+      for (IncorrectExample example : rule.getIncorrectExamples()) {
+        texts.add(example.getExample().replace("<marker>", "").replace("</marker>", ""));
+      }
+    }
+    for (String text : texts) {
+      AnalyzedSentence sentence = sentence(text);
+      List<Rule> candidates = index.getCandidateRules(sentence);
+      for (Rule rule : rules) {
+        boolean mightMatch = !(rule instanceof PatternRule) || rule.match(sentence).length > 0;
+        if (mightMatch) {
+          assertTrue("Rule " + rule.getId() + " missing for '" + text + "'", candidates.contains(rule));
+        }
+      }
+    }
+  }
+
+  private PatternRule makeRule(String id, PatternToken... tokens) {
+    return new PatternRule(id, TestTools.getDemoLanguage(), Arrays.asList(tokens), "desc", "msg", "short");
+  }
+
+  private AnalyzedSentence sentence(String text) throws IOException {
+    return lt.getAnalyzedSentence(text);
+  }
+
+}
@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -54,6 +57,42 @@ public class PatternRuleMatcherTest {
     assertNoMatch("This is no test.", matcher);
   }
 
+  @Test
+  public void testMatchersAreReused() throws Exception {
+    PatternRule rule = getPatternRule("my test");
+    PatternRuleMatchers matchers = new PatternRuleMatchers();
+    assertSame(matchers.get(rule), matchers.get(rule));
+    assertNotSame(matchers.get(rule), new PatternRuleMatchers().get(rule));
+  }
+
+  @Test
+  public void testRuleUsedByManyThreads() throws Exception {
+    // each thread re-uses its matcher, this must not mix up the state of concurrent matches:
+    PatternRule rule = getPatternRule("my test");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> {
+          PatternRuleMatchers matchers = new PatternRuleMatchers();
+          for (int j = 0; j < 50; j++) {
+            RuleMatch[] matches = rule.match(langTool.getAnalyzedSentence("This is my test, and my test again."), matchers);
+            RuleMatch[] noMatches = rule.match(langTool.getAnalyzedSentence("This is no test."), matchers);
+            if (matches.length != 2 || matches[1].getFromPos() != 21 || noMatches.length != 0) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testZeroMinOccurrences() throws Exception {
     PatternToken patternTokenB = makeElement("b");
@@ -0,0 +1,58 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.tagging.PosTagIds;
+
+import static org.junit.Assert.*;
+
+public class PosTagMatchTableTest {
+
+  @Test
+  public void testMatches() {
+    PosTagMatchTable table = PosTagMatchTable.get("NN.*|VBG");
+    assertSame(table, PosTagMatchTable.get("NN.*|VBG"));
+    for (int i = 0; i < 2; i++) {  // the second time, the results come from the table
+      assertTrue(matches(table, "NN"));
+      assertTrue(matches(table, "NNS"));
+      assertTrue(matches(table, "VBG"));
+      assertFalse(matches(table, "VB"));
+      assertFalse(matches(table, "JJ"));
+    }
+    assertTrue(table.matches("NNP", PosTagIds.NO_ID));
+    assertFalse(table.matches("VBZ", PosTagIds.NO_ID));
+  }
+
+  @Test
+  public void testIds() {
+    int id = PosTagIds.getId("FOO:BAR");
+    assertTrue(id >= 0);
+    assertEquals(id, PosTagIds.getId("FOO:BAR"));
+    assertNotEquals(id, PosTagIds.getId("FOO:BAZ"));
+    assertEquals(id, new AnalyzedToken("foo", "FOO:BAR", null).getPOSTagId());
+    assertEquals(PosTagIds.NO_ID, new AnalyzedToken("foo", null, null).getPOSTagId());
+  }
+
+  private boolean matches(PosTagMatchTable table, String posTag) {
+    return table.matches(posTag, new AnalyzedToken("foo", posTag, null).getPOSTagId());
+  }
+
+}
@@ -0,0 +1,94 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNotNull;
+
+public class XmlRuleSnapshotTest {
+
+  private static final String GRAMMAR_FILE = "/xx/grammar.xml";
+
+  private File snapshotDir;
+
+  @Before
+  public void setUp() throws IOException {
+    snapshotDir = Files.createTempDirectory("rule-snapshots").toFile();
+    snapshotDir.deleteOnExit();
+  }
+
+  @After
+  public void tearDown() {
+    XmlRuleSnapshot.setSnapshotDir(null);
+    File[] files = snapshotDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    snapshotDir.delete();
+  }
+
+  @Test
+  public void testSnapshot() throws IOException {
+    String expected = rulesToString(loadRules());
+    XmlRuleSnapshot.setSnapshotDir(snapshotDir);
+    assertThat(rulesToString(loadRules()), is(expected));  // creates the snapshot
+    File[] snapshots = snapshotDir.listFiles();
+    assertNotNull(snapshots);
+    assertThat(snapshots.length, is(1));
+    assertThat(rulesToString(loadRules()), is(expected));  // uses the snapshot
+
+    // a broken snapshot is ignored and replaced:
+    long length = snapshots[0].length();
+    try (RandomAccessFile file = new RandomAccessFile(snapshots[0], "rw")) {
+      file.setLength(length / 2);
+    }
+    assertThat(rulesToString(loadRules()), is(expected));
+    assertThat(snapshots[0].length(), is(length));
+    assertThat(snapshotDir.listFiles().length, is(1));
+  }
+
+  private List<AbstractPatternRule> loadRules() throws IOException {
+    try (InputStream is = JLanguageTool.getDataBroker().getFromRulesDirAsStream(GRAMMAR_FILE)) {
+      return new PatternRuleLoader().getRules(is, GRAMMAR_FILE);
+    }
+  }
+
+  private String rulesToString(List<AbstractPatternRule> rules) {
+    return rules.stream()
+            .map(rule -> rule.getFullId() + " " + rule + " " + rule.getMessage() + " " + rule.getCorrectExamples() + " " + rule.getIncorrectExamples())
+            .collect(Collectors.joining("\n"));
+  }
+
+}
@@ -23,8 +23,12 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertNull;
 
 /**
@@ -78,4 +82,15 @@ public class ManualSynthesizerTest {
     assertNull(synthesizer.lookup("LEmma1", "POS1"));
   }
   
+  @Test
+  public void testMatchingTags() throws IOException {
+    ManualSynthesizerAdapter adapter = new ManualSynthesizerAdapter(synthesizer);
+    List<String> tags = new ArrayList<>(adapter.getMatchingTags("POS.*"));
+    Collections.sort(tags);
+    assertEquals("[POS1, POS2]", tags.toString());
+    assertEquals("[POS2]", adapter.getMatchingTags("POS2").toString());
+    assertEquals("[]", adapter.getMatchingTags("XYZ").toString());
+    assertSame(adapter.getMatchingTags("POS2"), adapter.getMatchingTags("POS2"));
+  }
+
 }
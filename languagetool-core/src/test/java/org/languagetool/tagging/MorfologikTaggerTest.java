@@ -18,10 +18,16 @@
  */
 package org.languagetool.tagging;
 
+import morfologik.stemming.Dictionary;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -52,4 +58,45 @@ public class MorfologikTaggerTest {
     assertThat(noResult.size(), is(0));
   }
 
+  @Test
+  public void testTagWithCache() throws IOException {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    MorfologikTagger tagger = new MorfologikTagger(Dictionary.read(url), 10);
+    List<TaggedWord> result1 = tagger.tag("lowercase");
+    assertThat(result1.size(), is(2));
+    result1.clear();  // must not modify the cache
+    List<TaggedWord> result2 = tagger.tag("lowercase");
+    assertThat(result2.size(), is(2));
+    assertThat(result2.get(1).getLemma(), is("lclemma2"));
+    assertThat(tagger.tag("noSuchWord").size(), is(0));
+    assertThat(tagger.tag("noSuchWord").size(), is(0));
+  }
+
+  @Test
+  public void testTagFromManyThreads() throws Exception {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    MorfologikTagger tagger = new MorfologikTagger(url);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 100; j++) {
+            List<TaggedWord> result1 = tagger.tag("lowercase");
+            List<TaggedWord> result2 = tagger.tag("schön");
+            if (result1.size() != 2 || !result1.get(1).getPosTag().equals("POS1a") || !result2.get(0).getLemma().equals("testlemma")) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
 }
@@ -0,0 +1,73 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.patterns.PatternToken;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class XmlRuleDisambiguatorTest {
+
+  private final JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+
+  @Test
+  public void testDisambiguate() throws IOException {
+    XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(TestTools.getDemoLanguage());
+    AnalyzedSentence sentence = lt.getRawAnalyzedSentence("Ten dollars");
+    assertSame(sentence, disambiguator.disambiguate(sentence));
+    AnalyzedSentence disambiguated = disambiguator.disambiguate(lt.getRawAnalyzedSentence("10 dollars"));
+    assertThat(disambiguated.getTokensWithoutWhitespace()[1].getAnalyzedToken(0).getPOSTag(), is("CD"));
+  }
+
+  @Test
+  public void testReplace() throws IOException {
+    AnalyzedSentence sentence = lt.getRawAnalyzedSentence("This is foo");
+    DisambiguationPatternRule immunize = makeRule(null, DisambiguationPatternRule.DisambiguatorAction.IMMUNIZE);
+    // immunizing doesn't require a new sentence:
+    assertSame(sentence, immunize.replace(sentence));
+    assertTrue(sentence.getTokensWithoutWhitespace()[3].isImmunized());
+
+    DisambiguationPatternRule replace = makeRule("NN", DisambiguationPatternRule.DisambiguatorAction.REPLACE);
+    AnalyzedSentence replaced = replace.replace(sentence);
+    assertNotSame(sentence, replaced);
+    assertThat(replaced.getTokensWithoutWhitespace()[3].getAnalyzedToken(0).getPOSTag(), is("NN"));
+  }
+
+  @Test
+  public void testCanBeIgnoredFor() throws IOException {
+    DisambiguationPatternRule rule = makeRule(null, DisambiguationPatternRule.DisambiguatorAction.IMMUNIZE);
+    assertTrue(rule.canBeIgnoredFor(lt.getRawAnalyzedSentence("This is a test")));
+    assertFalse(rule.canBeIgnoredFor(lt.getRawAnalyzedSentence("This is Foo")));
+  }
+
+  private DisambiguationPatternRule makeRule(String posTag, DisambiguationPatternRule.DisambiguatorAction action) {
+    PatternToken token = new PatternToken("foo", false, false, false);
+    return new DisambiguationPatternRule("TEST_RULE", "desc", TestTools.getDemoLanguage(),
+            Collections.singletonList(token), posTag, null, action);
+  }
+
+}
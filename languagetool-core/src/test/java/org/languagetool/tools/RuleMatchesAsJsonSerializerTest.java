@@ -22,12 +22,17 @@ import org.junit.Test;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Languages;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -81,6 +86,18 @@ public class RuleMatchesAsJsonSerializerTest {
     assertTrue(json.contains("This\\ris ..."));
   }
   
+  @Test
+  public void testJsonToStream() throws IOException {
+    AnnotatedText text = new AnnotatedTextBuilder().addText("Thïs is an text.").build();
+    String json = serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5,
+            Languages.getLanguageForShortCode("xx-XX"), null, "timeout");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5,
+            Languages.getLanguageForShortCode("xx-XX"), null, "timeout", out);
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    assertContains("\"Thïs is ...\"", json);
+  }
+
   static class FakeRule extends Rule {
     FakeRule() {
       setLocQualityIssueType(ITSIssueType.Addition);
@@ -0,0 +1,58 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.patterns.XmlRuleSnapshot;
+
+import java.io.File;
+
+/**
+ * Creates the snapshots of the XML rule files of all languages (see {@link XmlRuleSnapshot}),
+ * e.g. at build time, so that even the first start of LanguageTool doesn't need to parse them.
+ * @since 4.4
+ */
+final class RuleSnapshotCreator {
+
+  private RuleSnapshotCreator() {
+  }
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.out.println("Usage: " + RuleSnapshotCreator.class.getSimpleName() + " <snapshotDir>");
+      System.out.println("  Use the same directory with the system property " + XmlRuleSnapshot.SNAPSHOT_DIR_PROPERTY);
+      System.out.println("  or the 'ruleSnapshotDir' option of the server");
+      System.exit(1);
+    }
+    XmlRuleSnapshot.setSnapshotDir(new File(args[0]));
+    // false friend rules are only loaded with a mother tongue, but they are the same file for all languages:
+    Language motherTongue = Languages.getLanguageForShortCode("en");
+    for (Language language : Languages.get()) {
+      long startTime = System.currentTimeMillis();
+      JLanguageTool lt = new JLanguageTool(language, motherTongue);
+      lt.getLanguage().getDisambiguator();  // loads the disambiguation rules, if any
+      System.out.println(language + ": " + lt.getAllRules().size() + " rules, " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+    File[] snapshots = new File(args[0]).listFiles();
+    System.out.println("Done, " + (snapshots != null ? snapshots.length : 0) + " snapshot files in " + args[0]);
+  }
+
+}
@@ -0,0 +1,125 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MappedNgramFileWriter;
+import org.languagetool.languagemodel.MappedNgramLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the Lucene ngram indexes (as used by {@link LuceneLanguageModel}) to
+ * the single file used by {@link MappedNgramLanguageModel}.
+ * @since 4.4
+ */
+final class LuceneToMappedNgramConverter {
+
+  private LuceneToMappedNgramConverter() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + LuceneToMappedNgramConverter.class.getSimpleName() + " <ngramIndexDir> <outputFile>");
+      System.out.println("  <ngramIndexDir> is a directory with '1grams', '2grams', ... sub directories");
+      System.out.println("                  or with 'index-1', 'index-2', ... sub directories that contain those");
+      System.exit(1);
+    }
+    File topIndexDir = new File(args[0]);
+    File outputFile = new File(args[1]);
+    long totalTokenCount;
+    try (LuceneLanguageModel lm = new LuceneLanguageModel(topIndexDir)) {
+      totalTokenCount = lm.getTotalTokenCount();
+    }
+    long startTime = System.currentTimeMillis();
+    try (MappedNgramFileWriter writer = new MappedNgramFileWriter(outputFile, outputFile.getAbsoluteFile().getParentFile())) {
+      for (File indexDir : getNgramIndexDirs(topIndexDir)) {
+        System.out.println("Reading " + indexDir);
+        long count = addNgrams(indexDir, writer);
+        System.out.println("  " + count + " ngrams");
+      }
+      writer.setTotalTokenCount(totalTokenCount);
+      System.out.println("Sorting and writing " + outputFile);
+      long entries = writer.finish();
+      long runTime = System.currentTimeMillis() - startTime;
+      System.out.println("Done: " + entries + " distinct ngrams, total token count " + totalTokenCount +
+              ", " + outputFile.length() + " bytes, " + runTime + "ms");
+    }
+  }
+
+  private static List<File> getNgramIndexDirs(File topIndexDir) {
+    List<File> result = new ArrayList<>();
+    File[] subIndexDirs = topIndexDir.listFiles((file, name) -> name.matches("index-\\d+"));
+    if (subIndexDirs != null && subIndexDirs.length > 0) {
+      for (File subIndexDir : subIndexDirs) {
+        result.addAll(getNgramIndexDirs(subIndexDir));
+      }
+    } else {
+      for (int i = 1; i <= 4; i++) {
+        File indexDir = new File(topIndexDir, i + "grams");
+        if (indexDir.isDirectory()) {
+          result.add(indexDir);
+        }
+      }
+    }
+    return result;
+  }
+
+  // the 'ngram' field is indexed but not stored, so we iterate over the terms and look up the stored 'count':
+  private static long addNgrams(File indexDir, MappedNgramFileWriter writer) throws IOException {
+    long count = 0;
+    try (FSDirectory directory = FSDirectory.open(indexDir.getCanonicalFile().toPath());
+         IndexReader reader = DirectoryReader.open(directory)) {
+      for (LeafReaderContext context : reader.leaves()) {
+        LeafReader leafReader = context.reader();
+        Terms terms = leafReader.terms("ngram");
+        if (terms == null) {
+          continue;
+        }
+        Bits liveDocs = leafReader.getLiveDocs();
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postings = null;
+        BytesRef term;
+        while ((term = termsEnum.next()) != null) {
+          String ngram = term.utf8ToString();
+          postings = termsEnum.postings(postings, PostingsEnum.NONE);
+          int docId;
+          while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (liveDocs == null || liveDocs.get(docId)) {
+              writer.add(ngram, Long.parseLong(leafReader.document(docId).get("count")));
+              if (++count % 1_000_000 == 0) {
+                System.out.println("  " + count + " ngrams...");
+              }
+            }
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+}
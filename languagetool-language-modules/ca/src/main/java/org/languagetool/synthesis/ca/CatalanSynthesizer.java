@@ -65,6 +65,9 @@ public class CatalanSynthesizer extends BaseSynthesizer {
   private static final Pattern pFemYes = Pattern.compile("h?[aeoàèéíòóú].*|h?[ui][^aeiouàèéíòóúüï]+[aeiou][ns]?|urbs",Pattern.CASE_INSENSITIVE|Pattern.UNICODE_CASE);
   private static final Pattern pFemNo = Pattern.compile("host|ira|inxa",Pattern.CASE_INSENSITIVE|Pattern.UNICODE_CASE);
   
+  /** Tags that can get a determiner **/
+  private static final String DT_TAGS = "N.*|A.*|V.P.*|PX.";
+
   /** Patterns verb **/
   private static final Pattern pVerb = Pattern.compile("V.*[CVBXYZ0123456]");
 
@@ -75,8 +78,6 @@ public class CatalanSynthesizer extends BaseSynthesizer {
 
   @Override
   public String[] synthesize(final AnalyzedToken token, final String posTag) throws IOException {
-    initPossibleTags();
-    Pattern p;
     boolean addDt = false; 
     String prep = ""; 
     final Matcher mPrep = pPrep.matcher(posTag);
@@ -86,22 +87,14 @@ public class CatalanSynthesizer extends BaseSynthesizer {
         prep=mPrep.group(2); // add preposition before article
       }
     }
-    if (addDt) {
-      p = Pattern.compile("N.*|A.*|V.P.*|PX.");
-    } else {
-      p = Pattern.compile(posTag);
-    }
     final List<String> results = new ArrayList<>();
-    final IStemmer synthesizer = createStemmer();
+    final IStemmer synthesizer = getStemmer();
     
-    for (final String tag : possibleTags) {
-      final Matcher m = p.matcher(tag);
-      if (m.matches()) {
-        if (addDt) {
-          lookupWithEl(token.getLemma(), tag, prep, results, synthesizer);
-        } else {
-          lookup(token.getLemma(), tag, results);
-        }
+    for (final String tag : getMatchingTags(addDt ? DT_TAGS : posTag)) {
+      if (addDt) {
+        lookupWithEl(token.getLemma(), tag, prep, results, synthesizer);
+      } else {
+        lookup(token.getLemma(), tag, results);
       }
     }       
     
@@ -121,44 +114,32 @@ public class CatalanSynthesizer extends BaseSynthesizer {
   public String[] synthesize(final AnalyzedToken token, final String posTag,
       final boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p = null;
+      final List<String> tags;
       try {
-        p = Pattern.compile(posTag);
+        tags = getMatchingTags(posTag);
       } catch (PatternSyntaxException e) {
         System.err.println("WARNING: Error trying to synthesize POS tag "
             + posTag + " from token " + token.getToken() + ".");
         return null;
       }
       final List<String> results = new ArrayList<>();
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
+      for (final String tag : tags) {
+        lookup(token.getLemma(), tag, results);
       }
       // if not found, try verbs from any regional variant
       if ((results.size() == 0)) {
         final Matcher mVerb = pVerb.matcher(posTag);
         if (mVerb.matches()) {
           if (!posTag.endsWith("0")) {
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("0"));
-            for (final String tag : possibleTags) {
-              final Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                lookup(token.getLemma(), tag, results);
-              }
+            for (final String tag : getMatchingTags(posTag.substring(0, posTag.length() - 1)
+                .concat("0"))) {
+              lookup(token.getLemma(), tag, results);
             }
           }
           if (results.size() == 0) { // another try
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("."));
-            for (final String tag : possibleTags) {
-              final Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                lookup(token.getLemma(), tag, results);
-              }
+            for (final String tag : getMatchingTags(posTag.substring(0, posTag.length() - 1)
+                .concat("."))) {
+              lookup(token.getLemma(), tag, results);
             }
           }
         }
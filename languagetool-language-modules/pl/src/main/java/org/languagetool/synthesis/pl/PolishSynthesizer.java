@@ -19,24 +19,17 @@
 package org.languagetool.synthesis.pl;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import morfologik.stemming.Dictionary;
-import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
-import org.languagetool.JLanguageTool;
 import org.languagetool.synthesis.BaseSynthesizer;
 import org.languagetool.synthesis.Synthesizer;
-import org.languagetool.synthesis.SynthesizerTools;
 
 /**
  * Polish word form synthesizer. Based on project Morfologik.
@@ -54,10 +47,6 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
   private static final String COMP_TAG = "com";
   private static final String SUP_TAG = "sup";
 
-  private volatile Dictionary dictionary;
-  private List<String> possibleTags;
-
-
   public PolishSynthesizer() {
     super(RESOURCE_FILENAME, TAGS_FILE_NAME);
   }
@@ -68,7 +57,7 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
     if (posTag == null) {
       return null;
     }
-    final IStemmer synthesizer = new DictionaryLookup(getDictionary());
+    final IStemmer synthesizer = getStemmer();
     boolean isNegated = false;
     if (token.getPOSTag() != null) {
       isNegated = posTag.indexOf(NEGATION_TAG) > 0
@@ -90,12 +79,7 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
     }
     String posTag = pos;
     if (posTagRegExp) {
-      if (possibleTags == null) {
-        try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(TAGS_FILE_NAME)) {
-          possibleTags = SynthesizerTools.loadWords(stream);
-        }
-      }
-      final IStemmer synthesizer = new DictionaryLookup(getDictionary());
+      final IStemmer synthesizer = getStemmer();
       final List<String> results = new ArrayList<>();
 
       boolean isNegated = false;
@@ -110,14 +94,10 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
         posTag = posTag.replaceAll(NEGATION_TAG, POTENTIAL_NEGATION_TAG + "?");
       }
 
-      final Pattern p = Pattern.compile(posTag.replace('+', '|'));
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          final List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
-          if (wordForms != null) {
-            results.addAll(wordForms);
-          }
+      for (final String tag : getMatchingTags(posTag.replace('+', '|'))) {
+        final List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
+        if (wordForms != null) {
+          results.addAll(wordForms);
         }
       }
       //remove duplicates
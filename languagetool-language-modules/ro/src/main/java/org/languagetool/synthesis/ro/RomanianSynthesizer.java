@@ -20,6 +20,7 @@ package org.languagetool.synthesis.ro;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.languagetool.JLanguageTool;
@@ -37,8 +38,6 @@ public class RomanianSynthesizer extends BaseSynthesizer {
   private static final String TAGS_FILE_NAME = "/ro/romanian_tags.txt";
   private static final String USER_DICT_FILENAME = "/ro/added.txt";
 
-  private static ManualSynthesizer manualSynthesizer;
-
   public RomanianSynthesizer() {
     super(RESOURCE_FILENAME, TAGS_FILE_NAME);
   }
@@ -46,9 +45,8 @@ public class RomanianSynthesizer extends BaseSynthesizer {
   @Override
   protected void lookup(String lemma, String posTag, List<String> results) {
     super.lookup(lemma, posTag, results);
-    initSynth();
     // add words that are missing from the romanian_synth.dict file
-    final List<String> manualForms = manualSynthesizer.lookup(lemma, posTag);
+    final List<String> manualForms = ManualSynthesizerHolder.INSTANCE.lookup(lemma, posTag);
     if (manualForms != null) {
       results.addAll(manualForms);
     }
@@ -57,21 +55,29 @@ public class RomanianSynthesizer extends BaseSynthesizer {
   @Override
   protected void initPossibleTags() throws IOException {
     super.initPossibleTags();
-    initSynth();
-    // add any possible tag from manual synthesiser
-    for (String tag : manualSynthesizer.getPossibleTags()) {
-      if (!possibleTags.contains(tag)) {
-        possibleTags.add(tag);
+    // add any possible tag from manual synthesiser - on a copy, as other threads may
+    // already be reading possibleTags:
+    List<String> tags = possibleTags;
+    List<String> missingTags = new ArrayList<>();
+    for (String tag : ManualSynthesizerHolder.INSTANCE.getPossibleTags()) {
+      if (!tags.contains(tag)) {
+        missingTags.add(tag);
       }
     }
+    if (!missingTags.isEmpty()) {
+      List<String> allTags = new ArrayList<>(tags);
+      allTags.addAll(missingTags);
+      possibleTags = allTags;
+    }
   }
 
-  private synchronized void initSynth() {
-    if (manualSynthesizer == null) {
-      try {
-        try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(USER_DICT_FILENAME)) {
-          manualSynthesizer = new ManualSynthesizer(stream);
-        }
+  // loaded on first use by the JVM's class initialization, so no lock is needed when reading it:
+  private static class ManualSynthesizerHolder {
+    private static final ManualSynthesizer INSTANCE = load();
+
+    private static ManualSynthesizer load() {
+      try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(USER_DICT_FILENAME)) {
+        return new ManualSynthesizer(stream);
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
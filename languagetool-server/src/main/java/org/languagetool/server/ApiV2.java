@@ -26,6 +26,7 @@ import com.sun.net.httpserver.HttpExchange;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.Language;
 import org.languagetool.Languages;
+import org.languagetool.RuleMetrics;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
 
@@ -33,6 +34,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.net.HttpURLConnection;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.languagetool.server.ServerTools.print;
 
@@ -58,7 +60,11 @@ class ApiV2 {
     if (path.equals("languages")) {
       handleLanguagesRequest(httpExchange);
     } else if (path.equals("check")) {
-      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress);
+      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, null);
+    } else if (path.equals("check/stream")) {
+      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, CheckResultStream.getFormat(httpExchange, parameters));
+    } else if (path.equals("check/batch")) {
+      handleBatchCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress);
     } else if (path.equals("words")) {
       handleWordsRequest(httpExchange, parameters, config);
     } else if (path.equals("words/add")) {
@@ -67,6 +73,8 @@ class ApiV2 {
       handleWordDeleteRequest(httpExchange, parameters, config);
     } else if (path.equals("log")) {
       handleLogRequest(httpExchange, parameters);
+    } else if (path.equals("metrics")) {
+      handleMetricsRequest(httpExchange);
     } else {
       throw new RuntimeException("Unsupported action: '" + path + "'");
     }
@@ -79,7 +87,8 @@ class ApiV2 {
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
   }
 
-  private void handleCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+  private void handleCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress,
+                                  CheckResultStream.Format streamFormat) throws Exception {
     AnnotatedText aText;
     int paramCount = (parameters.containsKey("text") ? 1 : 0) + (parameters.containsKey("data") ? 1 : 0);
     if (paramCount > 1) {
@@ -102,7 +111,29 @@ class ApiV2 {
     } else {
       throw new RuntimeException("Missing 'text' or 'data' parameter");
     }
-    textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+    textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress, streamFormat);
+  }
+
+  private void handleBatchCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+    String itemsParam = parameters.get("items");
+    if (itemsParam == null) {
+      throw new IllegalArgumentException("Missing 'items' parameter");
+    }
+    JsonNode itemsNode = new ObjectMapper().readTree(itemsParam);
+    if (itemsNode == null || !itemsNode.isArray()) {
+      throw new IllegalArgumentException("'items' must be a JSON array of objects like {\"text\": \"...\", \"language\": \"en-US\"}");
+    }
+    List<TextChecker.BatchItem> items = new ArrayList<>();
+    for (JsonNode itemNode : itemsNode) {
+      JsonNode text = itemNode.get("text");
+      if (text == null) {
+        throw new IllegalArgumentException("Each object in 'items' needs a 'text' key");
+      }
+      JsonNode language = itemNode.get("language");
+      items.add(new TextChecker.BatchItem(new AnnotatedTextBuilder().addText(text.asText()).build(),
+              language != null ? language.asText() : null));
+    }
+    textChecker.checkBatch(items, httpExchange, parameters, errorRequestLimiter, remoteAddress);
   }
 
   private void handleWordsRequest(HttpExchange httpExchange, Map<String, String> params, HTTPServerConfig config) throws Exception {
@@ -183,6 +214,34 @@ class ApiV2 {
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
   }
 
+  private void handleMetricsRequest(HttpExchange httpExchange) throws IOException {
+    ensureGetMethod(httpExchange, "/metrics");
+    RuleMetrics ruleMetrics = textChecker.getRuleMetrics();
+    if (ruleMetrics == null) {
+      throw new IllegalArgumentException("Rule metrics are not enabled on this server, set 'ruleMetrics' to 'true' in the configuration");
+    }
+    List<RuleMetrics.RuleStats> stats = new ArrayList<>(ruleMetrics.getStats().values());
+    // most expensive rules first:
+    stats.sort(Comparator.comparingLong((RuleMetrics.RuleStats s) -> s.getTime(TimeUnit.NANOSECONDS)).reversed());
+    StringWriter sw = new StringWriter();
+    try (JsonGenerator g = factory.createGenerator(sw)) {
+      g.writeStartObject();
+      g.writeArrayFieldStart("rules");
+      for (RuleMetrics.RuleStats ruleStats : stats) {
+        g.writeStartObject();
+        g.writeStringField("id", ruleStats.getRuleId());
+        g.writeNumberField("timeMillis", ruleStats.getTime(TimeUnit.MILLISECONDS));
+        g.writeNumberField("invocations", ruleStats.getInvocations());
+        g.writeNumberField("skips", ruleStats.getSkips());
+        g.writeNumberField("matches", ruleStats.getMatches());
+        g.writeEndObject();
+      }
+      g.writeEndArray();
+      g.writeEndObject();
+    }
+    sendJson(httpExchange, sw);
+  }
+
   private void handleLogRequest(HttpExchange httpExchange, Map<String, String> parameters) throws IOException {
     // used so the client (especially the browser add-ons) can report internal issues:
     String message = parameters.get("message");
@@ -0,0 +1,190 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import org.languagetool.RuleMatchListener;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends rule matches to the client while the text is still being checked, used for {@code /v2/check/stream}.
+ * The response is a sequence of events, each a JSON value on a single line:
+ * <ul>
+ *   <li>{@code matches}: the matches found since the previous event, as an array. These matches have
+ *   not been filtered yet (e.g. for overlapping matches), so they can differ from the final result.</li>
+ *   <li>{@code result}: the complete result, in the same format as the response of {@code /v2/check}.
+ *   This is always the last event of a successful check.</li>
+ *   <li>{@code error}: an object with a {@code message}, sent if the check fails after the response has started.</li>
+ * </ul>
+ * With {@link Format#NDJSON}, each line is an object like {@code {"type":"matches","matches":[...]}}.
+ * With {@link Format#SSE}, each event is sent as a server-sent event with the event type as name
+ * and the value as data.
+ * @since 4.4
+ */
+class CheckResultStream implements RuleMatchListener {
+
+  enum Format {
+    NDJSON("application/x-ndjson"),
+    SSE("text/event-stream");
+
+    private final String contentType;
+
+    Format(String contentType) {
+      this.contentType = contentType;
+    }
+  }
+
+  /** The {@link HttpExchange} attribute under which the stream of a request can be found. */
+  static final String EXCHANGE_ATTRIBUTE = CheckResultStream.class.getName();
+
+  private static final int POLL_MILLIS = 100;
+
+  private final BlockingQueue<RuleMatch> pendingMatches = new LinkedBlockingQueue<>();
+  private final RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
+  private final JsonFactory factory = new JsonFactory();
+  private final HttpExchange httpExchange;
+  private final Format format;
+  private final AnnotatedText text;
+  private final int contextSize;
+
+  CheckResultStream(HttpExchange httpExchange, Format format, AnnotatedText text, int contextSize) {
+    this.httpExchange = httpExchange;
+    this.format = format;
+    this.text = text;
+    this.contextSize = contextSize;
+  }
+
+  /**
+   * Get the format requested by the {@code format} parameter or, if not set, by the {@code Accept} header.
+   */
+  static Format getFormat(HttpExchange httpExchange, Map<String, String> parameters) {
+    String formatParam = parameters.get("format");
+    if (formatParam != null) {
+      if (formatParam.equals("ndjson")) {
+        return Format.NDJSON;
+      } else if (formatParam.equals("sse")) {
+        return Format.SSE;
+      }
+      throw new IllegalArgumentException("Unknown 'format', use 'ndjson' or 'sse': '" + formatParam + "'");
+    }
+    String accept = httpExchange.getRequestHeaders().getFirst("Accept");
+    return accept != null && accept.contains(Format.SSE.contentType) ? Format.SSE : Format.NDJSON;
+  }
+
+  @Override
+  public void matchFound(RuleMatch ruleMatch) {
+    pendingMatches.add(ruleMatch);
+  }
+
+  void sendHeaders(String allowOriginUrl) throws IOException {
+    httpExchange.setAttribute(EXCHANGE_ATTRIBUTE, this);
+    ServerTools.setCommonHeaders(httpExchange, format.contentType + "; charset=UTF-8", allowOriginUrl);
+    httpExchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);  // 0 = chunked
+  }
+
+  /**
+   * Send the matches found so far until checking is done or {@code maxMillis} have passed
+   * (use a negative value to wait without limit).
+   */
+  void sendMatchesUntilDone(Future<?> future, long maxMillis) throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + maxMillis;
+    while (!future.isDone() && (maxMillis < 0 || System.currentTimeMillis() < deadline)) {
+      RuleMatch match = pendingMatches.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      if (match != null) {
+        List<RuleMatch> matches = new ArrayList<>();
+        matches.add(match);
+        pendingMatches.drainTo(matches);
+        sendMatches(matches);
+      }
+    }
+    List<RuleMatch> matches = new ArrayList<>();
+    pendingMatches.drainTo(matches);
+    if (matches.size() > 0) {
+      sendMatches(matches);
+    }
+  }
+
+  private void sendMatches(List<RuleMatch> matches) throws IOException {
+    OutputStream out = startEvent("matches");
+    serializer.ruleMatchesToJson(matches, text, contextSize, out);
+    endEvent();
+  }
+
+  /**
+   * Start the {@code result} event. The complete result must be written to the returned stream
+   * as single-line JSON, followed by a call to {@link #endResult()}.
+   */
+  OutputStream startResult() throws IOException {
+    return startEvent("result");
+  }
+
+  void endResult() throws IOException {
+    endEvent();
+  }
+
+  void sendError(String message) throws IOException {
+    OutputStream out = startEvent("error");
+    try (JsonGenerator g = factory.createGenerator(out)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      g.writeStartObject();
+      g.writeStringField("message", message);
+      g.writeEndObject();
+    }
+    endEvent();
+  }
+
+  // the JSON written by the serializer never contains line breaks, so it can be used as a line of NDJSON and as SSE data:
+  private OutputStream startEvent(String type) throws IOException {
+    OutputStream out = httpExchange.getResponseBody();
+    if (format == Format.SSE) {
+      write(out, "event: " + type + "\ndata: ");
+    } else {
+      write(out, "{\"type\":\"" + type + "\",\"" + type + "\":");
+    }
+    return out;
+  }
+
+  private void endEvent() throws IOException {
+    OutputStream out = httpExchange.getResponseBody();
+    write(out, format == Format.SSE ? "\n\n" : "}\n");
+    out.flush();
+  }
+
+  private static void write(OutputStream out, String s) throws IOException {
+    out.write(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,150 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Decides when a check may start. The server's threads take requests in the order
+ * in which they arrive, a scheduler can then hold back checks to run others first.
+ * @since 4.4
+ */
+abstract class CheckScheduler {
+
+  private final AtomicLong startedChecks = new AtomicLong();
+  private final AtomicLong rejectedChecks = new AtomicLong();
+  private final AtomicLong totalWaitMillis = new AtomicLong();
+  private final AtomicLong maxWaitMillis = new AtomicLong();
+
+  static CheckScheduler create(HTTPServerConfig config) {
+    if (config.getCheckScheduler() == HTTPServerConfig.CheckSchedulerType.PRIORITY) {
+      return new PriorityCheckScheduler(config.getMaxCheckThreads(), config.getPremiumCheckShare());
+    }
+    return new ImmediateCheckScheduler();
+  }
+
+  /**
+   * Wait until {@code check} may start. If this returns normally, {@link #finished(ScheduledCheck)}
+   * must be called once the check is done.
+   * @throws CheckRejectedException if the check will not be run, e.g. because it cannot finish before its deadline
+   */
+  abstract void waitForStart(ScheduledCheck check) throws InterruptedException;
+
+  abstract void finished(ScheduledCheck check);
+
+  /**
+   * The number of checks waiting to start.
+   */
+  abstract int getWaitingCount();
+
+  /**
+   * The number of checks that have started but not finished yet.
+   */
+  abstract int getRunningCount();
+
+  protected void recordStart(ScheduledCheck check) {
+    check.startMillis = System.currentTimeMillis();
+    long waitMillis = check.startMillis - check.createdMillis;
+    startedChecks.incrementAndGet();
+    totalWaitMillis.addAndGet(waitMillis);
+    maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+  }
+
+  protected void recordRejection() {
+    rejectedChecks.incrementAndGet();
+  }
+
+  long getStartedChecks() {
+    return startedChecks.get();
+  }
+
+  long getRejectedChecks() {
+    return rejectedChecks.get();
+  }
+
+  long getMaxWaitMillis() {
+    return maxWaitMillis.get();
+  }
+
+  double getAverageWaitMillis() {
+    long started = startedChecks.get();
+    return started == 0 ? 0 : totalWaitMillis.get() / (double) started;
+  }
+
+  void resetStatistics() {
+    startedChecks.set(0);
+    rejectedChecks.set(0);
+    totalWaitMillis.set(0);
+    maxWaitMillis.set(0);
+  }
+
+  /**
+   * A check that is waiting to start or running.
+   */
+  static class ScheduledCheck {
+
+    enum State { WAITING, STARTED, REJECTED, FINISHED }
+
+    final String costKey;
+    final int textLength;
+    final boolean premium;
+    final long createdMillis;
+    final long deadlineMillis;
+
+    // managed by the scheduler:
+    State state = State.WAITING;
+    long startMillis;
+    long estimatedMillis;
+    long priority;
+    long sequence;
+    Condition condition;
+
+    /**
+     * @param costKey checks with the same key are expected to take about the same time per character, e.g. a language code
+     * @param deadlineMillis the time (as in {@link System#currentTimeMillis()}) at which the check should be done
+     *                       at the latest, or {@link Long#MAX_VALUE}
+     */
+    ScheduledCheck(String costKey, int textLength, boolean premium, long createdMillis, long deadlineMillis) {
+      this.costKey = costKey;
+      this.textLength = textLength;
+      this.premium = premium;
+      this.createdMillis = createdMillis;
+      this.deadlineMillis = deadlineMillis;
+    }
+
+    ScheduledCheck(Language lang, int textLength, boolean premium, long createdMillis, long deadlineMillis) {
+      this(lang.getShortCodeWithCountryAndVariant(), textLength, premium, createdMillis, deadlineMillis);
+    }
+
+    /**
+     * The time at which the check needs to start to be done before its deadline.
+     */
+    long getLatestStartMillis() {
+      return deadlineMillis == Long.MAX_VALUE ? Long.MAX_VALUE : deadlineMillis - estimatedMillis;
+    }
+
+    long getWaitMillis() {
+      return startMillis - createdMillis;
+    }
+  }
+
+}
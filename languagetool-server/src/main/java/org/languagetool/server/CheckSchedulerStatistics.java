@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.Objects;
+
+/**
+ * @since 4.4
+ */
+public class CheckSchedulerStatistics implements CheckSchedulerStatisticsMBean {
+
+  private final CheckScheduler scheduler;
+
+  CheckSchedulerStatistics(CheckScheduler scheduler) {
+    this.scheduler = Objects.requireNonNull(scheduler);
+  }
+
+  @Override
+  public long getStartedChecks() {
+    return scheduler.getStartedChecks();
+  }
+
+  @Override
+  public long getRejectedChecks() {
+    return scheduler.getRejectedChecks();
+  }
+
+  @Override
+  public int getWaitingChecks() {
+    return scheduler.getWaitingCount();
+  }
+
+  @Override
+  public int getRunningChecks() {
+    return scheduler.getRunningCount();
+  }
+
+  @Override
+  public double getAverageWaitMillis() {
+    return scheduler.getAverageWaitMillis();
+  }
+
+  @Override
+  public long getMaxWaitMillis() {
+    return scheduler.getMaxWaitMillis();
+  }
+
+  @Override
+  public void reset() {
+    scheduler.resetStatistics();
+  }
+
+}
@@ -71,8 +71,10 @@ public class HTTPSServer extends Server {
       RequestLimiter limiter = getRequestLimiterOrNull(config);
       ErrorRequestLimiter errorLimiter = getErrorRequestLimiterOrNull(config);
       LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
+      applyGlobalConfig(config);
       httpHandler = new LanguageToolHttpHandler(config, allowedIps, runInternally, limiter, errorLimiter, workQueue);
       server.createContext("/", httpHandler);
+      registerStatistics();
       executorService = getExecutorService(workQueue, config);
       server.setExecutor(executorService);
       if (config.getWarmUp()) {
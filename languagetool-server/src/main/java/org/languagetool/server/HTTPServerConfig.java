@@ -41,6 +41,9 @@ public class HTTPServerConfig {
 
   enum Mode { LanguageTool }
 
+  /** @since 4.4 */
+  enum CheckSchedulerType { FIFO, PRIORITY }
+
   public static final String DEFAULT_HOST = "localhost";
 
   /** The default port on which the server is running (8081). */
@@ -70,10 +73,21 @@ public class HTTPServerConfig {
   protected boolean trustXForwardForHeader;
   protected int maxWorkQueueSize;
   protected File rulesConfigFile = null;
+  protected File ruleSnapshotDir = null;
   protected int cacheSize = 0;
+  protected int offHeapCacheSizeInMB = 0;
+  protected String remoteCache = null;
+  protected int remoteCacheTimeoutMillis = 20;
+  protected boolean pipelineCaching = false;
+  protected int maxPipelinePoolSize = 5;
+  protected int pipelineExpireTimeInSeconds = 10 * 60;
+  protected boolean ruleMetrics = false;
   protected boolean warmUp = false;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
+  protected int maxBatchSize = 100;
+  protected CheckSchedulerType checkScheduler = CheckSchedulerType.FIFO;
+  protected float premiumCheckShare = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
   protected String hiddenMatchesServer;
   protected int hiddenMatchesServerTimeout;
@@ -205,10 +219,33 @@ public class HTTPServerConfig {
             throw new RuntimeException("Rules Configuration file can not be found: " + rulesConfigFile);
           }
         }
+        String ruleSnapshotDirPath = getOptionalProperty(props, "ruleSnapshotDir", null);
+        if (ruleSnapshotDirPath != null) {
+          ruleSnapshotDir = new File(ruleSnapshotDirPath);
+        }
         cacheSize = Integer.parseInt(getOptionalProperty(props, "cacheSize", "0"));
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
+        offHeapCacheSizeInMB = Integer.parseInt(getOptionalProperty(props, "offHeapCacheSizeInMB", "0"));
+        if (offHeapCacheSizeInMB < 0) {
+          throw new IllegalArgumentException("Invalid value for offHeapCacheSizeInMB: " + offHeapCacheSizeInMB + ", use 0 to deactivate off-heap cache");
+        }
+        remoteCache = getOptionalProperty(props, "remoteCache", null);
+        remoteCacheTimeoutMillis = Integer.parseInt(getOptionalProperty(props, "remoteCacheTimeoutMillis", "20"));
+        if (remoteCacheTimeoutMillis <= 0) {
+          throw new IllegalArgumentException("Invalid value for remoteCacheTimeoutMillis, must be > 0: " + remoteCacheTimeoutMillis);
+        }
+        pipelineCaching = Boolean.valueOf(getOptionalProperty(props, "pipelineCaching", "false"));
+        maxPipelinePoolSize = Integer.parseInt(getOptionalProperty(props, "maxPipelinePoolSize", "5"));
+        if (maxPipelinePoolSize < 1) {
+          throw new IllegalArgumentException("Invalid value for maxPipelinePoolSize, must be >= 1: " + maxPipelinePoolSize);
+        }
+        pipelineExpireTimeInSeconds = Integer.parseInt(getOptionalProperty(props, "pipelineExpireTimeInSeconds", "600"));
+        if (pipelineExpireTimeInSeconds < 1) {
+          throw new IllegalArgumentException("Invalid value for pipelineExpireTimeInSeconds, must be >= 1: " + pipelineExpireTimeInSeconds);
+        }
+        ruleMetrics = Boolean.valueOf(getOptionalProperty(props, "ruleMetrics", "false"));
         String warmUpStr = getOptionalProperty(props, "warmUp", "false");
         if (warmUpStr.equals("true")) {
           warmUp = true;
@@ -219,6 +256,19 @@ public class HTTPServerConfig {
         }
         maxErrorsPerWordRate = Float.parseFloat(getOptionalProperty(props, "maxErrorsPerWordRate", "0"));
         maxSpellingSuggestions = Integer.parseInt(getOptionalProperty(props, "maxSpellingSuggestions", "0"));
+        maxBatchSize = Integer.parseInt(getOptionalProperty(props, "maxBatchSize", "100"));
+        String checkSchedulerStr = getOptionalProperty(props, "checkScheduler", "fifo");
+        if (checkSchedulerStr.equals("fifo")) {
+          checkScheduler = CheckSchedulerType.FIFO;
+        } else if (checkSchedulerStr.equals("priority")) {
+          checkScheduler = CheckSchedulerType.PRIORITY;
+        } else {
+          throw new IllegalArgumentException("Invalid value for checkScheduler: '" + checkSchedulerStr + "', use 'fifo' or 'priority'");
+        }
+        premiumCheckShare = Float.parseFloat(getOptionalProperty(props, "premiumCheckShare", "0"));
+        if (premiumCheckShare < 0 || premiumCheckShare >= 1) {
+          throw new IllegalArgumentException("Invalid value for premiumCheckShare, must be >= 0 and < 1: " + premiumCheckShare);
+        }
         blockedReferrers = Arrays.asList(getOptionalProperty(props, "blockedReferrers", "").split(",\\s*"));
         hiddenMatchesServer = getOptionalProperty(props, "hiddenMatchesServer", null);
         hiddenMatchesServerTimeout = Integer.parseInt(getOptionalProperty(props, "hiddenMatchesServerTimeout", "1000"));
@@ -466,6 +516,17 @@ public class HTTPServerConfig {
     return maxWorkQueueSize;
   }
 
+  /**
+   * Directory for the snapshots of parsed rule files, or {@code null} to always parse them.
+   * @see org.languagetool.rules.patterns.XmlRuleSnapshot
+   * @since 4.4
+   */
+  @Nullable
+  @Experimental
+  File getRuleSnapshotDir() {
+    return ruleSnapshotDir;
+  }
+
   /**
    * Cache size (in number of sentences).
    * @since 3.7
@@ -482,6 +543,103 @@ public class HTTPServerConfig {
     this.cacheSize = sentenceCacheSize;
   }
 
+  /**
+   * Memory (in MB) used outside of the Java heap to cache rule matches, 0 to keep them
+   * on the heap. If set, {@link #getCacheSize()} only applies to analyzed sentences.
+   * @since 4.4
+   */
+  int getOffHeapCacheSizeInMB() {
+    return offHeapCacheSizeInMB;
+  }
+
+  /**
+   * @since 4.4
+   */
+  void setOffHeapCacheSizeInMB(int offHeapCacheSizeInMB) {
+    this.offHeapCacheSizeInMB = offHeapCacheSizeInMB;
+  }
+
+  /**
+   * Host and port of a {@link ResultCacheServer} shared with other servers, used if
+   * rule matches are not found in the local cache, or {@code null}.
+   * @since 4.4
+   */
+  @Nullable
+  @Experimental
+  String getRemoteCache() {
+    return remoteCache;
+  }
+
+  /**
+   * @since 4.4
+   */
+  @Experimental
+  void setRemoteCache(String remoteCache) {
+    this.remoteCache = remoteCache;
+  }
+
+  /**
+   * Maximum time in milliseconds to wait for an answer of {@link #getRemoteCache()}.
+   * @since 4.4
+   */
+  @Experimental
+  int getRemoteCacheTimeoutMillis() {
+    return remoteCacheTimeoutMillis;
+  }
+
+  /**
+   * Whether pre-configured {@link org.languagetool.JLanguageTool} instances are kept in
+   * a pool and re-used for requests with the same language and rule configuration.
+   * @since 4.4
+   */
+  boolean isPipelineCachingEnabled() {
+    return pipelineCaching;
+  }
+
+  /** @since 4.4 */
+  void setPipelineCaching(boolean pipelineCaching) {
+    this.pipelineCaching = pipelineCaching;
+  }
+
+  /**
+   * Maximum number of idle pipelines kept in the pool (summed over all configurations).
+   * @since 4.4
+   */
+  int getMaxPipelinePoolSize() {
+    return maxPipelinePoolSize;
+  }
+
+  /** @since 4.4 */
+  void setMaxPipelinePoolSize(int maxPipelinePoolSize) {
+    this.maxPipelinePoolSize = maxPipelinePoolSize;
+  }
+
+  /**
+   * Time after which an unused pipeline is removed from the pool.
+   * @since 4.4
+   */
+  int getPipelineExpireTimeInSeconds() {
+    return pipelineExpireTimeInSeconds;
+  }
+
+  /** @since 4.4 */
+  void setPipelineExpireTimeInSeconds(int pipelineExpireTimeInSeconds) {
+    this.pipelineExpireTimeInSeconds = pipelineExpireTimeInSeconds;
+  }
+
+  /**
+   * Whether statistics about the time spent in each rule are collected.
+   * @since 4.4
+   */
+  boolean isRuleMetricsEnabled() {
+    return ruleMetrics;
+  }
+
+  /** @since 4.4 */
+  void setRuleMetrics(boolean ruleMetrics) {
+    this.ruleMetrics = ruleMetrics;
+  }
+
   /** @since 3.7 */
   boolean getWarmUp() {
     return warmUp;
@@ -507,6 +665,53 @@ public class HTTPServerConfig {
     return maxSpellingSuggestions;
   }
 
+  /**
+   * Maximum number of texts in one request to {@code /v2/check/batch}.
+   * @since 4.4
+   */
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * @since 4.4
+   */
+  void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * How checks are scheduled: {@code FIFO} starts them in the order in which they arrive,
+   * {@code PRIORITY} uses a {@link PriorityCheckScheduler}.
+   * @since 4.4
+   */
+  CheckSchedulerType getCheckScheduler() {
+    return checkScheduler;
+  }
+
+  /**
+   * @since 4.4
+   */
+  void setCheckScheduler(CheckSchedulerType checkScheduler) {
+    this.checkScheduler = Objects.requireNonNull(checkScheduler);
+  }
+
+  /**
+   * The share of {@link #getMaxCheckThreads()} reserved for premium users, only used
+   * with the {@code PRIORITY} scheduler.
+   * @since 4.4
+   */
+  float getPremiumCheckShare() {
+    return premiumCheckShare;
+  }
+
+  /**
+   * @since 4.4
+   */
+  void setPremiumCheckShare(float premiumCheckShare) {
+    this.premiumCheckShare = premiumCheckShare;
+  }
+
   /**
    * A list of HTTP referrers that are blocked and will only get an error message.
    * @since 4.2
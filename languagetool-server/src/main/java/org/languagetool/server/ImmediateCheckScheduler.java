@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts every check immediately, so checks run in the order in which the server's
+ * threads take the requests. This is the default.
+ * @since 4.4
+ */
+class ImmediateCheckScheduler extends CheckScheduler {
+
+  private final AtomicInteger running = new AtomicInteger();
+
+  @Override
+  void waitForStart(ScheduledCheck check) {
+    check.state = ScheduledCheck.State.STARTED;
+    running.incrementAndGet();
+    recordStart(check);
+  }
+
+  @Override
+  void finished(ScheduledCheck check) {
+    if (check.state == ScheduledCheck.State.STARTED) {
+      check.state = ScheduledCheck.State.FINISHED;
+      running.decrementAndGet();
+    }
+  }
+
+  @Override
+  int getWaitingCount() {
+    return 0;
+  }
+
+  @Override
+  int getRunningCount() {
+    return running.get();
+  }
+
+}
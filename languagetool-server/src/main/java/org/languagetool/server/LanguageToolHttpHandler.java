@@ -25,6 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.ErrorRateTooHighException;
+import org.languagetool.RuleMetrics;
 import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
@@ -63,6 +64,22 @@ class LanguageToolHttpHandler implements HttpHandler {
   void shutdown() {
   }
 
+  /**
+   * @return the rule statistics, or {@code null} if not enabled in the configuration
+   * @since 4.4
+   */
+  @Nullable
+  RuleMetrics getRuleMetrics() {
+    return textCheckerV2.getRuleMetrics();
+  }
+
+  /**
+   * @since 4.4
+   */
+  CheckScheduler getCheckScheduler() {
+    return textCheckerV2.getCheckScheduler();
+  }
+
   @Override
   public void handle(HttpExchange httpExchange) throws IOException {
     long startTime = System.currentTimeMillis();
@@ -70,6 +87,7 @@ class LanguageToolHttpHandler implements HttpHandler {
     Map<String, String> parameters = new HashMap<>();
     int reqId = reqCounter.incrementRequestCount();
     boolean incrementHandleCount = false;
+    boolean abortResponse = false;
     try {
       URI requestedUri = httpExchange.getRequestURI();
       if (requestedUri.getRawPath().startsWith("/v2/")) {
@@ -157,7 +175,7 @@ class LanguageToolHttpHandler implements HttpHandler {
       } else {
         String errorMessage = "Error: Access from " + StringTools.escapeXML(origAddress) + " denied";
         sendError(httpExchange, HttpURLConnection.HTTP_FORBIDDEN, errorMessage);
-        throw new RuntimeException(errorMessage);
+        logError(errorMessage, HttpURLConnection.HTTP_FORBIDDEN, parameters, httpExchange);
       }
     } catch (Exception e) {
       String response;
@@ -169,6 +187,10 @@ class LanguageToolHttpHandler implements HttpHandler {
         errorCode = HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
         response = e.getMessage();
         logStacktrace = false;
+      } else if (e instanceof CheckRejectedException || rootCause instanceof CheckRejectedException) {
+        errorCode = HttpURLConnection.HTTP_UNAVAILABLE;
+        response = e instanceof CheckRejectedException ? e.getMessage() : rootCause.getMessage();
+        logStacktrace = false;
       } else if (e instanceof ErrorRateTooHighException || rootCause instanceof ErrorRateTooHighException) {
         errorCode = HttpURLConnection.HTTP_BAD_REQUEST;
         response = ExceptionUtils.getRootCause(e).getMessage();
@@ -190,14 +212,31 @@ class LanguageToolHttpHandler implements HttpHandler {
       }
       long endTime = System.currentTimeMillis();
       logError(remoteAddress, e, errorCode, httpExchange, parameters, textLoggingAllowed, logStacktrace, endTime-startTime);
-      sendError(httpExchange, errorCode, "Error: " + response);
+      if (canSendError(httpExchange)) {
+        sendError(httpExchange, errorCode, "Error: " + response);
+      } else {
+        abortResponse = true;
+      }
 
     } finally {
-      httpExchange.close();
+      if (!abortResponse) {
+        httpExchange.close();
+      }
       if (incrementHandleCount) {
         reqCounter.decrementHandleCount(reqId);
       }
     }
+    if (abortResponse) {
+      // Status and part of the result have been sent already, so closing the exchange would make the truncated
+      // result look complete. Not closing it and throwing instead makes the HTTP server close the connection
+      // without ending the chunked response, so the client gets an error for the incomplete transfer:
+      throw new IOException("Response aborted after an error, status code " + httpExchange.getResponseCode() + " had already been sent");
+    }
+  }
+
+  // an error can be sent as long as the response hasn't started or if the client expects a stream of events:
+  private boolean canSendError(HttpExchange httpExchange) {
+    return httpExchange.getResponseCode() == -1 || httpExchange.getAttribute(CheckResultStream.EXCHANGE_ATTRIBUTE) instanceof CheckResultStream;
   }
 
   private boolean hasCause(Exception e, Class<AuthException> clazz) {
@@ -216,8 +255,10 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   private boolean workQueueFull(HttpExchange httpExchange, String response) throws IOException {
-    if (config.getMaxWorkQueueSize() != 0 && workQueue.size() > config.getMaxWorkQueueSize()) {
-      print(response + ", sending code 503. Queue size: " + workQueue.size() + ", maximum size: " + config.getMaxWorkQueueSize() +
+    // checks waiting in the scheduler have left the work queue, but they are still queued:
+    int queueSize = workQueue.size() + textCheckerV2.getCheckScheduler().getWaitingCount();
+    if (config.getMaxWorkQueueSize() != 0 && queueSize > config.getMaxWorkQueueSize()) {
+      print(response + ", sending code 503. Queue size: " + queueSize + ", maximum size: " + config.getMaxWorkQueueSize() +
               ", handlers:" + reqCounter.getHandleCount() + ", r:" + reqCounter.getRequestCount());
       sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: " + response);
       return true;
@@ -235,6 +276,10 @@ class LanguageToolHttpHandler implements HttpHandler {
       if (data != null) {
         return "Data size: " + data.length() + ".";
       }
+      String items = parameters.get("items");
+      if (items != null) {
+        return "Items size: " + items.length() + ".";
+      }
     }
     return "";
   }
@@ -337,6 +382,11 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   private void sendError(HttpExchange httpExchange, int httpReturnCode, String response) throws IOException {
+    if (httpExchange.getResponseCode() != -1) {
+      // the response has already been started, so the client expects a stream of events (see canSendError()):
+      ((CheckResultStream) httpExchange.getAttribute(CheckResultStream.EXCHANGE_ATTRIBUTE)).sendError(response);
+      return;
+    }
     ServerTools.setAllowOrigin(httpExchange, config.getAllowOriginUrl());
     httpExchange.sendResponseHeaders(httpReturnCode, response.getBytes(ENCODING).length);
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
@@ -0,0 +1,248 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.ResultCache;
+import org.languagetool.RuleMetrics;
+import org.languagetool.UserConfig;
+import org.languagetool.gui.Configuration;
+import org.languagetool.tools.Tools;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.languagetool.server.ServerTools.print;
+
+/**
+ * A pool of pre-configured {@link JLanguageTool} instances ("pipelines"), so that the
+ * rules don't need to be loaded and configured again for every request. A pipeline is
+ * exclusively used by one request: get it with {@link #getPipeline(PipelineSettings)}
+ * and give it back with {@link #returnPipeline(PipelineSettings, JLanguageTool)}.
+ * If pipeline caching is disabled in the configuration, a new instance is created
+ * for every call and returned instances are just dropped.
+ * @since 4.4
+ */
+class PipelinePool {
+
+  private final HTTPServerConfig config;
+  private final ResultCache cache;
+  private final RuleMetrics ruleMetrics;
+  private final boolean internalServer;
+  private final Cache<PipelineSettings, Queue<IdlePipeline>> pool;
+  private final long expireTimeMillis;
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param ruleMetrics statistics that all pipelines add to, or {@code null}
+   */
+  PipelinePool(HTTPServerConfig config, ResultCache cache, RuleMetrics ruleMetrics, boolean internalServer) {
+    this.config = Objects.requireNonNull(config);
+    this.cache = cache;
+    this.ruleMetrics = ruleMetrics;
+    this.internalServer = internalServer;
+    this.expireTimeMillis = config.getPipelineExpireTimeInSeconds() * 1000L;
+    if (config.isPipelineCachingEnabled()) {
+      RemovalListener<PipelineSettings, Queue<IdlePipeline>> listener = notification -> {
+        if (notification.getValue() != null) {
+          idleCount.addAndGet(-notification.getValue().size());
+        }
+      };
+      pool = CacheBuilder.newBuilder()
+              .expireAfterAccess(config.getPipelineExpireTimeInSeconds(), TimeUnit.SECONDS)
+              .removalListener(listener)
+              .build();
+    } else {
+      pool = null;
+    }
+  }
+
+  /**
+   * Get a pipeline for the given settings, either from the pool or newly created.
+   * The caller has exclusive access to the pipeline until it gets returned.
+   */
+  JLanguageTool getPipeline(PipelineSettings settings) throws Exception {
+    if (pool != null) {
+      Queue<IdlePipeline> pipelines = getQueue(settings);
+      IdlePipeline idle;
+      long now = System.currentTimeMillis();
+      while ((idle = pipelines.poll()) != null) {
+        idleCount.decrementAndGet();
+        if (now - idle.returnTime < expireTimeMillis) {
+          hits.incrementAndGet();
+          return idle.lt;
+        }
+      }
+      misses.incrementAndGet();
+    }
+    return createPipeline(settings);
+  }
+
+  /**
+   * Give back a pipeline that was obtained with {@link #getPipeline(PipelineSettings)}. Do not
+   * return a pipeline whose check has not finished yet (e.g. after a timeout) - as it's still in use,
+   * it would be given to another request.
+   */
+  void returnPipeline(PipelineSettings settings, JLanguageTool lt) throws ExecutionException {
+    if (pool == null) {
+      return;
+    }
+    if (idleCount.incrementAndGet() > config.getMaxPipelinePoolSize()) {
+      // pool is full, let the garbage collector take care of this instance:
+      idleCount.decrementAndGet();
+      return;
+    }
+    getQueue(settings).add(new IdlePipeline(lt, System.currentTimeMillis()));
+  }
+
+  long getHitCount() {
+    return hits.get();
+  }
+
+  long getMissCount() {
+    return misses.get();
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  /**
+   * Hit rate between 0 and 1, or 0 if no pipelines have been requested yet.
+   */
+  double hitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private Queue<IdlePipeline> getQueue(PipelineSettings settings) throws ExecutionException {
+    return pool.get(settings, ConcurrentLinkedQueue::new);
+  }
+
+  /**
+   * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
+   */
+  private JLanguageTool createPipeline(PipelineSettings settings) throws Exception {
+    TextChecker.QueryParams params = settings.query;
+    JLanguageTool lt = new JLanguageTool(settings.lang, params.altLanguages, settings.motherTongue, cache, settings.userConfig);
+    lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
+    lt.setRuleMetrics(ruleMetrics);
+    if (config.getLanguageModelDir() != null) {
+      lt.activateLanguageModelRules(config.getLanguageModelDir());
+    }
+    if (config.getWord2VecModelDir () != null) {
+      lt.activateWord2VecModelRules(config.getWord2VecModelDir());
+    }
+    if (config.getRulesConfigFile() != null) {
+      configureFromRulesFile(lt, settings.lang);
+    } else {
+      configureFromGUI(lt, settings.lang);
+    }
+    if (params.useQuerySettings) {
+      Tools.selectRules(lt, new HashSet<>(params.disabledCategories), new HashSet<>(params.enabledCategories),
+              new HashSet<>(params.disabledRules), new HashSet<>(params.enabledRules), params.useEnabledOnly);
+    }
+    return lt;
+  }
+
+  private void configureFromRulesFile(JLanguageTool langTool, Language lang) throws IOException {
+    print("Using options configured in " + config.getRulesConfigFile());
+    // If we are explicitly configuring from rules, ignore the useGUIConfig flag
+    if (config.getRulesConfigFile() != null) {
+      org.languagetool.gui.Tools.configureFromRules(langTool, new Configuration(config.getRulesConfigFile()
+          .getCanonicalFile().getParentFile(), config.getRulesConfigFile().getName(), lang));
+    } else {
+      throw new RuntimeException("config.getRulesConfigFile() is null");
+    }
+  }
+
+  private void configureFromGUI(JLanguageTool langTool, Language lang) throws IOException {
+    Configuration config = new Configuration(lang);
+    if (internalServer && config.getUseGUIConfig()) {
+      print("Using options configured in the GUI");
+      org.languagetool.gui.Tools.configureFromRules(langTool, config);
+    }
+  }
+
+  /**
+   * Everything that's needed to set up a pipeline - two requests with equal settings
+   * can use the same pipeline.
+   */
+  static class PipelineSettings {
+
+    private final Language lang;
+    private final Language motherTongue;
+    private final TextChecker.QueryParams query;
+    private final UserConfig userConfig;
+
+    PipelineSettings(Language lang, Language motherTongue, TextChecker.QueryParams query, UserConfig userConfig) {
+      this.lang = Objects.requireNonNull(lang);
+      this.motherTongue = motherTongue;
+      this.query = Objects.requireNonNull(query);
+      this.userConfig = Objects.requireNonNull(userConfig);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      PipelineSettings other = (PipelineSettings) o;
+      return Objects.equals(lang, other.lang) &&
+             Objects.equals(motherTongue, other.motherTongue) &&
+             Objects.equals(query.altLanguages, other.query.altLanguages) &&
+             Objects.equals(query.enabledRules, other.query.enabledRules) &&
+             Objects.equals(query.disabledRules, other.query.disabledRules) &&
+             Objects.equals(query.enabledCategories, other.query.enabledCategories) &&
+             Objects.equals(query.disabledCategories, other.query.disabledCategories) &&
+             query.useEnabledOnly == other.query.useEnabledOnly &&
+             query.useQuerySettings == other.query.useQuerySettings &&
+             Objects.equals(userConfig, other.userConfig);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(lang, motherTongue, query.altLanguages, query.enabledRules, query.disabledRules,
+              query.enabledCategories, query.disabledCategories, query.useEnabledOnly, query.useQuerySettings, userConfig);
+    }
+  }
+
+  private static class IdlePipeline {
+    private final JLanguageTool lt;
+    private final long returnTime;
+    private IdlePipeline(JLanguageTool lt, long returnTime) {
+      this.lt = lt;
+      this.returnTime = returnTime;
+    }
+  }
+
+}
@@ -0,0 +1,184 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs at most a given number of checks at the same time. Waiting checks are started
+ * in the order of their priority, which is the earlier of
+ * <ul>
+ *   <li>the time at which the check would be done if it had started on arrival, so short
+ *   checks get ahead of long ones, but long checks don't wait forever, and</li>
+ *   <li>the latest time at which the check can start and still be done before its deadline.</li>
+ * </ul>
+ * The time a check takes is estimated from its text length and the time per character
+ * that previous checks for the same language took. A check that is still waiting when it
+ * can't be done before its deadline anymore is rejected. A share of the slots can be
+ * reserved for premium users.
+ * @since 4.4
+ */
+class PriorityCheckScheduler extends CheckScheduler {
+
+  private static final double DEFAULT_MILLIS_PER_CHAR = 0.5;
+  private static final long MIN_ESTIMATED_MILLIS = 5;
+  private static final int MIN_LENGTH_FOR_ESTIMATE = 100;  // shorter texts mostly measure the overhead
+  private static final double ESTIMATE_WEIGHT = 0.1;  // weight of a new measurement in the moving average
+
+  private final int maxRunning;
+  private final int maxRunningNonPremium;
+  private final Map<String, Double> millisPerChar = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final TreeSet<ScheduledCheck> waiting = new TreeSet<>(
+          Comparator.comparingLong((ScheduledCheck check) -> check.priority).thenComparingLong(check -> check.sequence));
+
+  private long sequence;
+  private int running;
+  private int runningNonPremium;
+
+  /**
+   * @param maxRunning the maximum number of checks running at the same time
+   * @param premiumShare the share of {@code maxRunning} that is reserved for premium users, from 0 (inclusive) to 1 (exclusive)
+   */
+  PriorityCheckScheduler(int maxRunning, float premiumShare) {
+    if (maxRunning < 1) {
+      throw new IllegalArgumentException("maxRunning must be > 0: " + maxRunning);
+    }
+    if (premiumShare < 0 || premiumShare >= 1) {
+      throw new IllegalArgumentException("premiumShare must be >= 0 and < 1: " + premiumShare);
+    }
+    this.maxRunning = maxRunning;
+    this.maxRunningNonPremium = Math.max(1, maxRunning - Math.round(maxRunning * premiumShare));
+  }
+
+  @Override
+  void waitForStart(ScheduledCheck check) throws InterruptedException {
+    check.estimatedMillis = estimateMillis(check);
+    check.priority = Math.min(check.createdMillis + check.estimatedMillis, check.getLatestStartMillis());
+    lock.lock();
+    try {
+      check.sequence = sequence++;
+      check.condition = lock.newCondition();
+      waiting.add(check);
+      startWaitingChecks();
+      while (check.state == ScheduledCheck.State.WAITING) {
+        long now = System.currentTimeMillis();
+        long latestStart = check.getLatestStartMillis();
+        if (now > latestStart) {
+          waiting.remove(check);
+          check.state = ScheduledCheck.State.REJECTED;
+        } else if (latestStart == Long.MAX_VALUE) {
+          check.condition.await();
+        } else {
+          check.condition.await(latestStart - now + 1, TimeUnit.MILLISECONDS);
+        }
+      }
+    } catch (InterruptedException e) {
+      if (check.state == ScheduledCheck.State.STARTED) {
+        finishedLocked(check);
+      } else {
+        waiting.remove(check);
+      }
+      throw e;
+    } finally {
+      lock.unlock();
+    }
+    if (check.state == ScheduledCheck.State.REJECTED) {
+      recordRejection();
+      throw new CheckRejectedException("The server is too busy to check your text within " +
+              (check.deadlineMillis - check.createdMillis) + "ms. Please try again later or consider submitting a shorter text.");
+    }
+    recordStart(check);
+  }
+
+  @Override
+  void finished(ScheduledCheck check) {
+    lock.lock();
+    try {
+      finishedLocked(check);
+    } finally {
+      lock.unlock();
+    }
+    if (check.textLength >= MIN_LENGTH_FOR_ESTIMATE) {
+      double measured = (System.currentTimeMillis() - check.startMillis) / (double) check.textLength;
+      millisPerChar.merge(check.costKey, measured, (old, value) -> old * (1 - ESTIMATE_WEIGHT) + value * ESTIMATE_WEIGHT);
+    }
+  }
+
+  private void finishedLocked(ScheduledCheck check) {
+    if (check.state == ScheduledCheck.State.STARTED) {
+      check.state = ScheduledCheck.State.FINISHED;
+      running--;
+      if (!check.premium) {
+        runningNonPremium--;
+      }
+      startWaitingChecks();
+    }
+  }
+
+  // must be called with the lock held:
+  private void startWaitingChecks() {
+    Iterator<ScheduledCheck> iterator = waiting.iterator();
+    while (running < maxRunning && iterator.hasNext()) {
+      ScheduledCheck check = iterator.next();
+      if (!check.premium && runningNonPremium >= maxRunningNonPremium) {
+        continue;  // the free slots are reserved for premium users
+      }
+      iterator.remove();
+      check.state = ScheduledCheck.State.STARTED;
+      running++;
+      if (!check.premium) {
+        runningNonPremium++;
+      }
+      check.condition.signal();
+    }
+  }
+
+  long estimateMillis(ScheduledCheck check) {
+    double perChar = millisPerChar.getOrDefault(check.costKey, DEFAULT_MILLIS_PER_CHAR);
+    return Math.max(MIN_ESTIMATED_MILLIS, Math.round(check.textLength * perChar));
+  }
+
+  @Override
+  int getWaitingCount() {
+    lock.lock();
+    try {
+      return waiting.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  int getRunningCount() {
+    lock.lock();
+    try {
+      return running;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+}
@@ -18,25 +18,32 @@
  */
 package org.languagetool.server;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 
-import java.util.Date;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * The time range is split into {@link #BUCKETS} buckets per IP address, so checking
+ * a request takes constant time, independent of the number of recent requests.
+ * As a consequence, requests drop out of the time range in steps of one bucket.
  */
 class RequestLimiter {
 
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  static final int BUCKETS = 10;
+
+  private final ConcurrentMap<String, RequestWindow> windows = new ConcurrentHashMap<>();
+  private final AtomicLong lastExpiry = new AtomicLong();
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
-  
   private final int requestLimit;
   private final int requestLimitInBytes;
   private final int requestLimitPeriodInSeconds;
+  private final long bucketMillis;
   private final Long server;
   private DatabaseLogger logger;
 
@@ -48,6 +55,7 @@ class RequestLimiter {
     this.requestLimit = requestLimit;
     this.requestLimitInBytes = requestLimitInBytes;
     this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+    this.bucketMillis = Math.max(1, requestLimitPeriodInSeconds * 1000L / BUCKETS);
     this.logger = DatabaseLogger.getInstance();
     if (this.logger.isLogging()) {
       DatabaseAccess db = DatabaseAccess.getInstance();
@@ -84,12 +92,14 @@ class RequestLimiter {
    * @throws TooManyRequestsException if access is not allowed because the request limit is reached
    */
   void checkAccess(String ipAddress, Map<String, String> params) {
+    JLanguageTool.Mode mode = ServerTools.getMode(params);
     int reqSize = getRequestSize(params);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
+    if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
+      reqSize /= 10;    // text level rules cause much less load, so count them accordingly
     }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize, ServerTools.getMode(params)));
-    checkLimit(ipAddress);
+    long bucket = currentBucket();
+    RequestWindow window = addRequest(ipAddress, reqSize, bucket);
+    checkLimit(ipAddress, window, bucket, mode);
   }
 
   private int getRequestSize(Map<String, String> params) {
@@ -101,67 +111,130 @@ class RequestLimiter {
       if (data != null) {
         return data.length();
       }
+      String items = params.get("items");
+      if (items != null) {
+        return items.length();
+      }
     }
     return 0;
   }
 
+  /**
+   * Count a request of the given size (after any discount) for {@code ipAddress}.
+   */
+  void addRequest(String ipAddress, int sizeInBytes) {
+    addRequest(ipAddress, sizeInBytes, currentBucket());
+  }
+
+  private RequestWindow addRequest(String ipAddress, int sizeInBytes, long bucket) {
+    // compute() makes sure we don't add to a window that's just being removed by removeExpiredWindows():
+    RequestWindow window = windows.compute(ipAddress, (ip, w) -> {
+      RequestWindow result = w != null ? w : new RequestWindow();
+      result.add(bucket, sizeInBytes);
+      return result;
+    });
+    removeExpiredWindows(bucket);
+    return window;
+  }
+
   void checkLimit(String ipAddress) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000);
-    for (RequestEvent event : requestEvents) {
-      if (event.ip.equals(ipAddress) && event.date.after(thresholdDate)) {
-        requestsByIp++;
-        if (requestLimit > 0 && requestsByIp > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress;
-          logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriod", server, null, null, msg, null, null));
-          throw new TooManyRequestsException("Request limit of " + requestLimit + " requests per " +
-                  requestLimitPeriodInSeconds + " seconds exceeded");
-        }
-        if (event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          requestSizeByIp += event.getSizeInBytes() / 10;    // text level rules cause much less load, so count them accordingly
-          if (requestLimitInBytes > 0 && requestSizeByIp > requestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
-            throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
-                    requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-        } else {
-          requestSizeByIp += event.getSizeInBytes();
-          if (requestLimitInBytes > 0 && requestSizeByIp > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
-            throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
-                    requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
+    RequestWindow window = windows.get(ipAddress);
+    if (window != null) {
+      checkLimit(ipAddress, window, currentBucket(), null);
+    }
+  }
+
+  private void checkLimit(String ipAddress, RequestWindow window, long bucket, @Nullable JLanguageTool.Mode mode) {
+    int requestsByIp = window.getRequestCount(bucket);
+    long requestSizeByIp = window.getRequestSize(bucket);
+    if (requestLimit > 0 && requestsByIp > requestLimit) {
+      String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriod", server, null, null, msg, null, null));
+      throw new TooManyRequestsException("Request limit of " + requestLimit + " requests per " +
+              requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    if (requestLimitInBytes > 0 && requestSizeByIp > requestLimitInBytes) {
+      if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
+        String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
+        logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
+        throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
+                requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
+      } else {
+        String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
+        logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
+        throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
+                requestLimitPeriodInSeconds + " seconds exceeded");
+      }
+    }
+  }
+
+  private long currentBucket() {
+    return System.currentTimeMillis() / bucketMillis;
+  }
+
+  // once per time period, one thread removes the windows of IP addresses without recent requests:
+  private void removeExpiredWindows(long bucket) {
+    long last = lastExpiry.get();
+    if (bucket - last >= BUCKETS && lastExpiry.compareAndSet(last, bucket)) {
+      for (String ipAddress : windows.keySet()) {
+        windows.computeIfPresent(ipAddress, (ip, w) -> w.isExpired(bucket) ? null : w);
       }
     }
   }
-  
-  protected static class RequestEvent {
-
-    private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
-    private final JLanguageTool.Mode mode;
-
-    RequestEvent(String ip, Date date, int sizeInBytes, JLanguageTool.Mode mode) {
-      this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
-      this.mode = mode;
+
+  /**
+   * The requests of one IP address, counted in a ring of buckets that together cover the time period.
+   */
+  private static class RequestWindow {
+
+    private final long[] bucketIds = new long[BUCKETS];
+    private final int[] requestCounts = new int[BUCKETS];
+    private final long[] requestSizes = new long[BUCKETS];
+    private long lastBucket;
+
+    RequestWindow() {
+      Arrays.fill(bucketIds, -1);
+    }
+
+    synchronized void add(long bucket, int sizeInBytes) {
+      int i = (int) (bucket % BUCKETS);
+      if (bucketIds[i] != bucket) {
+        bucketIds[i] = bucket;
+        requestCounts[i] = 0;
+        requestSizes[i] = 0;
+      }
+      requestCounts[i]++;
+      requestSizes[i] += sizeInBytes;
+      lastBucket = Math.max(lastBucket, bucket);
     }
 
-    protected Date getDate() {
-      return date;
+    synchronized int getRequestCount(long bucket) {
+      int count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        if (isCurrent(bucketIds[i], bucket)) {
+          count += requestCounts[i];
+        }
+      }
+      return count;
     }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+
+    synchronized long getRequestSize(long bucket) {
+      long size = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        if (isCurrent(bucketIds[i], bucket)) {
+          size += requestSizes[i];
+        }
+      }
+      return size;
+    }
+
+    synchronized boolean isExpired(long bucket) {
+      return !isCurrent(lastBucket, bucket);
     }
 
+    private static boolean isCurrent(long bucketId, long bucket) {
+      return bucketId > bucket - BUCKETS && bucketId <= bucket;
+    }
   }
 
 }
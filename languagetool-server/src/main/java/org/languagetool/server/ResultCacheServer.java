@@ -0,0 +1,171 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A simple in-memory cache server that several LanguageTool servers can share as the remote
+ * tier of their result cache (see the {@code remoteCache} option of {@link Server}).
+ * Entries are evicted when the configured memory is used up. The protocol works on plain
+ * TCP connections that can be used for several requests:
+ * <ul>
+ *   <li>get: byte {@code 1}, key length (int), key &rarr; value length (int, {@code -1} if not found), value</li>
+ *   <li>put: byte {@code 2}, key length (int), key, value length (int), value &rarr; no response</li>
+ * </ul>
+ * There's no authentication, so by default the server only listens on the loopback interface.
+ * If it needs to listen on other interfaces, only make the port accessible to the LanguageTool servers.
+ * @since 4.4
+ */
+public class ResultCacheServer implements Closeable {
+
+  static final int GET = 1;
+  static final int PUT = 2;
+  static final int MAX_KEY_LENGTH = 1024;
+  static final int MAX_VALUE_LENGTH = 16 * 1024 * 1024;
+
+  private final Cache<ByteBuffer, byte[]> cache;
+  private final ServerSocket serverSocket;
+  private final ExecutorService executorService;
+
+  /**
+   * Create a server that only accepts connections from the local machine.
+   * @param port the port to listen on, {@code 0} to use any free port
+   * @param maxSizeInBytes approximate memory to use for cache entries
+   */
+  public ResultCacheServer(int port, long maxSizeInBytes) throws IOException {
+    this(InetAddress.getLoopbackAddress(), port, maxSizeInBytes);
+  }
+
+  /**
+   * @param bindAddress the address to listen on, or {@code null} to listen on all interfaces
+   * @param port the port to listen on, {@code 0} to use any free port
+   * @param maxSizeInBytes approximate memory to use for cache entries
+   */
+  public ResultCacheServer(@Nullable InetAddress bindAddress, int port, long maxSizeInBytes) throws IOException {
+    this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .weigher((ByteBuffer key, byte[] value) -> key.capacity() + value.length)
+            .build();
+    this.serverSocket = new ServerSocket(port, 50, bindAddress);
+    this.executorService = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("lt-result-cache-server-%d").setDaemon(true).build());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Start accepting connections in the background.
+   */
+  public void start() {
+    executorService.execute(() -> {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          executorService.execute(() -> handleConnection(socket));
+        } catch (IOException e) {
+          if (!serverSocket.isClosed()) {
+            ServerTools.print("Could not accept connection to result cache: " + e);
+          }
+        }
+      }
+    });
+  }
+
+  private void handleConnection(Socket socket) {
+    try (Socket s = socket;
+         DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+      s.setTcpNoDelay(true);
+      int op;
+      while ((op = in.read()) != -1) {
+        ByteBuffer key = ByteBuffer.wrap(readBytes(in, MAX_KEY_LENGTH));
+        if (op == GET) {
+          byte[] value = cache.getIfPresent(key);
+          if (value != null) {
+            out.writeInt(value.length);
+            out.write(value);
+          } else {
+            out.writeInt(-1);
+          }
+          out.flush();
+        } else if (op == PUT) {
+          cache.put(key, readBytes(in, MAX_VALUE_LENGTH));
+        } else {
+          throw new IOException("Unknown operation: " + op);
+        }
+      }
+    } catch (EOFException | SocketException ignored) {
+      // client has closed the connection
+    } catch (IOException e) {
+      ServerTools.print("Closing result cache connection after error: " + e);
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in, int maxLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > maxLength) {
+      throw new IOException("Invalid length: " + length + ", maximum is " + maxLength);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  InetAddress getBindAddress() {
+    return serverSocket.getInetAddress();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    executorService.shutdownNow();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      System.out.println("Usage: " + ResultCacheServer.class.getSimpleName() + " <port> <sizeInMB> [bindAddress]");
+      System.out.println("  bindAddress: the address to listen on, default is the loopback interface, use 0.0.0.0 for all interfaces");
+      System.exit(1);
+    }
+    InetAddress bindAddress = args.length == 3 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+    ResultCacheServer server = new ResultCacheServer(bindAddress, Integer.parseInt(args[0]), Long.parseLong(args[1]) * 1024 * 1024);
+    server.start();
+    ServerTools.print("Result cache server started on " + bindAddress.getHostAddress() + ", port " + server.getPort());
+  }
+
+}
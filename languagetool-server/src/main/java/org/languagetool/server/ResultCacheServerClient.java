@@ -0,0 +1,144 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.RemoteResultCacheBackend;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Client for {@link ResultCacheServer}. Connections are kept open and re-used,
+ * a connection with an error is closed.
+ * @since 4.4
+ */
+class ResultCacheServerClient implements RemoteResultCacheBackend {
+
+  private final ConcurrentLinkedQueue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+  private final InetSocketAddress address;
+  private final int timeoutMillis;
+
+  private volatile boolean closed;
+
+  /**
+   * @param hostAndPort e.g. {@code localhost:8082}
+   */
+  ResultCacheServerClient(String hostAndPort, int timeoutMillis) {
+    int colon = hostAndPort.lastIndexOf(':');
+    if (colon <= 0) {
+      throw new IllegalArgumentException("Expected 'host:port': '" + hostAndPort + "'");
+    }
+    this.address = new InetSocketAddress(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(byte[] key) throws IOException {
+    Connection connection = getConnection();
+    try {
+      connection.out.write(ResultCacheServer.GET);
+      connection.out.writeInt(key.length);
+      connection.out.write(key);
+      connection.out.flush();
+      int length = connection.in.readInt();
+      byte[] value = null;
+      if (length >= 0) {
+        value = new byte[length];
+        connection.in.readFully(value);
+      }
+      returnConnection(connection);
+      return value;
+    } catch (IOException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void put(byte[] key, byte[] value) throws IOException {
+    Connection connection = getConnection();
+    try {
+      connection.out.write(ResultCacheServer.PUT);
+      connection.out.writeInt(key.length);
+      connection.out.write(key);
+      connection.out.writeInt(value.length);
+      connection.out.write(value);
+      connection.out.flush();
+      returnConnection(connection);
+    } catch (IOException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  private Connection getConnection() throws IOException {
+    if (closed) {
+      throw new IOException("Client has been closed");
+    }
+    Connection connection = idleConnections.poll();
+    return connection != null ? connection : new Connection(address, timeoutMillis);
+  }
+
+  private void returnConnection(Connection connection) {
+    idleConnections.add(connection);
+    if (closed) {
+      close();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    Connection connection;
+    while ((connection = idleConnections.poll()) != null) {
+      connection.close();
+    }
+  }
+
+  private static class Connection {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    Connection(InetSocketAddress address, int timeoutMillis) throws IOException {
+      socket = new Socket();
+      try {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis);
+        socket.connect(address, timeoutMillis);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      } catch (IOException e) {
+        close();
+        throw e;
+      }
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException ignored) {}
+    }
+  }
+
+}
@@ -19,6 +19,7 @@
 package org.languagetool.server;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
@@ -34,16 +35,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 
 /**
  * Extend results by adding rules matches from a different API server.
+ * One instance is meant to be shared by all requests: it uses at most {@code maxParallelRequests}
+ * connections at the same time and keeps them open for the next request (HTTP keep-alive).
  * @since 4.0
  */
 @Experimental
@@ -52,14 +54,44 @@ class ResultExtender {
   private final URL url;
   private final int connectTimeoutMillis;
   private final ObjectMapper mapper = new ObjectMapper();
-  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final ThreadPoolExecutor executor;
 
   ResultExtender(String url, int connectTimeoutMillis) {
+    this(url, connectTimeoutMillis, 1);
+  }
+
+  /**
+   * @param maxParallelRequests maximum number of requests to the server running at the same time, the
+   *                            same number of requests can wait, further requests are rejected
+   * @since 4.4
+   */
+  ResultExtender(String url, int connectTimeoutMillis, int maxParallelRequests) {
     this.url = Tools.getUrl(url);
     if (connectTimeoutMillis <= 0) {
       throw new IllegalArgumentException("connectTimeoutMillis must be > 0: " + connectTimeoutMillis);
     }
+    if (maxParallelRequests <= 0) {
+      throw new IllegalArgumentException("maxParallelRequests must be > 0: " + maxParallelRequests);
+    }
     this.connectTimeoutMillis = connectTimeoutMillis;
+    this.executor = new ThreadPoolExecutor(maxParallelRequests, maxParallelRequests, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxParallelRequests), new ThreadFactoryBuilder().setNameFormat("lt-result-extender-%d").setDaemon(true).build());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * The time (in milliseconds) the server may take for a request: the connect timeout plus the read timeout.
+   * @since 4.4
+   */
+  int getTimeoutMillis() {
+    return connectTimeoutMillis * 3;
+  }
+
+  /**
+   * @since 4.4
+   */
+  void shutdownNow() {
+    executor.shutdownNow();
   }
 
   /**
@@ -77,30 +109,43 @@ class ResultExtender {
     return filteredExtMatches;
   }
 
+  /**
+   * Start querying the server in the background, so that the local check can run at the same time.
+   * @throws RejectedExecutionException if too many requests to the server are running or waiting already
+   */
   @NotNull
-  Future<List<RemoteRuleMatch>> getExtensionMatchesFuture(String plainText, Language lang) throws IOException, XMLStreamException {
+  Future<List<RemoteRuleMatch>> getExtensionMatchesFuture(String plainText, Language lang) {
     return executor.submit(() -> getExtensionMatches(plainText, lang));
   }  
   
   @NotNull
   List<RemoteRuleMatch> getExtensionMatches(String plainText, Language lang) throws IOException, XMLStreamException {
     HttpURLConnection huc = (HttpURLConnection) url.openConnection();
-    HttpURLConnection.setFollowRedirects(false);
+    huc.setInstanceFollowRedirects(false);
     huc.setConnectTimeout(connectTimeoutMillis);
     huc.setReadTimeout(connectTimeoutMillis*2);
     huc.setRequestMethod("POST");
     huc.setDoOutput(true);
+    boolean success = false;
     try {
       huc.connect();
       try (DataOutputStream wr = new DataOutputStream(huc.getOutputStream())) {
-        String urlParameters = "language=" + lang.getShortCodeWithCountryAndVariant() + "&text=" + plainText;
+        String urlParameters = "language=" + lang.getShortCodeWithCountryAndVariant() +
+                               "&text=" + URLEncoder.encode(plainText, "UTF-8");
         byte[] postData = urlParameters.getBytes(StandardCharsets.UTF_8);
         wr.write(postData);
       }
-      InputStream input = huc.getInputStream();
-      return parseJson(input);
+      List<RemoteRuleMatch> matches;
+      // reading the response completely and closing the stream (instead of disconnecting) lets the connection be re-used:
+      try (InputStream input = huc.getInputStream()) {
+        matches = parseJson(input);
+      }
+      success = true;
+      return matches;
     } finally {
-      huc.disconnect();
+      if (!success) {
+        huc.disconnect();
+      }
     }
   }
 
@@ -0,0 +1,73 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.RuleMetrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * @since 4.4
+ */
+public class RuleStatistics implements RuleStatisticsMBean {
+
+  private final RuleMetrics ruleMetrics;
+
+  RuleStatistics(RuleMetrics ruleMetrics) {
+    this.ruleMetrics = Objects.requireNonNull(ruleMetrics);
+  }
+
+  @Override
+  public Map<String, Long> getTimeMillis() {
+    return getValues(stats -> stats.getTime(TimeUnit.MILLISECONDS));
+  }
+
+  @Override
+  public Map<String, Long> getInvocations() {
+    return getValues(RuleMetrics.RuleStats::getInvocations);
+  }
+
+  @Override
+  public Map<String, Long> getSkips() {
+    return getValues(RuleMetrics.RuleStats::getSkips);
+  }
+
+  @Override
+  public Map<String, Long> getMatches() {
+    return getValues(RuleMetrics.RuleStats::getMatches);
+  }
+
+  @Override
+  public void reset() {
+    ruleMetrics.reset();
+  }
+
+  private Map<String, Long> getValues(ToLongFunction<RuleMetrics.RuleStats> value) {
+    Map<String, Long> result = new HashMap<>();
+    for (RuleMetrics.RuleStats stats : ruleMetrics.getStats().values()) {
+      result.put(stats.getRuleId(), value.applyAsLong(stats));
+    }
+    return result;
+  }
+
+}
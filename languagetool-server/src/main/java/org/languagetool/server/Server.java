@@ -24,8 +24,13 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
+import org.languagetool.RuleMetrics;
+import org.languagetool.rules.patterns.XmlRuleSnapshot;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -54,6 +59,7 @@ abstract class Server {
   protected LanguageToolHttpHandler httpHandler;
 
   private boolean isRunning;
+  private final List<ObjectName> statisticsNames = new ArrayList<>();
 
   /**
    * Start the server.
@@ -74,6 +80,7 @@ abstract class Server {
     if (httpHandler != null) {
       httpHandler.shutdown();
     }
+    unregisterStatistics();
     if (server != null) {
       System.out.println("Stopping server...");
       server.stop(5);
@@ -82,6 +89,39 @@ abstract class Server {
     }
   }
 
+  /**
+   * Make the rule statistics (if they are enabled in the configuration) and the statistics
+   * of the priority check scheduler (if used) available via JMX.
+   * @since 4.4
+   */
+  protected void registerStatistics() throws JMException {
+    RuleMetrics ruleMetrics = httpHandler.getRuleMetrics();
+    if (ruleMetrics != null) {
+      registerMBean(new RuleStatistics(ruleMetrics), "org.languagetool:name=RuleStatistics, type=RuleStatistics");
+    }
+    CheckScheduler checkScheduler = httpHandler.getCheckScheduler();
+    if (checkScheduler instanceof PriorityCheckScheduler) {
+      registerMBean(new CheckSchedulerStatistics(checkScheduler), "org.languagetool:name=CheckSchedulerStatistics, type=CheckSchedulerStatistics");
+    }
+  }
+
+  private void registerMBean(Object mBean, String name) throws JMException {
+    ObjectName objectName = ObjectName.getInstance(name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, objectName);
+    statisticsNames.add(objectName);
+  }
+
+  private void unregisterStatistics() {
+    for (ObjectName name : statisticsNames) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+      } catch (JMException e) {
+        System.err.println("Could not unregister " + name + ": " + e);
+      }
+    }
+    statisticsNames.clear();
+  }
+
   /**
    * @return whether the server is running
    * @since 2.0
@@ -90,6 +130,17 @@ abstract class Server {
     return isRunning;
   }
 
+  /**
+   * Apply the settings that affect the whole process, like the directory for rule snapshots.
+   * Needs to be called before the handler is created, as that loads the languages.
+   * @since 4.4
+   */
+  protected void applyGlobalConfig(HTTPServerConfig config) {
+    if (config.getRuleSnapshotDir() != null) {
+      XmlRuleSnapshot.setSnapshotDir(config.getRuleSnapshotDir());
+    }
+  }
+
   @Nullable
   protected RequestLimiter getRequestLimiterOrNull(HTTPServerConfig config) {
     int requestLimit = config.getRequestLimit();
@@ -125,8 +176,24 @@ abstract class Server {
     System.out.println("                 'maxErrorsPerWordRate' - checking will stop with error if there are more rules matches per word (optional)");
     System.out.println("                 'maxSpellingSuggestions' - only this many spelling errors will have suggestions for performance reasons (optional,\n" +
                        "                                            affects Hunspell-based languages only)");
+    System.out.println("                 'maxBatchSize' - maximum number of texts per request to /v2/check/batch (optional, default: 100)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
+    System.out.println("                 'checkScheduler' - 'fifo' to start checks in the order they arrive, 'priority' to start short checks and checks close");
+    System.out.println("                  to their deadline first and to reject checks that cannot finish within maxCheckTimeMillis (optional, default: fifo)");
+    System.out.println("                 'premiumCheckShare' - share of maxCheckThreads reserved for premium users if checkScheduler is 'priority' (optional, default: 0)");
+    System.out.println("                 'ruleSnapshotDir' - directory for binary snapshots of the XML rule files, which makes loading the rules faster");
+    System.out.println("                  after the first start, created if needed (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
+    System.out.println("                 'offHeapCacheSizeInMB' - memory for caching rule matches outside of the Java heap, which avoids long garbage");
+    System.out.println("                  collection pauses with large caches; cacheSize then only applies to analyzed sentences (optional, default: 0)");
+    System.out.println("                 'remoteCache' - 'host:port' of a ResultCacheServer shared by several servers, asked for rule matches not found");
+    System.out.println("                  in the local cache (optional)");
+    System.out.println("                 'remoteCacheTimeoutMillis' - maximum time to wait for the remoteCache, it's skipped for a second after");
+    System.out.println("                  a timeout (optional, default: 20)");
+    System.out.println("                 'pipelineCaching' - set to 'true' to re-use pre-configured checker instances across requests (optional, default: false)");
+    System.out.println("                 'maxPipelinePoolSize' - maximum number of idle checker instances kept if pipelineCaching is on (optional, default: 5)");
+    System.out.println("                 'pipelineExpireTimeInSeconds' - time after which unused checker instances are discarded (optional, default: 600)");
+    System.out.println("                 'ruleMetrics' - set to 'true' to collect time and match statistics per rule, available via JMX and /v2/metrics (optional, default: false)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -170,6 +237,10 @@ abstract class Server {
   
   protected ThreadPoolExecutor getExecutorService(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
     int threadPoolSize = config.getMaxCheckThreads();
+    if (config.getCheckScheduler() == HTTPServerConfig.CheckSchedulerType.PRIORITY) {
+      // the scheduler limits the number of checks running, more threads are needed so that checks can wait in the scheduler:
+      threadPoolSize *= 4;
+    }
     System.out.println("Setting up thread pool with " + threadPoolSize + " threads");
     return new StoppingThreadPoolExecutor(threadPoolSize, workQueue);
   }
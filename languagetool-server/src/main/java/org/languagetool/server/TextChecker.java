@@ -18,19 +18,20 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
-import org.languagetool.gui.Configuration;
 import org.languagetool.language.LanguageIdentifier;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.RuleMatch;
-import org.languagetool.tools.Tools;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -46,8 +47,17 @@ import static org.languagetool.server.ServerTools.print;
 abstract class TextChecker {
 
   protected abstract void setHeaders(HttpExchange httpExchange);
-  protected abstract String getResponse(AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
-                                        List<RuleMatch> hiddenMatches, String incompleteResultReason);
+  /**
+   * Write the response directly to {@code out}, which is not closed.
+   * @since 4.4
+   */
+  protected abstract void writeResponse(OutputStream out, AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
+                                        List<RuleMatch> hiddenMatches, String incompleteResultReason) throws IOException;
+  /**
+   * Write the response of a {@code /v2/check/batch} request directly to {@code out}, which is not closed.
+   * @since 4.4
+   */
+  protected abstract void writeBatchResponse(OutputStream out, List<BatchResult> results) throws IOException;
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants);
@@ -61,8 +71,8 @@ abstract class TextChecker {
 
   protected final HTTPServerConfig config;
 
-  private static final String ENCODING = "UTF-8";
   private static final int CACHE_STATS_PRINT = 500; // print cache stats every n cache requests
+  private static final int REMOTE_CACHE_SOCKET_TIMEOUT_MILLIS = 1000;
   
   private final Map<String,Integer> languageCheckCounts = new HashMap<>(); 
   private final boolean internalServer;
@@ -71,6 +81,10 @@ abstract class TextChecker {
   private final LanguageIdentifier identifier;
   private final ExecutorService executorService;
   private final ResultCache cache;
+  private final PipelinePool pipelinePool;
+  private final RuleMetrics ruleMetrics;
+  private final CheckScheduler checkScheduler;
+  private final ResultExtender resultExtender;
   private final DatabaseLogger logger;
   private final Long logServerId;
 
@@ -82,7 +96,12 @@ abstract class TextChecker {
     this.identifier = new LanguageIdentifier();
     this.identifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel());
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(config.getCacheSize()) : null;
+    this.cache = createCache(config);
+    this.ruleMetrics = config.isRuleMetricsEnabled() ? new RuleMetrics() : null;
+    this.pipelinePool = new PipelinePool(config, cache, ruleMetrics, internalServer);
+    this.checkScheduler = CheckScheduler.create(config);
+    this.resultExtender = config.getHiddenMatchesServer() != null ?
+            new ResultExtender(config.getHiddenMatchesServer(), config.getHiddenMatchesServerTimeout(), config.getMaxCheckThreads()) : null;
     this.logger = DatabaseLogger.getInstance();
     if (logger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -91,12 +110,63 @@ abstract class TextChecker {
     }
   }
 
+  @Nullable
+  private static ResultCache createCache(HTTPServerConfig config) {
+    ResultCache cache;
+    if (config.getOffHeapCacheSizeInMB() > 0) {
+      cache = new OffHeapResultCache(config.getOffHeapCacheSizeInMB() * 1024L * 1024L, config.getCacheSize() / 2);
+    } else {
+      cache = config.getCacheSize() > 0 ? new ResultCache(config.getCacheSize()) : null;
+    }
+    if (config.getRemoteCache() != null) {
+      // the socket timeout only closes broken connections, TwoTierResultCache doesn't wait that long:
+      ResultCacheServerClient client = new ResultCacheServerClient(config.getRemoteCache(), REMOTE_CACHE_SOCKET_TIMEOUT_MILLIS);
+      cache = new TwoTierResultCache(cache != null ? cache : new ResultCache(0), client, config.getRemoteCacheTimeoutMillis());
+    }
+    return cache;
+  }
+
   void shutdownNow() {
     executorService.shutdownNow();
+    if (resultExtender != null) {
+      resultExtender.shutdownNow();
+    }
+    if (cache instanceof TwoTierResultCache) {
+      try {
+        ((TwoTierResultCache) cache).close();
+      } catch (IOException e) {
+        print("Could not close remote cache: " + e);
+      }
+    }
+  }
+
+  /**
+   * Statistics about the rules run by this checker, or {@code null} if not enabled in the configuration.
+   * @since 4.4
+   */
+  @Nullable
+  RuleMetrics getRuleMetrics() {
+    return ruleMetrics;
+  }
+
+  /**
+   * @since 4.4
+   */
+  CheckScheduler getCheckScheduler() {
+    return checkScheduler;
   }
   
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
                  String remoteAddress) throws Exception {
+    checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress, null);
+  }
+
+  /**
+   * @param streamFormat if not {@code null}, send matches while checking is still in progress, see {@link CheckResultStream}
+   * @since 4.4
+   */
+  void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
+                 String remoteAddress, @Nullable CheckResultStream.Format streamFormat) throws Exception {
     checkParams(parameters);
     long timeStart = System.currentTimeMillis();
     UserLimits limits = ServerTools.getUserLimits(parameters, config);
@@ -118,9 +188,7 @@ abstract class TextChecker {
       throw new TextTooLongException("Your text exceeds the limit of " + limits.getMaxTextLength() +
               " characters (it's " + aText.getPlainText().length() + " characters). Please submit a shorter text.");
     }
-    UserConfig userConfig = new UserConfig(
-            limits.getPremiumUid() != null ? getUserDictWords(limits.getPremiumUid()) : Collections.emptyList(),
-            new HashMap<>(), config.getMaxSpellingSuggestions());
+    UserConfig userConfig = getUserConfig(limits);
     //print("Check start: " + text.length() + " chars, " + langParam);
     boolean autoDetectLanguage = getLanguageAutoDetect(parameters);
     List<String> preferredVariants = getPreferredVariants(parameters);
@@ -135,38 +203,8 @@ abstract class TextChecker {
     //print("Starting check: " + aText.getPlainText().length() + " chars, #" + count);
     String motherTongueParam = parameters.get("motherTongue");
     Language motherTongue = motherTongueParam != null ? Languages.getLanguageForShortCode(motherTongueParam) : null;
-    boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly")) || "true".equals(parameters.get("enabledOnly"));
-    List<Language> altLanguages = new ArrayList<>();
-    if (parameters.get("altLanguages") != null) {
-      String[] altLangParams = parameters.get("altLanguages").split(",\\s*");
-      for (String langCode : altLangParams) {
-        Language altLang = Languages.getLanguageForShortCode(langCode);
-        altLanguages.add(altLang);
-        if (altLang.hasVariant() && !altLang.isVariant()) {
-          throw new IllegalArgumentException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
-        }
-      }
-    }
-    List<String> enabledRules = getEnabledRuleIds(parameters);
-
-    List<String> disabledRules = getDisabledRuleIds(parameters);
-    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", parameters);
-    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", parameters);
-
-    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
-      throw new IllegalArgumentException("You cannot specify disabled rules or categories using enabledOnly=true");
-    }
-    if (enabledRules.size() == 0 && enabledCategories.size() == 0 && useEnabledOnly) {
-      throw new IllegalArgumentException("You must specify enabled rules or categories when using enabledOnly=true");
-    }
-
-    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
-            enabledCategories.size() > 0 || disabledCategories.size() > 0;
-    boolean allowIncompleteResults = "true".equals(parameters.get("allowIncompleteResults"));
-    boolean enableHiddenRules = "true".equals(parameters.get("enableHiddenRules"));
-    JLanguageTool.Mode mode = ServerTools.getMode(parameters);
-    QueryParams params = new QueryParams(altLanguages, enabledRules, disabledRules, enabledCategories, disabledCategories, 
-            useEnabledOnly, useQuerySettings, allowIncompleteResults, enableHiddenRules, mode);
+    QueryParams params = getQueryParams(parameters);
+    JLanguageTool.Mode mode = params.mode;
 
     Long textSessionId = null;
     try {
@@ -179,87 +217,140 @@ abstract class TextChecker {
 
 
     List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
-    
-    Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
-      @Override
-      public List<RuleMatch> call() throws Exception {
-        // use to fake OOM in thread for testing:
-        /*if (Math.random() < 0.1) {
-          throw new OutOfMemoryError();
-        }*/
-        return getRuleMatches(aText, lang, motherTongue, params, userConfig, f -> ruleMatchesSoFar.add(f));
+    CancellationToken cancellationToken = new CancellationToken();
+    CheckResultStream stream = streamFormat != null ? new CheckResultStream(httpExchange, streamFormat, aText, CONTEXT_SIZE) : null;
+    CheckScheduler.ScheduledCheck scheduledCheck = new CheckScheduler.ScheduledCheck(lang, textSize, limits.getPremiumUid() != null,
+            timeStart, limits.getMaxCheckTimeMillis() < 0 ? Long.MAX_VALUE : timeStart + limits.getMaxCheckTimeMillis());
+    checkScheduler.waitForStart(scheduledCheck);
+    // query the hidden matches server while we check locally:
+    Future<List<RemoteRuleMatch>> extensionMatchesFuture = null;
+    long extensionMatchesStart = System.currentTimeMillis();
+    if (resultExtender != null && params.enableHiddenRules && config.getHiddenMatchesLanguages().contains(lang)) {
+      try {
+        extensionMatchesFuture = resultExtender.getExtensionMatchesFuture(aText.getPlainText(), lang);
+      } catch (RejectedExecutionException e) {
+        print("Warn: Too many requests to hidden matches server at " + config.getHiddenMatchesServer() + ", skipping hidden matches");
       }
-    });
+    }
     String incompleteResultReason = null;
     List<RuleMatch> matches;
-    if (limits.getMaxCheckTimeMillis() < 0) {
-      matches = future.get();
-    } else {
-      try {
-        matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
-      } catch (ExecutionException e) {
-        future.cancel(true);
-
-        if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
-          logger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + ruleMatchesSoFar.size()));
+    Future<List<RuleMatch>> future = null;
+    try {
+      future = executorService.submit(new Callable<List<RuleMatch>>() {
+        @Override
+        public List<RuleMatch> call() throws Exception {
+          // use to fake OOM in thread for testing:
+          /*if (Math.random() < 0.1) {
+            throw new OutOfMemoryError();
+          }*/
+          return getRuleMatches(aText, lang, motherTongue, params, userConfig, cancellationToken, f -> {
+            ruleMatchesSoFar.add(f);
+            if (stream != null) {
+              stream.matchFound(f);
+            }
+          });
         }
+      });
+      if (stream != null) {
+        stream.sendHeaders(config.allowOriginUrl);
+        stream.sendMatchesUntilDone(future, limits.getMaxCheckTimeMillis() < 0 ? -1 : getRemainingMillis(scheduledCheck));
+      }
+      if (limits.getMaxCheckTimeMillis() < 0) {
+        matches = future.get();
+      } else {
+        try {
+          matches = future.get(getRemainingMillis(scheduledCheck), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+          cancellationToken.cancel();
+          future.cancel(true);
+
+          if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
+            logger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + ruleMatchesSoFar.size()));
+          }
 
-        if (params.allowIncompleteResults && ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
-          print(e.getMessage() + " - returning " + ruleMatchesSoFar.size() + " matches found so far. Detected language: " + detLang);
-          matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
-          incompleteResultReason = "Results are incomplete: " + ExceptionUtils.getRootCause(e).getMessage();
-        } else if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
-          throw (OutOfMemoryError)e.getCause();
-        } else {
-          throw new RuntimeException(e.getMessage() + ", detected: " + detLang, e);
-        }
-      } catch (TimeoutException e) {
-        boolean cancelled = future.cancel(true);
-        Path loadFile = Paths.get("/proc/loadavg");  // works in Linux only(?)
-        String loadInfo = loadFile.toFile().exists() ? Files.readAllLines(loadFile).toString() : "(unknown)";
-        if (errorRequestLimiter != null) {
-          errorRequestLimiter.logAccess(remoteAddress);
-        }
-        String message = "Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
-                         " milliseconds (cancelled: " + cancelled +
-                         ", lang: " + lang.getShortCodeWithCountryAndVariant() +
-                         ", detected: " + detLang +
-                         ", #" + count +
-                         ", " + aText.getPlainText().length() + " characters of text" +
-                         ", h: " + reqCounter.getHandleCount() + ", r: " + reqCounter.getRequestCount() + ", system load: " + loadInfo + ")";
-        if (params.allowIncompleteResults) {
-          print(message + " - returning " + ruleMatchesSoFar.size() + " matches found so far");
-          matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
-          incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " + 
-                  String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
-        } else {
-          logger.log(new DatabaseCheckErrorLogEntry("MaxCheckTimeExceeded",
-            logServerId, agentId, limits.getPremiumUid(), lang, detLang.getDetectedLanguage(), textSize, "load: "+ loadInfo));
-          throw new RuntimeException(message, e);
+          if (params.allowIncompleteResults && ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
+            print(e.getMessage() + " - returning " + ruleMatchesSoFar.size() + " matches found so far. Detected language: " + detLang);
+            matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+            incompleteResultReason = "Results are incomplete: " + ExceptionUtils.getRootCause(e).getMessage();
+          } else if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
+            throw (OutOfMemoryError)e.getCause();
+          } else {
+            throw new RuntimeException(e.getMessage() + ", detected: " + detLang, e);
+          }
+        } catch (TimeoutException e) {
+          // the token stops the check (including threads of a multi-threaded pipeline) at the next sentence, rule or token:
+          cancellationToken.cancel();
+          boolean cancelled = future.cancel(true);
+          Path loadFile = Paths.get("/proc/loadavg");  // works in Linux only(?)
+          String loadInfo = loadFile.toFile().exists() ? Files.readAllLines(loadFile).toString() : "(unknown)";
+          if (errorRequestLimiter != null) {
+            errorRequestLimiter.logAccess(remoteAddress);
+          }
+          String message = "Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
+                           " milliseconds (cancelled: " + cancelled +
+                           ", lang: " + lang.getShortCodeWithCountryAndVariant() +
+                           ", detected: " + detLang +
+                           ", #" + count +
+                           ", " + aText.getPlainText().length() + " characters of text" +
+                           ", h: " + reqCounter.getHandleCount() + ", r: " + reqCounter.getRequestCount() + ", system load: " + loadInfo + ")";
+          if (params.allowIncompleteResults) {
+            print(message + " - returning " + ruleMatchesSoFar.size() + " matches found so far");
+            matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+            incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " + 
+                    String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
+          } else {
+            logger.log(new DatabaseCheckErrorLogEntry("MaxCheckTimeExceeded",
+              logServerId, agentId, limits.getPremiumUid(), lang, detLang.getDetectedLanguage(), textSize, "load: "+ loadInfo));
+            throw new RuntimeException(message, e);
+          }
         }
       }
+    } catch (Exception e) {
+      // e.g. a stream client that disconnected - don't let the check run on after its slot has been released:
+      if (future != null && !future.isDone()) {
+        cancellationToken.cancel();
+        future.cancel(true);
+      }
+      if (extensionMatchesFuture != null) {
+        extensionMatchesFuture.cancel(true);
+      }
+      throw e;
+    } finally {
+      checkScheduler.finished(scheduledCheck);
     }
 
-    setHeaders(httpExchange);
+    if (stream == null) {
+      setHeaders(httpExchange);
+    }
     List<RuleMatch> hiddenMatches = new ArrayList<>();
-    if (config.getHiddenMatchesServer() != null && params.enableHiddenRules && config.getHiddenMatchesLanguages().contains(lang)) {
-      ResultExtender resultExtender = new ResultExtender(config.getHiddenMatchesServer(), config.getHiddenMatchesServerTimeout());
+    if (extensionMatchesFuture != null) {
       try {
-        long start = System.currentTimeMillis();
-        List<RemoteRuleMatch> extensionMatches = resultExtender.getExtensionMatches(aText.getPlainText(), lang);
+        // the remote request has its own time budget, counted from when it was started:
+        long remainingMillis = Math.max(0, resultExtender.getTimeoutMillis() - (System.currentTimeMillis() - extensionMatchesStart));
+        List<RemoteRuleMatch> extensionMatches = extensionMatchesFuture.get(remainingMillis, TimeUnit.MILLISECONDS);
         hiddenMatches = resultExtender.getFilteredExtensionMatches(matches, extensionMatches);
         long end = System.currentTimeMillis();
-        print("Hidden matches: " + extensionMatches.size() + " -> " + hiddenMatches.size() + " in " + (end-start) + "ms");
+        print("Hidden matches: " + extensionMatches.size() + " -> " + hiddenMatches.size() + " in " + (end-extensionMatchesStart) + "ms");
       } catch (Exception e) {
-        print("Warn: Failed to query hidden matches server at " + config.getHiddenMatchesServer() + ": " + e.getClass() + ": " + e.getMessage());
+        extensionMatchesFuture.cancel(true);
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        print("Warn: Failed to query hidden matches server at " + config.getHiddenMatchesServer() + ": " + cause.getClass() + ": " + cause.getMessage());
       }
     }
-    String response = getResponse(aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      if (stream != null) {
+        writeResponse(stream.startResult(), aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
+        stream.endResult();
+      } else {
+        // response length 0 means chunked transfer encoding, so we can stream the response without knowing its size:
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        writeResponse(httpExchange.getResponseBody(), aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
+      }
+    } catch (JsonProcessingException e) {
+      // not a disconnected client but a broken result, LanguageToolHttpHandler logs it and aborts the response:
+      throw e;
     } catch (IOException exception) {
       // the client is disconnected
       messageSent = "notSent: " + exception.getMessage();
@@ -274,10 +365,10 @@ abstract class TextChecker {
     int computationTime = (int) (System.currentTimeMillis() - timeStart);
     print("Check done: " + aText.getPlainText().length() + " chars, " + languageMessage + ", #" + count + ", " + referrer + ", "
             + matches.size() + " matches, "
-            + computationTime + "ms, agent:" + agent
+            + computationTime + "ms, w:" + scheduledCheck.getWaitMillis() + "ms, agent:" + agent
             + ", " + messageSent + ", q:" + (workQueue != null ? workQueue.size() : "?")
             + ", h:" + reqCounter.getHandleCount() + ", dH:" + reqCounter.getDistinctIps()
-            + ", m:" + mode.toString().toLowerCase());
+            + ", m:" + mode.toString().toLowerCase() + (stream != null ? ", stream" : ""));
 
     int matchCount = matches.size();
     DatabaseCheckLogEntry logEntry = new DatabaseCheckLogEntry(userId, agentId, logServerId, textSize, matchCount,
@@ -291,6 +382,227 @@ abstract class TextChecker {
     logger.log(logEntry);
   }
 
+  /**
+   * Check several texts with the same parameters and send one result per text, used for {@code /v2/check/batch}.
+   * The texts are grouped by language, the texts of a group are checked one after the other with the same
+   * pipeline, and identical texts are only checked once. Limits like the maximum text length and the
+   * maximum check time apply to each text, and problems with a single text are reported in the
+   * result for that text instead of failing the whole request. The whole batch may take as long
+   * as the maximum check time multiplied by the number of texts to check, including the time it waits
+   * for the scheduler, so later texts might get less time than a single check. Hidden matches are not supported.
+   * @since 4.4
+   */
+  void checkBatch(List<BatchItem> items, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
+                  String remoteAddress) throws Exception {
+    if (items.isEmpty()) {
+      throw new IllegalArgumentException("'items' must contain at least one text");
+    }
+    if (items.size() > config.getMaxBatchSize()) {
+      throw new IllegalArgumentException("Too many texts: " + items.size() + ", the maximum per request is " + config.getMaxBatchSize());
+    }
+    long timeStart = System.currentTimeMillis();
+    UserLimits limits = ServerTools.getUserLimits(parameters, config);
+    Long agentId = null, userId = null;
+    if (logger.isLogging()) {
+      DatabaseAccess db = DatabaseAccess.getInstance();
+      agentId = db.getOrCreateClientId(parameters.get("useragent"));
+      userId = limits.getPremiumUid();
+    }
+    UserConfig userConfig = getUserConfig(limits);
+    String motherTongueParam = parameters.get("motherTongue");
+    Language motherTongue = motherTongueParam != null ? Languages.getLanguageForShortCode(motherTongueParam) : null;
+    QueryParams params = getQueryParams(parameters);
+
+    BatchResult[] results = new BatchResult[items.size()];
+    DetectedLanguage[] detLangs = new DetectedLanguage[items.size()];
+    // language -> text -> indexes of the items with that text:
+    Map<Language, Map<String, List<Integer>>> itemsByLanguage = new LinkedHashMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      BatchItem item = items.get(i);
+      String text = item.text.getPlainText();
+      if (text.length() > limits.getMaxTextLength()) {
+        results[i] = new BatchResult(item.text, "Your text exceeds the limit of " + limits.getMaxTextLength() +
+                " characters (it's " + text.length() + " characters). Please submit a shorter text.");
+        continue;
+      }
+      try {
+        Map<String, String> itemParameters = parameters;
+        if (item.language != null) {
+          itemParameters = new HashMap<>(parameters);
+          itemParameters.put("language", item.language);
+        }
+        if (itemParameters.get("language") == null) {
+          throw new IllegalArgumentException("Missing 'language' for text, set it for the text or as a parameter for all texts");
+        }
+        detLangs[i] = getLanguage(text, itemParameters, getPreferredVariants(itemParameters));
+      } catch (IllegalArgumentException e) {
+        results[i] = new BatchResult(item.text, e.getMessage());
+        continue;
+      }
+      itemsByLanguage.computeIfAbsent(detLangs[i].getGivenLanguage(), k -> new LinkedHashMap<>())
+                     .computeIfAbsent(text, k -> new ArrayList<>()).add(i);
+    }
+
+    // the whole batch waits only once, as its texts are checked one after the other anyway:
+    int totalLength = itemsByLanguage.values().stream().flatMap(texts -> texts.keySet().stream()).mapToInt(String::length).sum();
+    int textCount = itemsByLanguage.values().stream().mapToInt(Map::size).sum();
+    long maxBatchMillis = limits.getMaxCheckTimeMillis() * Math.max(1, textCount);
+    CheckScheduler.ScheduledCheck scheduledCheck = new CheckScheduler.ScheduledCheck("batch", totalLength, limits.getPremiumUid() != null,
+            timeStart, limits.getMaxCheckTimeMillis() < 0 ? Long.MAX_VALUE : timeStart + maxBatchMillis);
+    checkScheduler.waitForStart(scheduledCheck);
+    int checkCount = 0;
+    try {
+      for (Map.Entry<Language, Map<String, List<Integer>>> entry : itemsByLanguage.entrySet()) {
+        Language lang = entry.getKey();
+        PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(lang, motherTongue, params, userConfig);
+        JLanguageTool lt = null;
+        for (List<Integer> indexes : entry.getValue().values()) {
+          AnnotatedText aText = items.get(indexes.get(0)).text;
+          if (errorRequestLimiter != null && !errorRequestLimiter.wouldAccessBeOkay(remoteAddress)) {
+            setBatchResults(results, indexes, new BatchResult(aText, "Text not checked - too many recent timeouts. Allowed maximum timeouts: " +
+                    errorRequestLimiter.getRequestLimit() + " per " + errorRequestLimiter.getRequestLimitPeriodInSeconds() + " seconds"));
+            continue;
+          }
+          // each text gets the time of a single check, but no more than what's left of the batch's time:
+          long maxMillis = limits.getMaxCheckTimeMillis() < 0 ? -1 : Math.min(limits.getMaxCheckTimeMillis(), getRemainingMillis(scheduledCheck));
+          String timeoutMessage = maxMillis < limits.getMaxCheckTimeMillis() ?
+                  "the batch took longer than allowed maximum of " + String.format(Locale.ENGLISH, "%.2f", maxBatchMillis/1000.0) + " seconds" :
+                  "text checking took longer than allowed maximum of " + String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
+          if (maxMillis == 0) {
+            setBatchResults(results, indexes, new BatchResult(aText, "Text not checked: " + timeoutMessage));
+            continue;
+          }
+          if (lt == null) {
+            lt = pipelinePool.getPipeline(settings);
+          }
+          JLanguageTool pipeline = lt;
+          List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
+          CancellationToken cancellationToken = new CancellationToken();
+          long checkStart = System.currentTimeMillis();
+          Future<List<RuleMatch>> future = executorService.submit(() ->
+                  pipeline.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, ruleMatchesSoFar::add, params.mode, cancellationToken));
+          checkCount++;
+          List<RuleMatch> matches;
+          String incompleteResultReason = null;
+          try {
+            if (maxMillis < 0) {
+              matches = future.get();
+            } else {
+              matches = future.get(maxMillis, TimeUnit.MILLISECONDS);
+            }
+          } catch (ExecutionException e) {
+            lt = null;  // only re-use the pipeline if checking has finished normally
+            Throwable rootCause = ExceptionUtils.getRootCause(e);
+            if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
+              throw (OutOfMemoryError)e.getCause();
+            } else if (params.allowIncompleteResults && rootCause instanceof ErrorRateTooHighException) {
+              matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+              incompleteResultReason = "Results are incomplete: " + rootCause.getMessage();
+            } else {
+              print("Batch check failed: " + e.getMessage() + ", " + aText.getPlainText().length() + " chars, " + lang.getShortCodeWithCountryAndVariant());
+              setBatchResults(results, indexes, new BatchResult(aText, rootCause instanceof ErrorRateTooHighException ?
+                      rootCause.getMessage() : "Internal Error: " + rootCause.getMessage()));
+              continue;
+            }
+          } catch (TimeoutException e) {
+            cancellationToken.cancel();
+            future.cancel(true);
+            lt = null;  // a cancelled check might still be using the pipeline
+            if (errorRequestLimiter != null) {
+              errorRequestLimiter.logAccess(remoteAddress);
+            }
+            if (params.allowIncompleteResults) {
+              matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+              incompleteResultReason = "Results are incomplete: " + timeoutMessage;
+            } else {
+              setBatchResults(results, indexes, new BatchResult(aText, "Text not checked: " + timeoutMessage));
+              continue;
+            }
+          }
+          for (int i : indexes) {
+            results[i] = new BatchResult(items.get(i).text, detLangs[i], matches, incompleteResultReason);
+          }
+          int computationTime = (int) (System.currentTimeMillis() - checkStart);
+          logger.log(new DatabaseCheckLogEntry(userId, agentId, logServerId, aText.getPlainText().length(), matches.size(),
+                  lang, detLangs[indexes.get(0)].getDetectedLanguage(), computationTime, null));
+        }
+        if (lt != null) {
+          pipelinePool.returnPipeline(settings, lt);
+        }
+      }
+    } finally {
+      checkScheduler.finished(scheduledCheck);
+    }
+
+    setHeaders(httpExchange);
+    String messageSent = "sent";
+    try {
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      writeBatchResponse(httpExchange.getResponseBody(), Arrays.asList(results));
+    } catch (JsonProcessingException e) {
+      throw e;  // see check()
+    } catch (IOException exception) {
+      // the client is disconnected
+      messageSent = "notSent: " + exception.getMessage();
+    }
+    long errorCount = Arrays.stream(results).filter(r -> r.error != null).count();
+    print("Batch check done: " + items.size() + " texts, " + checkCount + " checked, " + errorCount + " errors, "
+            + itemsByLanguage.size() + " languages, " + (System.currentTimeMillis() - timeStart) + "ms, w:" + scheduledCheck.getWaitMillis() + "ms, " + messageSent
+            + ", q:" + (workQueue != null ? workQueue.size() : "?") + ", h:" + reqCounter.getHandleCount());
+  }
+
+  // the time until the check's deadline, so the time spent waiting for the scheduler counts, too:
+  private static long getRemainingMillis(CheckScheduler.ScheduledCheck scheduledCheck) {
+    return Math.max(0, scheduledCheck.deadlineMillis - System.currentTimeMillis());
+  }
+
+  private static void setBatchResults(BatchResult[] results, List<Integer> indexes, BatchResult result) {
+    for (int i : indexes) {
+      results[i] = result;
+    }
+  }
+
+  private QueryParams getQueryParams(Map<String, String> parameters) {
+    boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly")) || "true".equals(parameters.get("enabledOnly"));
+    List<Language> altLanguages = new ArrayList<>();
+    if (parameters.get("altLanguages") != null) {
+      String[] altLangParams = parameters.get("altLanguages").split(",\\s*");
+      for (String langCode : altLangParams) {
+        Language altLang = Languages.getLanguageForShortCode(langCode);
+        altLanguages.add(altLang);
+        if (altLang.hasVariant() && !altLang.isVariant()) {
+          throw new IllegalArgumentException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
+        }
+      }
+    }
+    List<String> enabledRules = getEnabledRuleIds(parameters);
+
+    List<String> disabledRules = getDisabledRuleIds(parameters);
+    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", parameters);
+    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", parameters);
+
+    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
+      throw new IllegalArgumentException("You cannot specify disabled rules or categories using enabledOnly=true");
+    }
+    if (enabledRules.size() == 0 && enabledCategories.size() == 0 && useEnabledOnly) {
+      throw new IllegalArgumentException("You must specify enabled rules or categories when using enabledOnly=true");
+    }
+
+    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
+            enabledCategories.size() > 0 || disabledCategories.size() > 0;
+    boolean allowIncompleteResults = "true".equals(parameters.get("allowIncompleteResults"));
+    boolean enableHiddenRules = "true".equals(parameters.get("enableHiddenRules"));
+    JLanguageTool.Mode mode = ServerTools.getMode(parameters);
+    return new QueryParams(altLanguages, enabledRules, disabledRules, enabledCategories, disabledCategories, 
+            useEnabledOnly, useQuerySettings, allowIncompleteResults, enableHiddenRules, mode);
+  }
+
+  private UserConfig getUserConfig(UserLimits limits) {
+    return new UserConfig(
+            limits.getPremiumUid() != null ? getUserDictWords(limits.getPremiumUid()) : Collections.emptyList(),
+            new HashMap<>(), config.getMaxSpellingSuggestions());
+  }
+
   private List<String> getUserDictWords(Long userId) {
     DatabaseAccess db = DatabaseAccess.getInstance();
     return db.getUserDictWords(userId);
@@ -302,16 +614,29 @@ abstract class TextChecker {
     }
   }
 
-  private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang,
-                                         Language motherTongue, QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+  private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig,
+                                         CancellationToken cancellationToken, RuleMatchListener listener) throws Exception {
     if (cache != null && cache.requestCount() > 0 && cache.requestCount() % CACHE_STATS_PRINT == 0) {
       double hitRate = cache.hitRate();
       String hitPercentage = String.format(Locale.ENGLISH, "%.2f", hitRate * 100.0f);
       print("Cache stats: " + hitPercentage + "% hit rate");
+      if (cache instanceof TwoTierResultCache) {
+        TwoTierResultCache twoTierCache = (TwoTierResultCache) cache;
+        print("Remote cache stats: " + twoTierCache.remoteHitCount() + " hits, " + twoTierCache.remoteRequestCount() +
+              " requests, " + twoTierCache.remoteErrorCount() + " errors");
+      }
       logger.log(new DatabaseCacheStatsLogEntry(logServerId, (float) hitRate));
+      if (config.isPipelineCachingEnabled()) {
+        print("Pipeline pool stats: " + String.format(Locale.ENGLISH, "%.2f", pipelinePool.hitRate() * 100.0f) + "% hit rate, " +
+              pipelinePool.getHitCount() + " hits, " + pipelinePool.getMissCount() + " misses, " + pipelinePool.getIdleCount() + " idle");
+      }
     }
-    JLanguageTool lt = getLanguageToolInstance(lang, motherTongue, params, userConfig);
-    return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode);
+    PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(lang, motherTongue, params, userConfig);
+    JLanguageTool lt = pipelinePool.getPipeline(settings);
+    List<RuleMatch> matches = lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode, cancellationToken);
+    // only return the pipeline if checking has finished, a cancelled check might still be using it:
+    pipelinePool.returnPipeline(settings, lt);
+    return matches;
   }
 
   @NotNull
@@ -361,52 +686,52 @@ abstract class TextChecker {
   }
 
   /**
-   * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
-   *
-   * @param lang the language to be used
-   * @param motherTongue the user's mother tongue or {@code null}
+   * One of the texts of a {@code /v2/check/batch} request.
+   * @since 4.4
    */
-  private JLanguageTool getLanguageToolInstance(Language lang, Language motherTongue, QueryParams params, UserConfig userConfig) throws Exception {
-    JLanguageTool lt = new JLanguageTool(lang, params.altLanguages, motherTongue, cache, userConfig);
-    lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
-    if (config.getLanguageModelDir() != null) {
-      lt.activateLanguageModelRules(config.getLanguageModelDir());
-    }
-    if (config.getWord2VecModelDir () != null) {
-      lt.activateWord2VecModelRules(config.getWord2VecModelDir());
-    }
-    if (config.getRulesConfigFile() != null) {
-      configureFromRulesFile(lt, lang);
-    } else {
-      configureFromGUI(lt, lang);
+  static class BatchItem {
+    final AnnotatedText text;
+    @Nullable
+    final String language;
+
+    /**
+     * @param language a language code or {@code auto}, or {@code null} to use the request's {@code language} parameter
+     */
+    BatchItem(AnnotatedText text, @Nullable String language) {
+      this.text = Objects.requireNonNull(text);
+      this.language = language;
     }
-    if (params.useQuerySettings) {
-      Tools.selectRules(lt, new HashSet<>(params.disabledCategories), new HashSet<>(params.enabledCategories),
-              new HashSet<>(params.disabledRules), new HashSet<>(params.enabledRules), params.useEnabledOnly);
-    }
-    return lt;
   }
 
-  private void configureFromRulesFile(JLanguageTool langTool, Language lang) throws IOException {
-    print("Using options configured in " + config.getRulesConfigFile());
-    // If we are explicitly configuring from rules, ignore the useGUIConfig flag
-    if (config.getRulesConfigFile() != null) {
-      org.languagetool.gui.Tools.configureFromRules(langTool, new Configuration(config.getRulesConfigFile()
-          .getCanonicalFile().getParentFile(), config.getRulesConfigFile().getName(), lang));
-    } else {
-      throw new RuntimeException("config.getRulesConfigFile() is null");
+  /**
+   * The result for one {@link BatchItem}: either the matches or an error message.
+   * @since 4.4
+   */
+  static class BatchResult {
+    final AnnotatedText text;
+    final DetectedLanguage language;
+    final List<RuleMatch> matches;
+    final String incompleteResultReason;
+    final String error;
+
+    BatchResult(AnnotatedText text, DetectedLanguage language, List<RuleMatch> matches, @Nullable String incompleteResultReason) {
+      this.text = Objects.requireNonNull(text);
+      this.language = Objects.requireNonNull(language);
+      this.matches = Objects.requireNonNull(matches);
+      this.incompleteResultReason = incompleteResultReason;
+      this.error = null;
     }
-  }
 
-  private void configureFromGUI(JLanguageTool langTool, Language lang) throws IOException {
-    Configuration config = new Configuration(lang);
-    if (internalServer && config.getUseGUIConfig()) {
-      print("Using options configured in the GUI");
-      org.languagetool.gui.Tools.configureFromRules(langTool, config);
+    BatchResult(AnnotatedText text, String error) {
+      this.text = Objects.requireNonNull(text);
+      this.language = null;
+      this.matches = null;
+      this.incompleteResultReason = null;
+      this.error = Objects.requireNonNull(error);
     }
   }
 
-  private static class QueryParams {
+  static class QueryParams {
     final List<Language> altLanguages;
     final List<String> enabledRules;
     final List<String> disabledRules;
@@ -18,6 +18,9 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.Language;
@@ -27,6 +30,8 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 import static org.languagetool.server.ServerTools.setCommonHeaders;
@@ -49,11 +54,37 @@ class V2TextChecker extends TextChecker {
   }
 
   @Override
-  protected String getResponse(AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
-                               List<RuleMatch> hiddenMatches, String incompleteResultsReason) {
+  protected void writeResponse(OutputStream out, AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultsReason) throws IOException {
     RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
-    return serializer.ruleMatchesToJson(matches, hiddenMatches, text, CONTEXT_SIZE,
-            lang.getGivenLanguage(), lang.getDetectedLanguage(), incompleteResultsReason);
+    serializer.ruleMatchesToJson(matches, hiddenMatches, text, CONTEXT_SIZE,
+            lang.getGivenLanguage(), lang.getDetectedLanguage(), incompleteResultsReason, out);
+  }
+
+  @Override
+  protected void writeBatchResponse(OutputStream out, List<BatchResult> results) throws IOException {
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
+    try (JsonGenerator g = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      g.writeStartObject();
+      g.writeArrayFieldStart("results");
+      for (BatchResult result : results) {
+        if (result.error != null) {
+          g.writeStartObject();
+          g.writeObjectFieldStart("error");
+          g.writeStringField("message", result.error);
+          g.writeEndObject();
+          g.writeEndObject();
+        } else {
+          // the texts of a batch are short, so creating a string per result is okay:
+          g.writeRawValue(serializer.ruleMatchesToJson(result.matches, Collections.emptyList(), result.text, CONTEXT_SIZE,
+                  result.language.getGivenLanguage(), result.language.getDetectedLanguage(), result.incompleteResultReason));
+        }
+      }
+      g.writeEndArray();
+      g.writeEndObject();
+    }
+    out.flush();
   }
 
   @NotNull
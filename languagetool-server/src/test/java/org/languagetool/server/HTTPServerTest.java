@@ -21,17 +21,22 @@ package org.languagetool.server;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.language.*;
 import org.languagetool.tools.StringTools;
 import org.xml.sax.SAXException;
 
+import javax.management.ObjectName;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Map;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -282,6 +287,132 @@ public class HTTPServerTest {
     }
   }
 
+  @Test
+  public void testRuleMetrics() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    config.setRuleMetrics(true);
+    HTTPServer server = new HTTPServer(config, false);
+    ObjectName name = new ObjectName("org.languagetool:name=RuleStatistics, type=RuleStatistics");
+    try {
+      server.run();
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+      assertTrue(checkV2(new AmericanEnglish(), "This is is a test.").contains("ENGLISH_WORD_REPEAT_RULE"));
+      URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/metrics");
+      String json = HTTPTools.checkAtUrl(url);
+      assertTrue(json, json.startsWith("{\"rules\":[{\"id\":"));
+      assertTrue(json, json.contains("{\"id\":\"ENGLISH_WORD_REPEAT_RULE\",\"timeMillis\":"));
+    } finally {
+      server.stop();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  @Test
+  public void testCheckBatch() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    config.setMaxTextLength(30);
+    config.setMaxBatchSize(5);
+    HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/check/batch");
+      String items = "[{\"text\": \"This is is a test.\"}, {\"text\": \"Das ist ein ein Test.\", \"language\": \"de-DE\"}," +
+              "{\"text\": \"This is is a test.\"}, {\"text\": \"This is a very long text, it's longer than the limit.\"}," +
+              "{\"text\": \"No language.\", \"language\": \"xx-XX\"}]";
+      String json = HTTPTools.checkAtUrlByPost(url, "language=en-US&items=" + URLEncoder.encode(items, "UTF-8"));
+      assertTrue(json, json.startsWith("{\"results\":[{\"software\":"));
+      assertThat(StringUtils.countMatches(json, "\"software\":"), is(3));
+      assertThat(StringUtils.countMatches(json, "ENGLISH_WORD_REPEAT_RULE"), is(2));
+      assertTrue(json, json.contains("GERMAN_WORD_REPEAT_RULE"));
+      assertTrue(json, json.contains("{\"error\":{\"message\":\"Your text exceeds the limit of 30 characters"));
+      assertThat(StringUtils.countMatches(json, "{\"error\":"), is(2));
+
+      try {
+        String tooManyItems = "[{\"text\": \"a\"}, {\"text\": \"b\"}, {\"text\": \"c\"}, {\"text\": \"d\"}, {\"text\": \"e\"}, {\"text\": \"f\"}]";
+        HTTPTools.checkAtUrlByPost(url, "language=en-US&items=" + URLEncoder.encode(tooManyItems, "UTF-8"));
+        fail();
+      } catch (IOException expected) {
+        assertTrue(expected.toString().contains(" 400 "));
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testCheckStream() throws Exception {
+    HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort(), false), false);
+    try {
+      server.run();
+      String ndjson = plainTextCheck("/v2/check/stream", new AmericanEnglish(), null, "This is is a test. And this is is another one.", "");
+      String[] lines = ndjson.split("\n");
+      assertTrue(ndjson, lines.length >= 2);
+      assertTrue(ndjson, lines[0].startsWith("{\"type\":\"matches\",\"matches\":[{\"message\":"));
+      assertTrue(ndjson, lines[0].contains("ENGLISH_WORD_REPEAT_RULE"));
+      String result = lines[lines.length - 1];
+      assertTrue(ndjson, result.startsWith("{\"type\":\"result\",\"result\":{\"software\":"));
+      assertTrue(ndjson, result.endsWith("}}"));
+      assertThat(StringUtils.countMatches(result, "ENGLISH_WORD_REPEAT_RULE"), is(2));
+
+      String sse = plainTextCheck("/v2/check/stream", new AmericanEnglish(), null, "This is is a test.", "&format=sse");
+      assertTrue(sse, sse.startsWith("event: matches\ndata: [{"));
+      assertTrue(sse, sse.contains("\n\nevent: result\ndata: {\"software\":"));
+      assertTrue(sse, sse.endsWith("}\n\n"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testCheckStreamCancelledOnDisconnect() throws Exception {
+    HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort(), false), false);
+    try {
+      server.run();
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 50_000; i++) {  // takes much longer to check than the test waits below
+        text.append("This is is test number ").append(i).append(". ");
+      }
+      byte[] body = ("language=en-US&text=" + URLEncoder.encode(text.toString(), "UTF-8")).getBytes(StandardCharsets.UTF_8);
+      try (Socket socket = new Socket("localhost", HTTPTools.getDefaultPort())) {
+        OutputStream out = socket.getOutputStream();
+        out.write(("POST /v2/check/stream HTTP/1.1\r\nHost: localhost\r\n" +
+                   "Content-Type: application/x-www-form-urlencoded\r\nContent-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(body);
+        out.flush();
+        // disconnect as soon as the first matches have been streamed:
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        do {
+          line = reader.readLine();
+        } while (line != null && !line.contains("{\"type\":\"matches\""));
+        assertNotNull("No matches streamed", line);
+        assertTrue("Check finished before the client disconnected", isCheckRunning());
+      }
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (isCheckRunning()) {
+        if (System.currentTimeMillis() > deadline) {
+          fail("Check was not cancelled after the client disconnected");
+        }
+        Thread.sleep(50);
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  private boolean isCheckRunning() {
+    for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+      if (entry.getKey().getName().startsWith("lt-textchecker-thread")) {
+        for (StackTraceElement element : entry.getValue()) {
+          if (element.getClassName().equals(JLanguageTool.class.getName())) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   @Test
   public void testAccessDenied() throws Exception {
     HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false, new HashSet<>());
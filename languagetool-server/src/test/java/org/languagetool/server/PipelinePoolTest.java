@@ -0,0 +1,81 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.UserConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class PipelinePoolTest {
+
+  @Test
+  public void testPipelineReuse() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setPipelineCaching(true);
+    config.setMaxPipelinePoolSize(1);
+    PipelinePool pool = new PipelinePool(config, null, null, false);
+    Language lang = Languages.getLanguageForShortCode("en-US");
+    PipelinePool.PipelineSettings settings1 = new PipelinePool.PipelineSettings(lang, null, getParams("FOO"), new UserConfig());
+    PipelinePool.PipelineSettings settings2 = new PipelinePool.PipelineSettings(lang, null, getParams("BAR"), new UserConfig());
+
+    JLanguageTool lt1 = pool.getPipeline(settings1);
+    assertThat(pool.getMissCount(), is(1L));
+    pool.returnPipeline(settings1, lt1);
+    assertThat(pool.getIdleCount(), is(1));
+    assertSame(lt1, pool.getPipeline(settings1));
+    assertThat(pool.getHitCount(), is(1L));
+    assertThat(pool.getIdleCount(), is(0));
+
+    JLanguageTool lt2 = pool.getPipeline(settings2);
+    assertNotSame(lt1, lt2);
+    assertThat(pool.getMissCount(), is(2L));
+    assertTrue(lt2.getDisabledRules().contains("BAR"));
+
+    pool.returnPipeline(settings1, lt1);
+    pool.returnPipeline(settings2, lt2);  // pool is full, will be dropped
+    assertThat(pool.getIdleCount(), is(1));
+    assertNotSame(lt2, pool.getPipeline(settings2));
+  }
+
+  @Test
+  public void testPipelineCachingDisabled() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    PipelinePool pool = new PipelinePool(config, null, null, false);
+    Language lang = Languages.getLanguageForShortCode("en-US");
+    PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(lang, null, getParams("FOO"), new UserConfig());
+    JLanguageTool lt = pool.getPipeline(settings);
+    pool.returnPipeline(settings, lt);
+    assertNotSame(lt, pool.getPipeline(settings));
+    assertThat(pool.getHitCount(), is(0L));
+  }
+
+  private TextChecker.QueryParams getParams(String disabledRule) {
+    return new TextChecker.QueryParams(Collections.emptyList(), Collections.emptyList(), Arrays.asList(disabledRule),
+            Collections.emptyList(), Collections.emptyList(), false, true, false, false, JLanguageTool.Mode.ALL);
+  }
+
+}
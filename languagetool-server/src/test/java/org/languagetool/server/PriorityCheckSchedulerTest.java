@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class PriorityCheckSchedulerTest {
+
+  @Test
+  public void testShortChecksFirst() throws Exception {
+    PriorityCheckScheduler scheduler = new PriorityCheckScheduler(1, 0);
+    CheckScheduler.ScheduledCheck running = check(100, false, Long.MAX_VALUE);
+    scheduler.waitForStart(running);
+    List<Integer> startedLengths = new CopyOnWriteArrayList<>();
+    Thread longCheck = startInThread(scheduler, check(100_000, false, Long.MAX_VALUE), startedLengths);
+    waitForWaitingCount(scheduler, 1);
+    Thread shortCheck = startInThread(scheduler, check(100, false, Long.MAX_VALUE), startedLengths);
+    waitForWaitingCount(scheduler, 2);
+    scheduler.finished(running);
+    longCheck.join();
+    shortCheck.join();
+    assertThat(startedLengths.toString(), is("[100, 100000]"));
+    assertThat(scheduler.getStartedChecks(), is(3L));
+    assertThat(scheduler.getRunningCount(), is(0));
+  }
+
+  @Test
+  public void testPremiumShare() throws Exception {
+    PriorityCheckScheduler scheduler = new PriorityCheckScheduler(2, 0.5f);
+    scheduler.waitForStart(check(100, false, Long.MAX_VALUE));
+    List<Integer> startedLengths = new CopyOnWriteArrayList<>();
+    Thread nonPremium = startInThread(scheduler, check(100, false, Long.MAX_VALUE), startedLengths);
+    waitForWaitingCount(scheduler, 1);
+    scheduler.waitForStart(check(200, true, Long.MAX_VALUE));  // doesn't block, the second slot is reserved for premium users
+    assertThat(scheduler.getRunningCount(), is(2));
+    assertThat(scheduler.getWaitingCount(), is(1));
+    assertThat(startedLengths.size(), is(0));
+    nonPremium.interrupt();
+    nonPremium.join();
+    assertThat(scheduler.getWaitingCount(), is(0));
+  }
+
+  @Test
+  public void testRejectCheckThatCannotMeetDeadline() throws Exception {
+    PriorityCheckScheduler scheduler = new PriorityCheckScheduler(1, 0);
+    CheckScheduler.ScheduledCheck running = check(100, false, Long.MAX_VALUE);
+    scheduler.waitForStart(running);
+    long deadline = System.currentTimeMillis() + 100;
+    try {
+      scheduler.waitForStart(check(100, false, deadline));
+      fail();
+    } catch (CheckRejectedException expected) {
+      assertThat(System.currentTimeMillis() < deadline, is(true));  // rejected as soon as the deadline can't be met
+    }
+    assertThat(scheduler.getRejectedChecks(), is(1L));
+    assertThat(scheduler.getWaitingCount(), is(0));
+    scheduler.finished(running);
+    scheduler.waitForStart(check(100, false, System.currentTimeMillis() + 100));  // slot is free again
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPremiumShare() {
+    new PriorityCheckScheduler(10, 1);
+  }
+
+  private CheckScheduler.ScheduledCheck check(int textLength, boolean premium, long deadline) {
+    return new CheckScheduler.ScheduledCheck("xx", textLength, premium, System.currentTimeMillis(), deadline);
+  }
+
+  private Thread startInThread(CheckScheduler scheduler, CheckScheduler.ScheduledCheck check, List<Integer> startedLengths) {
+    Thread thread = new Thread(() -> {
+      try {
+        scheduler.waitForStart(check);
+        startedLengths.add(check.textLength);
+        scheduler.finished(check);
+      } catch (InterruptedException ignored) {
+      }
+    });
+    thread.start();
+    return thread;
+  }
+
+  private void waitForWaitingCount(CheckScheduler scheduler, int count) throws InterruptedException {
+    while (scheduler.getWaitingCount() < count) {
+      Thread.sleep(5);
+    }
+  }
+
+}
@@ -78,6 +78,19 @@ public class RequestLimiterTest {
     assertException(limiter, firstIp, params);  // 41 bytes!
   }
 
+  @Test
+  public void testManyIpAddresses() {
+    RequestLimiter limiter = new RequestLimiter(2, 0, 100);
+    Map<String, String> params = new HashMap<>();
+    assertOkay(limiter, "192.168.10.1", params);
+    for (int i = 0; i < 2000; i++) {
+      assertOkay(limiter, "10.0." + (i / 256) + "." + (i % 256), params);
+    }
+    // requests from other IP addresses don't push older requests out:
+    assertOkay(limiter, "192.168.10.1", params);
+    assertException(limiter, "192.168.10.1", params);
+  }
+
   private void assertOkay(RequestLimiter limiter, String ip, Map<String, String> params) {
     try {
       limiter.checkAccess(ip, params);
@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheServerTest {
+
+  @Test
+  public void testGetAndPut() throws IOException {
+    try (ResultCacheServer server = new ResultCacheServer(0, 1024 * 1024)) {
+      server.start();
+      try (ResultCacheServerClient client = new ResultCacheServerClient("localhost:" + server.getPort(), 1000)) {
+        assertNull(client.get(bytes("key1")));
+        client.put(bytes("key1"), bytes("value1"));
+        client.put(bytes("key2"), new byte[0]);
+        assertThat(client.get(bytes("key1")), is(bytes("value1")));  // same connection, so the put has been handled
+        assertThat(client.get(bytes("key2")), is(new byte[0]));
+        assertNull(client.get(bytes("key3")));
+        assertThat(server.size(), is(2L));
+      }
+    }
+  }
+
+  @Test
+  public void testListensOnLoopbackByDefault() throws IOException {
+    try (ResultCacheServer server = new ResultCacheServer(0, 1024 * 1024)) {
+      assertTrue(server.getBindAddress().isLoopbackAddress());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testKeyTooLong() throws IOException {
+    try (ResultCacheServer server = new ResultCacheServer(0, 1024 * 1024)) {
+      server.start();
+      try (ResultCacheServerClient client = new ResultCacheServerClient("localhost:" + server.getPort(), 1000)) {
+        client.get(new byte[ResultCacheServer.MAX_KEY_LENGTH + 1]);  // server closes the connection
+      }
+    }
+  }
+
+  private byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+import org.languagetool.Languages;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ResultExtenderTest {
+
+  private static final String RESPONSE = "{\"matches\":[{\"message\":\"msg\",\"offset\":4,\"length\":1," +
+          "\"context\":{\"text\":\"foo & bar\",\"offset\":4,\"length\":1}," +
+          "\"rule\":{\"id\":\"REMOTE_RULE\",\"category\":{\"id\":\"CAT\",\"name\":\"Category\"}}}]}";
+
+  @Test
+  public void testExtensionMatchesFuture() throws Exception {
+    StringBuilder receivedText = new StringBuilder();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      String body = new Scanner(exchange.getRequestBody(), "UTF-8").useDelimiter("\\A").next();
+      for (String param : body.split("&")) {
+        if (param.startsWith("text=")) {
+          receivedText.append(URLDecoder.decode(param.substring("text=".length()), "UTF-8"));
+        }
+      }
+      sleep(300);
+      byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.start();
+    try {
+      ResultExtender extender = new ResultExtender("http://localhost:" + server.getAddress().getPort(), 1000, 2);
+      long start = System.currentTimeMillis();
+      Future<List<RemoteRuleMatch>> future = extender.getExtensionMatchesFuture("foo & bar", Languages.getLanguageForShortCode("en"));
+      assertThat(System.currentTimeMillis() - start < 300, is(true));  // doesn't wait for the server
+      List<RemoteRuleMatch> matches = future.get();
+      assertThat(matches.size(), is(1));
+      assertThat(matches.get(0).getRuleId(), is("REMOTE_RULE"));
+      assertThat(receivedText.toString(), is("foo & bar"));
+      // a second request works, too (re-using the connection):
+      assertThat(extender.getExtensionMatches("foo & bar", Languages.getLanguageForShortCode("en")).size(), is(1));
+      extender.shutdownNow();
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static void sleep(long millis) throws IOException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+}
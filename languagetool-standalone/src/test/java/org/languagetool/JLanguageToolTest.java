@@ -238,6 +238,32 @@ public class JLanguageToolTest {
     assertThat(lt.check("Another test. This is an test.").size(), is(1));  // still correct even though cache is activated
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void testDisabledRulesCannotBeModified() {
+    // changes must go through disableRule() etc., so the cache key is updated:
+    new JLanguageTool(english).getDisabledRules().add("EN_A_VS_AN");
+  }
+
+  @Test
+  public void testOffHeapCache() throws IOException {
+    OffHeapResultCache cache = new OffHeapResultCache(1024 * 1024, 1000);
+    JLanguageTool lt = new JLanguageTool(english, null, cache);
+    List<RuleMatch> matches1 = lt.check("A test. This is an test.");
+    assertThat(cache.hitCount(), is(0L));
+    List<RuleMatch> matches2 = lt.check("Another test. This is an test.");
+    assertThat(cache.hitCount(), is(2L));
+    assertThat(matches2.size(), is(1));
+    RuleMatch match1 = matches1.get(0);
+    RuleMatch match2 = matches2.get(0);
+    assertSame(match1.getRule(), match2.getRule());
+    assertThat(match2.getFromPos(), is(match1.getFromPos() + 6));
+    assertThat(match2.getToPos(), is(match1.getToPos() + 6));
+    assertThat(match2.getMessage(), is(match1.getMessage()));
+    assertThat(match2.getShortMessage(), is(match1.getShortMessage()));
+    assertThat(match2.getSuggestedReplacements(), is(match1.getSuggestedReplacements()));
+    assertThat(match2.getSentence().getText(), is("This is an test."));
+  }
+
   @Test
   public void testCacheWithTextLevelRules() throws IOException {
     ResultCache cache = new ResultCache(1000);